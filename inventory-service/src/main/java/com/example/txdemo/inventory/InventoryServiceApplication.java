@@ -1,7 +1,11 @@
 package com.example.txdemo.inventory;
 
+import com.example.txdemo.inventory.admission.AdmissionProperties;
 import com.example.txdemo.inventory.lock.RedisLockProperties;
+import com.example.txdemo.inventory.metrics.SagaMetricsProperties;
 import com.example.txdemo.inventory.mq.RocketMqProperties;
+import com.example.txdemo.inventory.mq.TransportProperties;
+import com.example.txdemo.inventory.routing.ReadReplicaProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -9,7 +13,14 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableScheduling
-@EnableConfigurationProperties({RocketMqProperties.class, RedisLockProperties.class})
+@EnableConfigurationProperties({
+        RocketMqProperties.class,
+        TransportProperties.class,
+        RedisLockProperties.class,
+        AdmissionProperties.class,
+        ReadReplicaProperties.class,
+        SagaMetricsProperties.class
+})
 public class InventoryServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(InventoryServiceApplication.class, args);
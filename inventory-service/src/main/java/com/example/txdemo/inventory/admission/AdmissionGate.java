@@ -0,0 +1,128 @@
+package com.example.txdemo.inventory.admission;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class AdmissionGate {
+    private static final Permit NOOP = () -> {};
+
+    private final ConcurrentHashMap<String, TokenBucket> productBuckets = new ConcurrentHashMap<>();
+    private final TokenBucket globalBucket;
+    private final ConcurrencyLimiter limiter;
+    private volatile AdmissionProperties limits;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejectedGlobalRate = new LongAdder();
+    private final LongAdder rejectedProductRate = new LongAdder();
+    private final LongAdder rejectedConcurrency = new LongAdder();
+    private final LongAdder queuedAdmitted = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+
+    public AdmissionGate(AdmissionProperties properties) {
+        properties.validate();
+        this.limits = properties;
+        this.globalBucket = new TokenBucket(properties.globalRate(), properties.globalBurst());
+        this.limiter = new ConcurrencyLimiter(properties.maxConcurrency(), properties.maxQueue());
+    }
+
+    public Permit enter(String productId) {
+        AdmissionProperties current = limits;
+        if (!current.enabled()) {
+            return NOOP;
+        }
+        TokenBucket productBucket = productBucket(productId, current);
+        if (productBucket != null && !productBucket.tryAcquire()) {
+            rejectedProductRate.increment();
+            throw new AdmissionRejectedException("限流: 商品请求过快 " + productId);
+        }
+        if (!globalBucket.tryAcquire()) {
+            refund(productBucket);
+            rejectedGlobalRate.increment();
+            throw new AdmissionRejectedException("限流: 全局请求过快");
+        }
+        if (!limiter.tryAcquire()) {
+            acquireQueued(current, productBucket);
+        }
+        admitted.increment();
+        return limiter::release;
+    }
+
+    public synchronized void update(AdmissionProperties next) {
+        next.validate();
+        globalBucket.configure(next.globalRate(), next.globalBurst());
+        limiter.configure(next.maxConcurrency(), next.maxQueue());
+        productBuckets.values().forEach(bucket -> bucket.configure(next.productRate(), next.productBurst()));
+        if (productBuckets.size() > next.maxTrackedProducts()) {
+            productBuckets.clear();
+        }
+        this.limits = next;
+    }
+
+    public AdmissionProperties limits() {
+        return limits;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("limits", limits);
+        stats.put("admitted", admitted.sum());
+        stats.put("rejectedGlobalRate", rejectedGlobalRate.sum());
+        stats.put("rejectedProductRate", rejectedProductRate.sum());
+        stats.put("rejectedConcurrency", rejectedConcurrency.sum());
+        stats.put("queuedAdmitted", queuedAdmitted.sum());
+        stats.put("queueWaitMillis", TimeUnit.NANOSECONDS.toMillis(queueWaitNanos.sum()));
+        stats.put("inFlight", limiter.inFlight());
+        stats.put("waiting", limiter.waiting());
+        stats.put("trackedProducts", productBuckets.size());
+        return stats;
+    }
+
+    // 被后面的阶段拒绝时退回前面阶段拿到的令牌，否则拒绝本身会继续消耗额度，高负载下越限越紧。
+    private static void refund(TokenBucket bucket) {
+        if (bucket != null) {
+            bucket.refund();
+        }
+    }
+
+    private TokenBucket productBucket(String productId, AdmissionProperties current) {
+        if (current.productRate() <= 0 || productId == null) {
+            return null;
+        }
+        TokenBucket bucket = productBuckets.get(productId);
+        if (bucket != null || productBuckets.size() >= current.maxTrackedProducts()) {
+            return bucket;
+        }
+        return productBuckets.computeIfAbsent(productId,
+                ignored -> new TokenBucket(current.productRate(), current.productBurst()));
+    }
+
+    private void acquireQueued(AdmissionProperties current, TokenBucket productBucket) {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = limiter.tryAcquire(current.maxQueueWait().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        queueWaitNanos.add(System.nanoTime() - start);
+        if (!acquired) {
+            refund(productBucket);
+            globalBucket.refund();
+            rejectedConcurrency.increment();
+            throw new AdmissionRejectedException("限流: 并发已满");
+        }
+        queuedAdmitted.increment();
+    }
+
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
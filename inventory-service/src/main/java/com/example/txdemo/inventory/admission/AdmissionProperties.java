@@ -0,0 +1,26 @@
+package com.example.txdemo.inventory.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "txdemo.inventory.admission")
+public record AdmissionProperties(
+        boolean enabled,
+        double globalRate,
+        int globalBurst,
+        double productRate,
+        int productBurst,
+        int maxConcurrency,
+        int maxQueue,
+        Duration maxQueueWait,
+        int maxTrackedProducts
+) {
+    void validate() {
+        if (globalRate < 0 || productRate < 0 || globalBurst < 1 || productBurst < 1
+                || maxConcurrency < 0 || maxQueue < 0 || maxTrackedProducts < 0
+                || maxQueueWait == null || maxQueueWait.isNegative()) {
+            throw new IllegalArgumentException("非法的限流配置: " + this);
+        }
+    }
+}
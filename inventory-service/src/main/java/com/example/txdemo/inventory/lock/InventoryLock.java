@@ -0,0 +1,15 @@
+package com.example.txdemo.inventory.lock;
+
+import java.time.Duration;
+
+public interface InventoryLock {
+    /**
+     * 在 wait 内尝试加锁，拿不到返回 null；lease 是持有上限，持有者挂掉后锁自动过期。
+     */
+    Handle tryLock(String key, Duration wait, Duration lease) throws InterruptedException;
+
+    interface Handle extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.txdemo.inventory.lock;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 单进程替身：只在库存服务只有一个实例时等价于 Redisson 锁，用于压测和本地联调。
+ * 锁随进程存在，持有者线程不会“失联”，所以忽略 lease。
+ */
+@Component
+@ConditionalOnProperty(prefix = "txdemo.lock", name = "type", havingValue = "local")
+public class LocalInventoryLock implements InventoryLock {
+    private final ConcurrentHashMap<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    @Override
+    public Handle tryLock(String key, Duration wait, Duration lease) throws InterruptedException {
+        ReentrantLock lock = locks.computeIfAbsent(key, k -> new ReentrantLock());
+        if (!lock.tryLock(wait.toMillis(), TimeUnit.MILLISECONDS)) {
+            return null;
+        }
+        return () -> {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        };
+    }
+}
@@ -3,10 +3,12 @@ package com.example.txdemo.inventory.lock;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
 import org.redisson.config.Config;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
+@ConditionalOnProperty(prefix = "txdemo.lock", name = "type", havingValue = "redisson", matchIfMissing = true)
 public class RedissonConfig {
     @Bean(destroyMethod = "shutdown")
     public RedissonClient redissonClient(RedisLockProperties properties) {
@@ -0,0 +1,32 @@
+package com.example.txdemo.inventory.lock;
+
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@ConditionalOnProperty(prefix = "txdemo.lock", name = "type", havingValue = "redisson", matchIfMissing = true)
+public class RedissonInventoryLock implements InventoryLock {
+    private final RedissonClient redissonClient;
+
+    public RedissonInventoryLock(RedissonClient redissonClient) {
+        this.redissonClient = redissonClient;
+    }
+
+    @Override
+    public Handle tryLock(String key, Duration wait, Duration lease) throws InterruptedException {
+        RLock lock = redissonClient.getLock(key);
+        if (!lock.tryLock(wait.toMillis(), lease.toMillis(), TimeUnit.MILLISECONDS)) {
+            return null;
+        }
+        return () -> {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        };
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.txdemo.inventory.metrics;
+
+import com.example.txdemo.inventory.mq.MessageHandler;
+import com.example.txdemo.inventory.mq.ProcessedMessageRepository;
+import com.example.txdemo.inventory.outbox.OutboxBacklog;
+import com.example.txdemo.inventory.outbox.OutboxRecord;
+import com.example.txdemo.inventory.outbox.OutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * saga 各段耗时：outbox 里等待发送、broker 上停留、消费者处理。下单到终态在订单服务统计。
+ * 积压类指标（outbox NEW 数量、最老 NEW 的等待时长、去重表行数估算）按 gauge-interval 定时采样，读取时不查库。
+ */
+@Component
+public class SagaMetrics implements SchedulingConfigurer {
+    private static final Logger log = LoggerFactory.getLogger(SagaMetrics.class);
+
+    private final OutboxRepository outboxRepository;
+    private final ProcessedMessageRepository processedMessageRepository;
+    private final SagaMetricsProperties properties;
+    private final ConcurrentHashMap<String, LatencyHistogram> outboxAge = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LatencyHistogram> brokerDwell = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LatencyHistogram> handlerTime = new ConcurrentHashMap<>();
+
+    private volatile Sample sample;
+
+    public SagaMetrics(
+            OutboxRepository outboxRepository,
+            ProcessedMessageRepository processedMessageRepository,
+            SagaMetricsProperties properties
+    ) {
+        this.outboxRepository = outboxRepository;
+        this.processedMessageRepository = processedMessageRepository;
+        this.properties = properties;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(this::sampleBacklog, properties.gaugeInterval());
+    }
+
+    public void sent(OutboxRecord record, long nowMillis) {
+        record(outboxAge, record.eventType(), nowMillis - record.createdAt().toEpochMilli());
+    }
+
+    public MessageHandler instrument(MessageHandler handler) {
+        return (tag, key, body, trace) -> {
+            long received = System.currentTimeMillis();
+            if (trace.sentMillis() > 0) {
+                record(brokerDwell, tag, received - trace.sentMillis());
+            }
+            try {
+                handler.handle(tag, key, body, trace);
+            } finally {
+                record(handlerTime, tag, System.currentTimeMillis() - received);
+            }
+        };
+    }
+
+    public void sampleBacklog() {
+        try {
+            OutboxBacklog backlog = outboxRepository.backlog();
+            sample = new Sample(backlog.pending(), backlog.oldestCreatedAt(), processedMessageRepository.estimatedCount(), Instant.now());
+        } catch (Exception ex) {
+            log.warn("Failed to sample saga backlog", ex);
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        Sample current = sample;
+        Map<String, Object> gauges = new LinkedHashMap<>();
+        if (current != null) {
+            Instant now = Instant.now();
+            gauges.put("outboxNew", current.outboxNew());
+            gauges.put("oldestNewAgeMillis", current.oldestNewAt() == null ? 0 : Duration.between(current.oldestNewAt(), now).toMillis());
+            gauges.put("processedMessagesEstimate", current.processedMessages());
+            gauges.put("sampledAt", current.sampledAt());
+        }
+        snapshot.put("gauges", gauges);
+        snapshot.put("outboxAge", snapshot(outboxAge));
+        snapshot.put("brokerDwell", snapshot(brokerDwell));
+        snapshot.put("handlerTime", snapshot(handlerTime));
+        return snapshot;
+    }
+
+    private static void record(ConcurrentHashMap<String, LatencyHistogram> histograms, String key, long millis) {
+        histograms.computeIfAbsent(key, k -> new LatencyHistogram()).record(millis);
+    }
+
+    private static Map<String, Object> snapshot(Map<String, LatencyHistogram> histograms) {
+        Map<String, Object> snapshot = new TreeMap<>();
+        histograms.forEach((key, histogram) -> snapshot.put(key, histogram.snapshot()));
+        return snapshot;
+    }
+
+    private record Sample(long outboxNew, Instant oldestNewAt, long processedMessages, Instant sampledAt) {}
+}
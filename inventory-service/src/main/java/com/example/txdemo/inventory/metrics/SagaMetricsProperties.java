@@ -0,0 +1,10 @@
+package com.example.txdemo.inventory.metrics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "txdemo.inventory.metrics")
+public record SagaMetricsProperties(
+        Duration gaugeInterval
+) {}
@@ -4,7 +4,9 @@ public final class EventType {
     private EventType() {}
 
     public static final String ORDER_CREATED = "ORDER_CREATED";
+    public static final String ORDER_CANCELLED = "ORDER_CANCELLED";
     public static final String INVENTORY_RESERVED = "INVENTORY_RESERVED";
     public static final String INVENTORY_RESERVE_FAILED = "INVENTORY_RESERVE_FAILED";
+    public static final String INVENTORY_AVAILABILITY_CHANGED = "INVENTORY_AVAILABILITY_CHANGED";
 }
 
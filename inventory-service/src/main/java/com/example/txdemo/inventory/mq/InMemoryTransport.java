@@ -0,0 +1,201 @@
+package com.example.txdemo.inventory.mq;
+
+import com.example.txdemo.inventory.metrics.SagaMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进程内传输：订单服务和库存服务跑在同一个 JVM 时，通过 {@link #connect(Peer)} 互相投递，
+ * 不经过 broker。outbox、去重表的语义不变，队列满时发送失败，消息留在 outbox 里等下次发布。
+ * 重试 {@code max-retries} 次仍失败的消息进入死信列表，不会丢；修复后用 {@link #redeliverDeadLetters()} 重新投递。
+ */
+@Component
+@ConditionalOnProperty(prefix = "txdemo.transport", name = "type", havingValue = "in-memory")
+public class InMemoryTransport implements MessageSender, MessageSubscriber {
+    private static final Logger log = LoggerFactory.getLogger(InMemoryTransport.class);
+
+    private final TransportProperties properties;
+    private final SagaMetrics metrics;
+    private final BlockingQueue<Delivery> queue;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final List<Peer> peers = new CopyOnWriteArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final ConcurrentLinkedQueue<DeadLetter> deadLetters = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "in-memory-transport-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public InMemoryTransport(TransportProperties properties, SagaMetrics metrics) {
+        this.properties = properties;
+        this.metrics = metrics;
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < properties.workers(); i++) {
+            Thread worker = new Thread(this::runWorker, "in-memory-transport-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    public void connect(Peer peer) {
+        peers.add(peer);
+    }
+
+    @Override
+    public void send(String tag, String key, String payload, MessageTrace trace) throws Exception {
+        byte[] body = payload.getBytes(StandardCharsets.UTF_8);
+        MessageTrace sent = trace.sentNow();
+        deliver(tag, key, body, sent);
+        for (Peer peer : peers) {
+            peer.deliver(tag, key, body, sent);
+        }
+    }
+
+    public void deliver(String tag, String key, byte[] body, MessageTrace trace) throws InterruptedException {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.tags().contains(tag)
+                    && !queue.offer(new Delivery(subscription, tag, key, body, trace, 0), properties.sendTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new IllegalStateException("内存消息队列已满");
+            }
+        }
+    }
+
+    @Override
+    public AutoCloseable subscribe(String group, boolean broadcast, Collection<String> tags, MessageHandler handler) {
+        Subscription subscription = new Subscription(group, Set.copyOf(tags), metrics.instrument(handler));
+        subscriptions.add(subscription);
+        return () -> subscriptions.remove(subscription);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queue.size());
+        stats.put("delivered", delivered.sum());
+        stats.put("retried", retried.sum());
+        stats.put("deadLettered", deadLettered.sum());
+        stats.put("deadLetters", deadLetters.stream().map(DeadLetter::describe).toList());
+        stats.put("rejected", rejected.sum());
+        stats.put("subscriptions", subscriptions.size());
+        stats.put("peers", peers.size());
+        return stats;
+    }
+
+    /**
+     * 把死信重新放回队列，从第一次尝试开始计数。返回重新投递的条数，队列放不下的留在死信列表里。
+     */
+    public int redeliverDeadLetters() {
+        int redelivered = 0;
+        for (DeadLetter deadLetter : deadLetters) {
+            Delivery delivery = deadLetter.delivery();
+            if (!queue.offer(new Delivery(delivery.subscription(), delivery.tag(), delivery.key(), delivery.body(), delivery.trace(), 0))) {
+                break;
+            }
+            deadLetters.remove(deadLetter);
+            redelivered++;
+        }
+        return redelivered;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.forEach(Thread::interrupt);
+        retryScheduler.shutdownNow();
+    }
+
+    private void runWorker() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Delivery delivery;
+            try {
+                delivery = queue.take();
+            } catch (InterruptedException ex) {
+                return;
+            }
+            dispatch(delivery);
+        }
+    }
+
+    private void dispatch(Delivery delivery) {
+        try {
+            delivery.subscription().handler().handle(delivery.tag(), delivery.key(), delivery.body(), delivery.trace());
+            delivered.increment();
+        } catch (Exception ex) {
+            if (delivery.attempt() >= properties.maxRetries()) {
+                deadLettered.increment();
+                deadLetters.add(new DeadLetter(delivery, String.valueOf(ex), Instant.now()));
+                log.error("Moving message to dead letters after {} attempts, group={}, tag={}, key={}",
+                        delivery.attempt() + 1, delivery.subscription().group(), delivery.tag(), delivery.key(), ex);
+                return;
+            }
+            retried.increment();
+            log.warn("Handler failed, will retry, group={}, tag={}, key={}", delivery.subscription().group(), delivery.tag(), delivery.key(), ex);
+            scheduleRetry(delivery.retry(), properties.retryDelay().toMillis() * (delivery.attempt() + 1));
+        }
+    }
+
+    private void scheduleRetry(Delivery delivery, long delayMillis) {
+        retryScheduler.schedule(() -> {
+            if (!queue.offer(delivery)) {
+                scheduleRetry(delivery, delayMillis);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @FunctionalInterface
+    public interface Peer {
+        void deliver(String tag, String key, byte[] body, MessageTrace trace) throws Exception;
+    }
+
+    private record Subscription(String group, Set<String> tags, MessageHandler handler) {}
+
+    private record DeadLetter(Delivery delivery, String error, Instant failedAt) {
+        Map<String, Object> describe() {
+            Map<String, Object> description = new LinkedHashMap<>();
+            description.put("group", delivery.subscription().group());
+            description.put("tag", delivery.tag());
+            description.put("key", delivery.key());
+            description.put("attempts", delivery.attempt() + 1);
+            description.put("error", error);
+            description.put("failedAt", failedAt.toString());
+            return description;
+        }
+    }
+
+    private record Delivery(Subscription subscription, String tag, String key, byte[] body, MessageTrace trace, int attempt) {
+        Delivery retry() {
+            return new Delivery(subscription, tag, key, body, trace, attempt + 1);
+        }
+    }
+}
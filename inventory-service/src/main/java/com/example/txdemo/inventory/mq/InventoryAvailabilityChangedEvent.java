@@ -0,0 +1,3 @@
+package com.example.txdemo.inventory.mq;
+
+public record InventoryAvailabilityChangedEvent(String productId, int available, long observedAt) {}
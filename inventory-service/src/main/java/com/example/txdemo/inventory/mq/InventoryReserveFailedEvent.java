@@ -1,4 +1,10 @@
 package com.example.txdemo.inventory.mq;
 
-public record InventoryReserveFailedEvent(String orderId, String productId, int quantity, String reason) {}
-
+public record InventoryReserveFailedEvent(
+        String orderId,
+        String productId,
+        int quantity,
+        String reason,
+        int available,
+        long observedAt
+) {}
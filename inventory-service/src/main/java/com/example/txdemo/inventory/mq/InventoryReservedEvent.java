@@ -1,4 +1,3 @@
 package com.example.txdemo.inventory.mq;
 
-public record InventoryReservedEvent(String orderId, String productId, int quantity) {}
-
+public record InventoryReservedEvent(String orderId, String productId, int quantity, int available, long observedAt) {}
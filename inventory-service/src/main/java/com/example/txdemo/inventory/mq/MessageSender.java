@@ -0,0 +1,16 @@
+package com.example.txdemo.inventory.mq;
+
+import com.example.txdemo.inventory.outbox.OutboxRecord;
+
+import java.util.List;
+
+public interface MessageSender {
+
+    void send(String tag, String key, String payload, MessageTrace trace) throws Exception;
+
+    default void sendBatch(List<OutboxRecord> records) throws Exception {
+        for (OutboxRecord record : records) {
+            send(record.eventType(), record.aggregateId(), record.payload(), record.trace());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.txdemo.inventory.mq;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 随消息传递的追踪信息。saga 内的消息以订单号作 traceId，originMillis 是下单时间，
+ * 库存服务回复时原样带回；sentMillis 由发送方在投递时填写，消费方据此计算消息在 broker 上停留的时间。
+ */
+public record MessageTrace(String traceId, long originMillis, long sentMillis) {
+    public static final String TRACE_ID = "txTraceId";
+    public static final String ORIGIN_MILLIS = "txOriginMillis";
+    public static final String SENT_MILLIS = "txSentMillis";
+
+    public static final MessageTrace NONE = new MessageTrace(null, 0, 0);
+
+    public static MessageTrace origin(String traceId, long originMillis) {
+        return new MessageTrace(traceId, originMillis, 0);
+    }
+
+    public MessageTrace sentNow() {
+        return new MessageTrace(traceId, originMillis, System.currentTimeMillis());
+    }
+
+    public Map<String, String> toProperties() {
+        Map<String, String> properties = new HashMap<>(4);
+        if (traceId != null) {
+            properties.put(TRACE_ID, traceId);
+        }
+        if (originMillis > 0) {
+            properties.put(ORIGIN_MILLIS, Long.toString(originMillis));
+        }
+        if (sentMillis > 0) {
+            properties.put(SENT_MILLIS, Long.toString(sentMillis));
+        }
+        return properties;
+    }
+
+    public static MessageTrace fromProperties(Function<String, String> lookup) {
+        return new MessageTrace(lookup.apply(TRACE_ID), parse(lookup.apply(ORIGIN_MILLIS)), parse(lookup.apply(SENT_MILLIS)));
+    }
+
+    private static long parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,3 @@
+package com.example.txdemo.inventory.mq;
+
+public record OrderCancelledEvent(String orderId, String productId, int quantity) {}
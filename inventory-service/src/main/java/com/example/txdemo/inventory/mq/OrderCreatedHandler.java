@@ -28,18 +28,28 @@ public class OrderCreatedHandler {
     }
 
     @Transactional
-    public void handle(OrderCreatedEvent event) throws Exception {
+    public void handle(OrderCreatedEvent event, MessageTrace trace) throws Exception {
+        MessageTrace reply = MessageTrace.origin(trace.traceId() == null ? event.orderId() : trace.traceId(), trace.originMillis());
         try {
-            inventoryService.reserveWithLock(event.productId(), event.quantity());
-            String payload = objectMapper.writeValueAsString(
-                    new InventoryReservedEvent(event.orderId(), event.productId(), event.quantity())
-            );
-            outboxRepository.add(event.orderId(), EventType.INVENTORY_RESERVED, payload);
+            inventoryService.reserveForOrder(event.orderId(), event.productId(), event.quantity());
+            String payload = objectMapper.writeValueAsString(new InventoryReservedEvent(
+                    event.orderId(),
+                    event.productId(),
+                    event.quantity(),
+                    inventoryService.available(event.productId()),
+                    System.currentTimeMillis()
+            ));
+            outboxRepository.add(event.orderId(), EventType.INVENTORY_RESERVED, payload, reply);
         } catch (Exception ex) {
-            String payload = objectMapper.writeValueAsString(
-                    new InventoryReserveFailedEvent(event.orderId(), event.productId(), event.quantity(), ex.getMessage())
-            );
-            outboxRepository.add(event.orderId(), EventType.INVENTORY_RESERVE_FAILED, payload);
+            String payload = objectMapper.writeValueAsString(new InventoryReserveFailedEvent(
+                    event.orderId(),
+                    event.productId(),
+                    event.quantity(),
+                    ex.getMessage(),
+                    inventoryService.available(event.productId()),
+                    System.currentTimeMillis()
+            ));
+            outboxRepository.add(event.orderId(), EventType.INVENTORY_RESERVE_FAILED, payload, reply);
         } finally {
             if (TransactionSynchronizationManager.isSynchronizationActive()) {
                 TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
@@ -1,13 +1,9 @@
 package com.example.txdemo.inventory.mq;
 
+import com.example.txdemo.inventory.outbox.OutboxRepository;
+import com.example.txdemo.inventory.service.InventoryService;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
-import org.apache.rocketmq.client.consumer.DefaultMQPushConsumer;
-import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyContext;
-import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyStatus;
-import org.apache.rocketmq.client.consumer.listener.MessageListenerConcurrently;
-import org.apache.rocketmq.client.exception.MQClientException;
-import org.apache.rocketmq.common.message.MessageExt;
 import org.springframework.stereotype.Component;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -17,59 +13,71 @@ import java.util.List;
 @Component
 public class OrderEventConsumer {
     private final RocketMqProperties properties;
+    private final MessageSubscriber subscriber;
     private final ProcessedMessageRepository processedMessageRepository;
     private final OrderCreatedHandler handler;
     private final ObjectMapper objectMapper;
+    private final OutboxRepository outboxRepository;
+    private final OutboxPublisher outboxPublisher;
+    private final InventoryService inventoryService;
 
-    private DefaultMQPushConsumer consumer;
+    private AutoCloseable subscription;
 
     public OrderEventConsumer(
             RocketMqProperties properties,
+            MessageSubscriber subscriber,
             ProcessedMessageRepository processedMessageRepository,
             OrderCreatedHandler handler,
-            ObjectMapper objectMapper
+            ObjectMapper objectMapper,
+            OutboxRepository outboxRepository,
+            OutboxPublisher outboxPublisher,
+            InventoryService inventoryService
     ) {
         this.properties = properties;
+        this.subscriber = subscriber;
         this.processedMessageRepository = processedMessageRepository;
         this.handler = handler;
         this.objectMapper = objectMapper;
+        this.outboxRepository = outboxRepository;
+        this.outboxPublisher = outboxPublisher;
+        this.inventoryService = inventoryService;
     }
 
     @PostConstruct
-    public void start() throws MQClientException {
-        DefaultMQPushConsumer c = new DefaultMQPushConsumer(properties.consumerGroup());
-        c.setNamesrvAddr(properties.namesrv());
-        c.subscribe(properties.topic(), EventType.ORDER_CREATED);
-        c.registerMessageListener((MessageListenerConcurrently) this::consume);
-        c.start();
-        this.consumer = c;
+    public void start() throws Exception {
+        this.subscription = subscriber.subscribe(properties.consumerGroup(), false, List.of(EventType.ORDER_CREATED, EventType.ORDER_CANCELLED), this::consume);
     }
 
-    private ConsumeConcurrentlyStatus consume(List<MessageExt> msgs, ConsumeConcurrentlyContext context) {
-        for (MessageExt msg : msgs) {
-            String orderId = msg.getKeys();
-            String tag = msg.getTags();
-            String messageKey = tag + ":" + orderId;
+    private void consume(String tag, String orderId, byte[] body, MessageTrace trace) throws Exception {
+        if (EventType.ORDER_CANCELLED.equals(tag)) {
+            // 释放按订单号记账，本身幂等，不走去重表。
+            OrderCancelledEvent event = objectMapper.readValue(body, OrderCancelledEvent.class);
+            inventoryService.releaseForOrder(event.orderId(), event.productId(), event.quantity());
+            return;
+        }
+        String messageKey = tag + ":" + orderId;
+
+        if (!processedMessageRepository.markProcessedOnce(messageKey)) {
+            resendReply(orderId);
+            return;
+        }
 
-            if (!processedMessageRepository.markProcessedOnce(messageKey)) {
-                continue;
-            }
+        String json = new String(body, StandardCharsets.UTF_8);
+        OrderCreatedEvent event = objectMapper.readValue(json, OrderCreatedEvent.class);
+        handler.handle(event, trace);
+    }
 
-            try {
-                String json = new String(msg.getBody(), StandardCharsets.UTF_8);
-                OrderCreatedEvent event = objectMapper.readValue(json, OrderCreatedEvent.class);
-                handler.handle(event);
-            } catch (Exception ex) {
-                return ConsumeConcurrentlyStatus.RECONSUME_LATER;
-            }
+    private void resendReply(String orderId) {
+        int requeued = outboxRepository.requeueSent(orderId, List.of(EventType.INVENTORY_RESERVED, EventType.INVENTORY_RESERVE_FAILED));
+        if (requeued > 0) {
+            outboxPublisher.publishOnce();
         }
-        return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
     }
 
     @PreDestroy
-    public void shutdown() {
-        if (consumer != null) {
-            consumer.shutdown();
+    public void shutdown() throws Exception {
+        if (subscription != null) {
+            subscription.close();
         }
     }
 }
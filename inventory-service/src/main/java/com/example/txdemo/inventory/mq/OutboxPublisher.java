@@ -1,5 +1,6 @@
 package com.example.txdemo.inventory.mq;
 
+import com.example.txdemo.inventory.metrics.SagaMetrics;
 import com.example.txdemo.inventory.outbox.OutboxRecord;
 import com.example.txdemo.inventory.outbox.OutboxRepository;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -10,12 +11,14 @@ import java.util.concurrent.locks.ReentrantLock;
 @Component
 public class OutboxPublisher {
     private final OutboxRepository outboxRepository;
-    private final RocketMqProducer producer;
+    private final MessageSender producer;
+    private final SagaMetrics metrics;
     private final ReentrantLock publishLock = new ReentrantLock();
 
-    public OutboxPublisher(OutboxRepository outboxRepository, RocketMqProducer producer) {
+    public OutboxPublisher(OutboxRepository outboxRepository, MessageSender producer, SagaMetrics metrics) {
         this.outboxRepository = outboxRepository;
         this.producer = producer;
+        this.metrics = metrics;
     }
 
     @Scheduled(fixedDelay = 500)
@@ -30,7 +33,8 @@ public class OutboxPublisher {
         try {
             for (OutboxRecord record : outboxRepository.fetchNew(50)) {
                 try {
-                    producer.send(record.eventType(), record.aggregateId(), record.payload());
+                    producer.send(record.eventType(), record.aggregateId(), record.payload(), record.trace());
+                    metrics.sent(record, System.currentTimeMillis());
                     outboxRepository.markSent(record.id());
                 } catch (Exception ex) {
                     outboxRepository.markFailed(record.id(), ex.getMessage());
@@ -5,12 +5,14 @@ import jakarta.annotation.PreDestroy;
 import org.apache.rocketmq.client.exception.MQClientException;
 import org.apache.rocketmq.client.producer.DefaultMQProducer;
 import org.apache.rocketmq.common.message.Message;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 
 @Component
-public class RocketMqProducer {
+@ConditionalOnProperty(prefix = "txdemo.transport", name = "type", havingValue = "rocketmq", matchIfMissing = true)
+public class RocketMqProducer implements MessageSender {
     private final RocketMqProperties properties;
     private DefaultMQProducer producer;
 
@@ -26,13 +28,15 @@ public class RocketMqProducer {
         this.producer = p;
     }
 
-    public void send(String tag, String key, String jsonPayload) throws Exception {
+    @Override
+    public void send(String tag, String key, String jsonPayload, MessageTrace trace) throws Exception {
         Message message = new Message(
                 properties.topic(),
                 tag,
                 jsonPayload.getBytes(StandardCharsets.UTF_8)
         );
         message.setKeys(key);
+        trace.sentNow().toProperties().forEach(message::putUserProperty);
         producer.send(message);
     }
 
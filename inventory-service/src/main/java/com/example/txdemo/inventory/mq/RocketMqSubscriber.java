@@ -0,0 +1,52 @@
+package com.example.txdemo.inventory.mq;
+
+import com.example.txdemo.inventory.metrics.SagaMetrics;
+import org.apache.rocketmq.client.consumer.DefaultMQPushConsumer;
+import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyStatus;
+import org.apache.rocketmq.client.consumer.listener.MessageListenerConcurrently;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.common.protocol.heartbeat.MessageModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+@Component
+@ConditionalOnProperty(prefix = "txdemo.transport", name = "type", havingValue = "rocketmq", matchIfMissing = true)
+public class RocketMqSubscriber implements MessageSubscriber {
+    private static final Logger log = LoggerFactory.getLogger(RocketMqSubscriber.class);
+
+    private final RocketMqProperties properties;
+    private final SagaMetrics metrics;
+
+    public RocketMqSubscriber(RocketMqProperties properties, SagaMetrics metrics) {
+        this.properties = properties;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public AutoCloseable subscribe(String group, boolean broadcast, Collection<String> tags, MessageHandler handler) throws Exception {
+        MessageHandler instrumented = metrics.instrument(handler);
+        DefaultMQPushConsumer c = new DefaultMQPushConsumer(group);
+        c.setNamesrvAddr(properties.namesrv());
+        if (broadcast) {
+            c.setMessageModel(MessageModel.BROADCASTING);
+        }
+        c.subscribe(properties.topic(), String.join("||", tags));
+        c.registerMessageListener((MessageListenerConcurrently) (msgs, context) -> {
+            for (MessageExt msg : msgs) {
+                try {
+                    instrumented.handle(msg.getTags(), msg.getKeys(), msg.getBody(), MessageTrace.fromProperties(msg::getUserProperty));
+                } catch (Exception ex) {
+                    log.warn("Handler failed, will reconsume, group={}, tag={}, key={}", group, msg.getTags(), msg.getKeys(), ex);
+                    return ConsumeConcurrentlyStatus.RECONSUME_LATER;
+                }
+            }
+            return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+        });
+        c.start();
+        return c::shutdown;
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.txdemo.inventory.outbox;
+
+import java.time.Instant;
+
+public record OutboxBacklog(long pending, Instant oldestCreatedAt) {}
@@ -1,4 +1,8 @@
 package com.example.txdemo.inventory.outbox;
 
-public record OutboxRecord(long id, String aggregateId, String eventType, String payload) {}
+import com.example.txdemo.inventory.mq.MessageTrace;
+
+import java.time.Instant;
+
+public record OutboxRecord(long id, String aggregateId, String eventType, String payload, MessageTrace trace, Instant createdAt) {}
 
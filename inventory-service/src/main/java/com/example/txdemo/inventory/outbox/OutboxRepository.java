@@ -1,9 +1,12 @@
 package com.example.txdemo.inventory.outbox;
 
+import com.example.txdemo.inventory.mq.MessageTrace;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Repository
@@ -14,16 +17,16 @@ public class OutboxRepository {
         this.jdbcTemplate = jdbcTemplate;
     }
 
-    public void add(String aggregateId, String eventType, String payload) {
+    public void add(String aggregateId, String eventType, String payload, MessageTrace trace) {
         jdbcTemplate.update("""
-                insert into outbox (aggregate_id, event_type, payload, status, created_at)
-                values (?, ?, ?, 'NEW', ?)
-                """, aggregateId, eventType, payload, Instant.now());
+                insert into outbox (aggregate_id, event_type, payload, status, trace_id, origin_millis, created_at)
+                values (?, ?, ?, 'NEW', ?, ?, ?)
+                """, aggregateId, eventType, payload, trace.traceId(), trace.originMillis(), Instant.now());
     }
 
     public List<OutboxRecord> fetchNew(int limit) {
         return jdbcTemplate.query("""
-                        select id, aggregate_id, event_type, payload
+                        select id, aggregate_id, event_type, payload, trace_id, origin_millis, created_at
                           from outbox
                          where status = 'NEW'
                          order by id
@@ -33,12 +36,28 @@ public class OutboxRepository {
                         rs.getLong("id"),
                         rs.getString("aggregate_id"),
                         rs.getString("event_type"),
-                        rs.getString("payload")
+                        rs.getString("payload"),
+                        MessageTrace.origin(rs.getString("trace_id"), rs.getLong("origin_millis")),
+                        rs.getTimestamp("created_at").toInstant()
                 ),
                 limit
         );
     }
 
+    public OutboxBacklog backlog() {
+        Long pending = jdbcTemplate.queryForObject("select count(*) from outbox where status = 'NEW'", Long.class);
+        Instant oldest = jdbcTemplate.query("""
+                        select created_at
+                          from outbox
+                         where status = 'NEW'
+                         order by id
+                         limit 1
+                        """,
+                rs -> rs.next() ? rs.getTimestamp(1).toInstant() : null
+        );
+        return new OutboxBacklog(pending == null ? 0 : pending, oldest);
+    }
+
     public void markSent(long id) {
         jdbcTemplate.update("""
                 update outbox
@@ -48,6 +67,21 @@ public class OutboxRepository {
                 """, Instant.now(), id);
     }
 
+    public int requeueSent(String aggregateId, List<String> eventTypes) {
+        List<Object> args = new ArrayList<>(eventTypes.size() + 2);
+        args.add(Instant.now());
+        args.add(aggregateId);
+        args.addAll(eventTypes);
+        return jdbcTemplate.update("""
+                update outbox
+                   set status = 'NEW',
+                       created_at = ?
+                 where aggregate_id = ?
+                   and status = 'SENT'
+                   and event_type in (%s)
+                """.formatted(String.join(", ", Collections.nCopies(eventTypes.size(), "?"))), args.toArray());
+    }
+
     public void markFailed(long id, String error) {
         jdbcTemplate.update("""
                 update outbox
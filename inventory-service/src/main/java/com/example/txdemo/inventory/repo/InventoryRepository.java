@@ -1,13 +1,19 @@
 package com.example.txdemo.inventory.repo;
 
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
-import java.util.Map;
 import java.util.Optional;
 
 @Repository
 public class InventoryRepository {
+    private static final RowMapper<InventoryView> INVENTORY_ROW_MAPPER = (rs, rowNum) -> new InventoryView(
+            rs.getString(1),
+            rs.getInt(2),
+            rs.getInt(3)
+    );
+
     private final JdbcTemplate jdbcTemplate;
 
     public InventoryRepository(JdbcTemplate jdbcTemplate) {
@@ -45,18 +51,26 @@ public class InventoryRepository {
                 """, quantity, quantity, productId);
     }
 
-    public Optional<Map<String, Object>> findOne(String productId) {
+    public int findAvailable(String productId) {
+        Integer available = jdbcTemplate.query("""
+                        select available
+                          from inventory
+                         where product_id = ?
+                        """,
+                rs -> rs.next() ? rs.getInt(1) : null,
+                productId
+        );
+        return available == null ? 0 : available;
+    }
+
+    public Optional<InventoryView> findOne(String productId) {
         return jdbcTemplate.query("""
                         select product_id, available, reserved
                           from inventory
                          where product_id = ?
                         """,
                 rs -> rs.next()
-                        ? Optional.of(Map.of(
-                        "productId", rs.getString("product_id"),
-                        "available", rs.getInt("available"),
-                        "reserved", rs.getInt("reserved")
-                ))
+                        ? Optional.of(INVENTORY_ROW_MAPPER.mapRow(rs, 1))
                         : Optional.empty(),
                 productId
         );
@@ -0,0 +1,3 @@
+package com.example.txdemo.inventory.repo;
+
+public record InventoryView(String productId, int available, int reserved) {}
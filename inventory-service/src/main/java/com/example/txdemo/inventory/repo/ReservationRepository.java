@@ -0,0 +1,62 @@
+package com.example.txdemo.inventory.repo;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * 按订单号记录库存预留：RESERVED 表示这笔订单占着库存，RELEASED 表示已释放（或在预留前就被取消）。
+ */
+@Repository
+public class ReservationRepository {
+    public static final String RESERVED = "RESERVED";
+    public static final String RELEASED = "RELEASED";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReservationRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 返回 false 表示这笔订单已有记录。
+     */
+    public boolean insert(String orderId, String productId, int quantity, String status) {
+        try {
+            jdbcTemplate.update("""
+                    insert into inventory_reservations (order_id, product_id, quantity, status)
+                    values (?, ?, ?, ?)
+                    """, orderId, productId, quantity, status);
+            return true;
+        } catch (DuplicateKeyException ex) {
+            return false;
+        }
+    }
+
+    public Optional<String> findStatus(String orderId) {
+        return jdbcTemplate.query("""
+                        select status
+                          from inventory_reservations
+                         where order_id = ?
+                        """,
+                rs -> rs.next() ? Optional.of(rs.getString(1)) : Optional.empty(),
+                orderId
+        );
+    }
+
+    public boolean markReleased(String orderId) {
+        return jdbcTemplate.update("""
+                update inventory_reservations
+                   set status = ?,
+                       updated_at = current_timestamp
+                 where order_id = ?
+                   and status = ?
+                """, RELEASED, orderId, RESERVED) == 1;
+    }
+
+    public void delete(String orderId) {
+        jdbcTemplate.update("delete from inventory_reservations where order_id = ?", orderId);
+    }
+}
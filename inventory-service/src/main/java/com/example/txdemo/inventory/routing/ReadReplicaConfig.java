@@ -0,0 +1,49 @@
+package com.example.txdemo.inventory.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(prefix = "txdemo.inventory.read-replicas", name = "enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRouter replicaRouter(DataSourceProperties dataSourceProperties, ReadReplicaProperties properties) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        List<ReplicaNode> replicas = properties.replicas().stream().map(replica -> {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName(replica.name());
+            dataSource.setJdbcUrl(replica.url());
+            dataSource.setUsername(replica.username());
+            dataSource.setPassword(replica.password());
+            dataSource.setMaximumPoolSize(properties.poolSize());
+            dataSource.setReadOnly(true);
+            return new ReplicaNode(replica.name(), dataSource);
+        }).toList();
+        return new ReplicaRouter(primary, replicas, properties);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRouter replicaRouter) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReplicaRouter.PRIMARY, replicaRouter.primary());
+        replicaRouter.replicas().forEach(replica -> targets.put(replica.name, replica.dataSource));
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(replicaRouter);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(replicaRouter.primary());
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
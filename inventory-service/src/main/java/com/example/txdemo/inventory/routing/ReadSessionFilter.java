@@ -0,0 +1,35 @@
+package com.example.txdemo.inventory.routing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "txdemo.inventory.read-replicas", name = "enabled", havingValue = "true")
+public class ReadSessionFilter extends OncePerRequestFilter {
+    public static final String HEADER = "X-Session-Id";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String sessionId = request.getHeader(HEADER);
+        if (sessionId == null || sessionId.isBlank()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        ReadSession.set(sessionId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadSession.clear();
+        }
+    }
+}
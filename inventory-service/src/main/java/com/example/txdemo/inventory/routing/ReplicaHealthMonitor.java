@@ -0,0 +1,36 @@
+package com.example.txdemo.inventory.routing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(prefix = "txdemo.inventory.read-replicas", name = "enabled", havingValue = "true")
+public class ReplicaHealthMonitor implements SchedulingConfigurer {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaHealthMonitor.class);
+
+    private final ReplicaRouter replicaRouter;
+    private final ReadReplicaProperties properties;
+
+    public ReplicaHealthMonitor(ReplicaRouter replicaRouter, ReadReplicaProperties properties) {
+        this.replicaRouter = replicaRouter;
+        this.properties = properties;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(this::probe, properties.probeInterval());
+    }
+
+    public void probe() {
+        try {
+            replicaRouter.writeHeartbeat();
+        } catch (Exception ex) {
+            log.warn("Failed to write replication heartbeat", ex);
+        }
+        replicaRouter.probeReplicas();
+    }
+}
@@ -1,60 +1,138 @@
 package com.example.txdemo.inventory.service;
 
+import com.example.txdemo.inventory.lock.InventoryLock;
+import com.example.txdemo.inventory.mq.EventType;
+import com.example.txdemo.inventory.mq.InventoryAvailabilityChangedEvent;
+import com.example.txdemo.inventory.mq.MessageTrace;
+import com.example.txdemo.inventory.mq.OutboxPublisher;
+import com.example.txdemo.inventory.outbox.OutboxRepository;
 import com.example.txdemo.inventory.repo.InventoryRepository;
-import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
+import com.example.txdemo.inventory.repo.InventoryView;
+import com.example.txdemo.inventory.repo.ReservationRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Duration;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.UUID;
 
 @Service
 public class InventoryService {
     private final InventoryRepository inventoryRepository;
-    private final RedissonClient redissonClient;
+    private final ReservationRepository reservationRepository;
+    private final InventoryLock inventoryLock;
+    private final OutboxRepository outboxRepository;
+    private final OutboxPublisher outboxPublisher;
+    private final ObjectMapper objectMapper;
 
-    public InventoryService(InventoryRepository inventoryRepository, RedissonClient redissonClient) {
+    public InventoryService(
+            InventoryRepository inventoryRepository,
+            ReservationRepository reservationRepository,
+            InventoryLock inventoryLock,
+            OutboxRepository outboxRepository,
+            OutboxPublisher outboxPublisher,
+            ObjectMapper objectMapper
+    ) {
         this.inventoryRepository = inventoryRepository;
-        this.redissonClient = redissonClient;
+        this.reservationRepository = reservationRepository;
+        this.inventoryLock = inventoryLock;
+        this.outboxRepository = outboxRepository;
+        this.outboxPublisher = outboxPublisher;
+        this.objectMapper = objectMapper;
     }
 
     @Transactional
-    public void seed(String productId, int available) {
+    public void seed(String productId, int available) throws JsonProcessingException {
         inventoryRepository.upsert(productId, available);
+        announceAvailability(productId);
     }
 
     @Transactional
     public void reserveWithLock(String productId, int quantity) {
         String lockKey = "lock:inventory:" + productId;
-        RLock lock = redissonClient.getLock(lockKey);
-
-        boolean locked = false;
+        InventoryLock.Handle lock;
         try {
-            locked = lock.tryLock(Duration.ofSeconds(2).toMillis(), Duration.ofSeconds(10).toMillis(), TimeUnit.MILLISECONDS);
-            if (!locked) {
-                throw new IllegalStateException("获取分布式锁失败: " + productId);
-            }
-            inventoryRepository.reserve(productId, quantity);
+            lock = inventoryLock.tryLock(lockKey, Duration.ofSeconds(2), Duration.ofSeconds(10));
         } catch (InterruptedException ex) {
             Thread.currentThread().interrupt();
             throw new IllegalStateException("获取分布式锁被中断: " + productId);
-        } finally {
-            if (locked && lock.isHeldByCurrentThread()) {
-                lock.unlock();
+        }
+        if (lock == null) {
+            throw new IllegalStateException("获取分布式锁失败: " + productId);
+        }
+        try (lock) {
+            inventoryRepository.reserve(productId, quantity);
+        }
+    }
+
+    /**
+     * 为订单预留库存并记账。订单已被取消（先收到了 ORDER_CANCELLED）时拒绝预留；同一订单重复预留直接返回。
+     */
+    @Transactional(noRollbackFor = IllegalStateException.class)
+    public void reserveForOrder(String orderId, String productId, int quantity) {
+        if (!reservationRepository.insert(orderId, productId, quantity, ReservationRepository.RESERVED)) {
+            if (reservationRepository.findStatus(orderId).filter(ReservationRepository.RELEASED::equals).isPresent()) {
+                throw new IllegalStateException("订单已取消: " + orderId);
             }
+            return;
+        }
+        try {
+            reserveWithLock(productId, quantity);
+        } catch (IllegalStateException ex) {
+            reservationRepository.delete(orderId);
+            throw ex;
         }
     }
 
+    /**
+     * 释放订单的预留，返回是否真的还回了库存。还没预留过就记一条 RELEASED，挡住之后到达的 ORDER_CREATED；重复释放不会重复加库存。
+     */
     @Transactional
-    public void release(String productId, int quantity) {
+    public boolean releaseForOrder(String orderId, String productId, int quantity) throws JsonProcessingException {
+        if (reservationRepository.insert(orderId, productId, quantity, ReservationRepository.RELEASED)
+                || !reservationRepository.markReleased(orderId)) {
+            return false;
+        }
+        release(productId, quantity);
+        return true;
+    }
+
+    @Transactional
+    public void release(String productId, int quantity) throws JsonProcessingException {
         inventoryRepository.release(productId, quantity);
+        announceAvailability(productId);
+    }
+
+    public int available(String productId) {
+        return inventoryRepository.findAvailable(productId);
     }
 
-    public Optional<Map<String, Object>> get(String productId) {
+    @Transactional(readOnly = true)
+    public Optional<InventoryView> get(String productId) {
         return inventoryRepository.findOne(productId);
     }
-}
 
+    private void announceAvailability(String productId) throws JsonProcessingException {
+        long now = System.currentTimeMillis();
+        String payload = objectMapper.writeValueAsString(new InventoryAvailabilityChangedEvent(
+                productId,
+                inventoryRepository.findAvailable(productId),
+                now
+        ));
+        outboxRepository.add(productId, EventType.INVENTORY_AVAILABILITY_CHANGED, payload, MessageTrace.origin(UUID.randomUUID().toString(), now));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    outboxPublisher.publishOnce();
+                }
+            });
+        } else {
+            outboxPublisher.publishOnce();
+        }
+    }
+}
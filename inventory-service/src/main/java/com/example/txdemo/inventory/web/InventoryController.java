@@ -1,5 +1,7 @@
 package com.example.txdemo.inventory.web;
 
+import com.example.txdemo.inventory.admission.AdmissionGate;
+import com.example.txdemo.inventory.admission.AdmissionRejectedException;
 import com.example.txdemo.inventory.service.InventoryService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -8,29 +10,33 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/inventory")
 public class InventoryController {
     private final InventoryService inventoryService;
+    private final AdmissionGate admissionGate;
 
-    public InventoryController(InventoryService inventoryService) {
+    public InventoryController(InventoryService inventoryService, AdmissionGate admissionGate) {
         this.inventoryService = inventoryService;
+        this.admissionGate = admissionGate;
     }
 
     @PostMapping("/seed")
-    public ResponseEntity<?> seed(@RequestBody SeedRequest request) {
+    public ResponseEntity<?> seed(@RequestBody SeedRequest request) throws Exception {
         inventoryService.seed(request.productId(), request.available());
         return ResponseEntity.ok().build();
     }
 
     @PostMapping("/reserve")
     public ResponseEntity<?> reserve(@RequestBody ReserveRequest request) {
-        try {
+        try (AdmissionGate.Permit ignored = admissionGate.enter(request.productId())) {
             inventoryService.reserveWithLock(request.productId(), request.quantity());
             return ResponseEntity.ok().build();
+        } catch (AdmissionRejectedException ex) {
+            return ResponseEntity.status(429).header("Retry-After", "1").body(ex.getMessage());
         } catch (IllegalStateException ex) {
             return ResponseEntity.status(409).body(ex.getMessage());
         }
     }
 
     @PostMapping("/release")
-    public ResponseEntity<?> release(@RequestBody ReleaseRequest request) {
+    public ResponseEntity<?> release(@RequestBody ReleaseRequest request) throws Exception {
         inventoryService.release(request.productId(), request.quantity());
         return ResponseEntity.ok().build();
     }
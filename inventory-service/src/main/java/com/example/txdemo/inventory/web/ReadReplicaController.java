@@ -0,0 +1,25 @@
+package com.example.txdemo.inventory.web;
+
+import com.example.txdemo.inventory.routing.ReplicaRouter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/read-replicas")
+@ConditionalOnProperty(prefix = "txdemo.inventory.read-replicas", name = "enabled", havingValue = "true")
+public class ReadReplicaController {
+    private final ReplicaRouter replicaRouter;
+
+    public ReadReplicaController(ReplicaRouter replicaRouter) {
+        this.replicaRouter = replicaRouter;
+    }
+
+    @GetMapping
+    public Map<String, Object> stats() {
+        return replicaRouter.stats();
+    }
+}
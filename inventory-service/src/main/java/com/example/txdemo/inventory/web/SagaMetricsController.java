@@ -0,0 +1,23 @@
+package com.example.txdemo.inventory.web;
+
+import com.example.txdemo.inventory.metrics.SagaMetrics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/saga-metrics")
+public class SagaMetricsController {
+    private final SagaMetrics sagaMetrics;
+
+    public SagaMetricsController(SagaMetrics sagaMetrics) {
+        this.sagaMetrics = sagaMetrics;
+    }
+
+    @GetMapping
+    public Map<String, Object> snapshot() {
+        return sagaMetrics.snapshot();
+    }
+}
@@ -5,6 +5,15 @@ create table if not exists inventory
     reserved   int not null
 ) engine=InnoDB default charset=utf8mb4;
 
+create table if not exists inventory_reservations
+(
+    order_id   varchar(64) primary key,
+    product_id varchar(64) not null,
+    quantity   int         not null,
+    status     varchar(16) not null,
+    updated_at timestamp   not null default current_timestamp
+) engine=InnoDB default charset=utf8mb4;
+
 create table if not exists outbox
 (
     id           bigint primary key auto_increment,
@@ -14,9 +23,12 @@ create table if not exists outbox
     status       varchar(16) not null,
     retries      int         not null default 0,
     error        longtext    null,
-    created_at   timestamp   not null default current_timestamp,
+    trace_id     varchar(64) null,
+    origin_millis bigint     null,
+    created_at   timestamp(3) not null default current_timestamp(3),
     sent_at      timestamp   null,
-    key          idx_outbox_status_id (status, id)
+    key          idx_outbox_status_id (status, id),
+    key          idx_outbox_aggregate (aggregate_id)
 ) engine=InnoDB default charset=utf8mb4;
 
 create table if not exists processed_messages
@@ -25,3 +37,8 @@ create table if not exists processed_messages
     processed_at timestamp not null default current_timestamp
 ) engine=InnoDB default charset=utf8mb4;
 
+
+create table if not exists replication_heartbeat (
+    id          int primary key,
+    beat_millis bigint not null
+) engine=InnoDB default charset=utf8mb4;
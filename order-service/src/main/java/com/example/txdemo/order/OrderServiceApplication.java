@@ -1,6 +1,18 @@
 package com.example.txdemo.order;
 
+import com.example.txdemo.order.admission.AdmissionProperties;
+import com.example.txdemo.order.metrics.SagaMetricsProperties;
 import com.example.txdemo.order.mq.RocketMqProperties;
+import com.example.txdemo.order.mq.TransportProperties;
+import com.example.txdemo.order.reactive.ReactiveOrderProperties;
+import com.example.txdemo.order.routing.ReadReplicaProperties;
+import com.example.txdemo.order.service.BulkOrderProperties;
+import com.example.txdemo.order.service.GroupCommitProperties;
+import com.example.txdemo.order.service.IdempotencyProperties;
+import com.example.txdemo.order.service.OrderNotifyProperties;
+import com.example.txdemo.order.service.OrderStatsProperties;
+import com.example.txdemo.order.service.SagaTimeoutProperties;
+import com.example.txdemo.order.service.StockViewProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -8,7 +20,21 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableScheduling
-@EnableConfigurationProperties(RocketMqProperties.class)
+@EnableConfigurationProperties({
+        RocketMqProperties.class,
+        TransportProperties.class,
+        OrderNotifyProperties.class,
+        GroupCommitProperties.class,
+        SagaTimeoutProperties.class,
+        StockViewProperties.class,
+        AdmissionProperties.class,
+        IdempotencyProperties.class,
+        BulkOrderProperties.class,
+        OrderStatsProperties.class,
+        ReactiveOrderProperties.class,
+        ReadReplicaProperties.class,
+        SagaMetricsProperties.class
+})
 public class OrderServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(OrderServiceApplication.class, args);
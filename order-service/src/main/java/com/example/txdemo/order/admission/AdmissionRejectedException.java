@@ -0,0 +1,7 @@
+package com.example.txdemo.order.admission;
+
+public class AdmissionRejectedException extends RuntimeException {
+    public AdmissionRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.txdemo.order.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶（GCRA 形式）：只维护一个“理论到达时间”，CAS 推进即可，不需要定时补充令牌。
+ */
+final class TokenBucket {
+    private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+    private volatile long intervalNanos;
+    private volatile long toleranceNanos;
+
+    TokenBucket(double permitsPerSecond, int burst) {
+        configure(permitsPerSecond, burst);
+    }
+
+    void configure(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            this.intervalNanos = 0;
+            this.toleranceNanos = 0;
+            return;
+        }
+        long interval = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.toleranceNanos = interval * Math.max(0, burst - 1);
+        this.intervalNanos = interval;
+    }
+
+    boolean tryAcquire() {
+        long interval = intervalNanos;
+        if (interval == 0) {
+            return true;
+        }
+        long tolerance = toleranceNanos;
+        while (true) {
+            long now = System.nanoTime();
+            long tat = theoreticalArrival.get();
+            long start = tat - now > 0 ? tat : now;
+            if (start - now > tolerance) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(tat, start + interval)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 退回一次 tryAcquire 拿到的令牌：后续阶段拒绝了这次请求，令牌不该算作用掉。
+     */
+    void refund() {
+        long interval = intervalNanos;
+        if (interval > 0) {
+            theoreticalArrival.addAndGet(-interval);
+        }
+    }
+}
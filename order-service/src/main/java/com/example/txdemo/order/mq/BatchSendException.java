@@ -0,0 +1,18 @@
+package com.example.txdemo.order.mq;
+
+/**
+ * 批量发送中途失败。sent 是已经确认发出去的前缀条数，调用方只需要补发剩下的记录。
+ */
+public class BatchSendException extends Exception {
+
+    private final int sent;
+
+    public BatchSendException(int sent, Throwable cause) {
+        super("Batch send failed after " + sent + " messages", cause);
+        this.sent = sent;
+    }
+
+    public int sent() {
+        return sent;
+    }
+}
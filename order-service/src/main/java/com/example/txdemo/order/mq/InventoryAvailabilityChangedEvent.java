@@ -0,0 +1,3 @@
+package com.example.txdemo.order.mq;
+
+public record InventoryAvailabilityChangedEvent(String productId, Integer available, Long observedAt) {}
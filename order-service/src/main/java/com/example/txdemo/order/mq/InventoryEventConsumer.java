@@ -1,14 +1,12 @@
 package com.example.txdemo.order.mq;
 
+import com.example.txdemo.order.domain.OrderStatus;
+import com.example.txdemo.order.metrics.SagaMetrics;
 import com.example.txdemo.order.service.OrderService;
+import com.example.txdemo.order.service.OrderStatusNotifier;
+import com.example.txdemo.order.service.StockAvailabilityView;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
-import org.apache.rocketmq.client.consumer.DefaultMQPushConsumer;
-import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyContext;
-import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyStatus;
-import org.apache.rocketmq.client.consumer.listener.MessageListenerConcurrently;
-import org.apache.rocketmq.client.exception.MQClientException;
-import org.apache.rocketmq.common.message.MessageExt;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -16,55 +14,68 @@ import java.util.List;
 @Component
 public class InventoryEventConsumer {
     private final RocketMqProperties properties;
+    private final MessageSubscriber subscriber;
     private final OrderService orderService;
     private final ProcessedMessageRepository processedMessageRepository;
+    private final OrderStatusNotifier notifier;
+    private final StockAvailabilityView stockView;
+    private final SagaMetrics metrics;
 
-    private DefaultMQPushConsumer consumer;
+    private AutoCloseable subscription;
 
     public InventoryEventConsumer(
             RocketMqProperties properties,
+            MessageSubscriber subscriber,
             OrderService orderService,
-            ProcessedMessageRepository processedMessageRepository
+            ProcessedMessageRepository processedMessageRepository,
+            OrderStatusNotifier notifier,
+            StockAvailabilityView stockView,
+            SagaMetrics metrics
     ) {
         this.properties = properties;
+        this.subscriber = subscriber;
         this.orderService = orderService;
         this.processedMessageRepository = processedMessageRepository;
+        this.notifier = notifier;
+        this.stockView = stockView;
+        this.metrics = metrics;
     }
 
     @PostConstruct
-    public void start() throws MQClientException {
-        DefaultMQPushConsumer c = new DefaultMQPushConsumer(properties.consumerGroup());
-        c.setNamesrvAddr(properties.namesrv());
-        c.subscribe(properties.topic(), String.join("||", EventType.INVENTORY_RESERVED, EventType.INVENTORY_RESERVE_FAILED));
-        c.registerMessageListener((MessageListenerConcurrently) this::consume);
-        c.start();
-        this.consumer = c;
+    public void start() throws Exception {
+        this.subscription = subscriber.subscribe(
+                properties.consumerGroup(),
+                false,
+                List.of(EventType.INVENTORY_RESERVED, EventType.INVENTORY_RESERVE_FAILED),
+                this::consume
+        );
     }
 
-    private ConsumeConcurrentlyStatus consume(List<MessageExt> msgs, ConsumeConcurrentlyContext context) {
-        for (MessageExt msg : msgs) {
-            String orderId = msg.getKeys();
-            String tag = msg.getTags();
-            String messageKey = tag + ":" + orderId;
+    private void consume(String tag, String orderId, byte[] body, MessageTrace trace) {
+        String messageKey = tag + ":" + orderId;
+        if (!processedMessageRepository.markProcessedOnce(messageKey)) {
+            return;
+        }
 
-            if (!processedMessageRepository.markProcessedOnce(messageKey)) {
-                continue;
+        // 订单已被超时扫描取消等情况下 confirm/cancel 什么都不改，不算一次终态
+        if (EventType.INVENTORY_RESERVED.equals(tag)) {
+            if (orderService.confirm(orderId)) {
+                notifier.publish(orderId, OrderStatus.CONFIRMED);
+                metrics.finished(OrderStatus.CONFIRMED, trace.originMillis(), System.currentTimeMillis());
             }
-
-            if (EventType.INVENTORY_RESERVED.equals(tag)) {
-                orderService.confirm(orderId);
-            } else if (EventType.INVENTORY_RESERVE_FAILED.equals(tag)) {
-                orderService.cancel(orderId);
+        } else if (EventType.INVENTORY_RESERVE_FAILED.equals(tag)) {
+            if (orderService.cancel(orderId)) {
+                notifier.publish(orderId, OrderStatus.CANCELLED);
+                metrics.finished(OrderStatus.CANCELLED, trace.originMillis(), System.currentTimeMillis());
+                stockView.recordSagaRejection();
             }
         }
-        return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
     }
 
     @PreDestroy
-    public void shutdown() {
-        if (consumer != null) {
-            consumer.shutdown();
+    public void shutdown() throws Exception {
+        if (subscription != null) {
+            subscription.close();
         }
     }
 }
-
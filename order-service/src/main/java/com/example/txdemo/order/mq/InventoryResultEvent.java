@@ -0,0 +1,3 @@
+package com.example.txdemo.order.mq;
+
+public record InventoryResultEvent(String orderId, String productId, int quantity, Integer available, Long observedAt) {}
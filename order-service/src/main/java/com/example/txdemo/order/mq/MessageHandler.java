@@ -0,0 +1,7 @@
+package com.example.txdemo.order.mq;
+
+@FunctionalInterface
+public interface MessageHandler {
+
+    void handle(String tag, String key, byte[] body, MessageTrace trace) throws Exception;
+}
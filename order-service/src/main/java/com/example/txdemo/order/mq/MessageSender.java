@@ -0,0 +1,35 @@
+package com.example.txdemo.order.mq;
+
+import com.example.txdemo.order.outbox.OutboxRecord;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface MessageSender {
+
+    void send(String tag, String key, String payload, MessageTrace trace) throws Exception;
+
+    /**
+     * 中途失败时抛 {@link BatchSendException}，带上已发出的前缀条数。
+     */
+    default void sendBatch(List<OutboxRecord> records) throws BatchSendException {
+        int sent = 0;
+        try {
+            for (OutboxRecord record : records) {
+                send(record.eventType(), record.aggregateId(), record.payload(), record.trace());
+                sent++;
+            }
+        } catch (Exception ex) {
+            throw new BatchSendException(sent, ex);
+        }
+    }
+
+    default CompletableFuture<Void> sendAsync(String tag, String key, String payload, MessageTrace trace) {
+        try {
+            send(tag, key, payload, trace);
+            return CompletableFuture.completedFuture(null);
+        } catch (Exception ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+}
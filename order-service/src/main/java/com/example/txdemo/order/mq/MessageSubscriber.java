@@ -0,0 +1,8 @@
+package com.example.txdemo.order.mq;
+
+import java.util.Collection;
+
+public interface MessageSubscriber {
+
+    AutoCloseable subscribe(String group, boolean broadcast, Collection<String> tags, MessageHandler handler) throws Exception;
+}
@@ -0,0 +1,3 @@
+package com.example.txdemo.order.mq;
+
+public record OrderCancelledEvent(String orderId, String productId, int quantity) {}
@@ -1,5 +1,6 @@
 package com.example.txdemo.order.mq;
 
+import com.example.txdemo.order.metrics.SagaMetrics;
 import com.example.txdemo.order.outbox.OutboxRecord;
 import com.example.txdemo.order.outbox.OutboxRepository;
 import org.slf4j.Logger;
@@ -7,18 +8,24 @@ import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.concurrent.locks.ReentrantLock;
 
 @Component
 public class OutboxPublisher {
     private static final Logger log = LoggerFactory.getLogger(OutboxPublisher.class);
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_PAGES_PER_RUN = 50;
+
     private final OutboxRepository outboxRepository;
-    private final RocketMqProducer producer;
+    private final MessageSender producer;
+    private final SagaMetrics metrics;
     private final ReentrantLock publishLock = new ReentrantLock();
 
-    public OutboxPublisher(OutboxRepository outboxRepository, RocketMqProducer producer) {
+    public OutboxPublisher(OutboxRepository outboxRepository, MessageSender producer, SagaMetrics metrics) {
         this.outboxRepository = outboxRepository;
         this.producer = producer;
+        this.metrics = metrics;
     }
 
     @Scheduled(fixedDelay = 500)
@@ -31,17 +38,52 @@ public class OutboxPublisher {
             return;
         }
         try {
-            for (OutboxRecord record : outboxRepository.fetchNew(50)) {
-                try {
-                    producer.send(record.eventType(), record.aggregateId(), record.payload());
-                    outboxRepository.markSent(record.id());
-                } catch (Exception ex) {
-                    log.error("Error while sending event", ex);
-                    outboxRepository.markFailed(record.id(), ex.getMessage());
+            for (int page = 0; page < MAX_PAGES_PER_RUN; page++) {
+                List<OutboxRecord> records = outboxRepository.fetchNew(PAGE_SIZE);
+                if (records.isEmpty() || !publishPage(records) || records.size() < PAGE_SIZE) {
+                    return;
                 }
             }
         } finally {
             publishLock.unlock();
         }
     }
+
+    private boolean publishPage(List<OutboxRecord> records) {
+        List<OutboxRecord> remaining = records;
+        if (records.size() > 1) {
+            int sent;
+            try {
+                producer.sendBatch(records);
+                sent = records.size();
+            } catch (BatchSendException ex) {
+                sent = ex.sent();
+                log.warn("Batch send failed after {} of {}, re-sending the rest singly", sent, records.size(), ex);
+            }
+            List<OutboxRecord> sentRecords = records.subList(0, sent);
+            if (!sentRecords.isEmpty()) {
+                long sentAt = System.currentTimeMillis();
+                sentRecords.forEach(record -> metrics.sent(record, sentAt));
+                outboxRepository.markSentAll(sentRecords.stream().map(OutboxRecord::id).toList());
+            }
+            if (sent == records.size()) {
+                return true;
+            }
+            // 只补发没发出去的部分，已发出的不再重复投递
+            remaining = records.subList(sent, records.size());
+        }
+        boolean allSent = true;
+        for (OutboxRecord record : remaining) {
+            try {
+                producer.send(record.eventType(), record.aggregateId(), record.payload(), record.trace());
+                metrics.sent(record, System.currentTimeMillis());
+                outboxRepository.markSent(record.id());
+            } catch (Exception ex) {
+                log.error("Error while sending event", ex);
+                outboxRepository.markFailed(record.id(), ex.getMessage());
+                allSent = false;
+            }
+        }
+        return allSent;
+    }
 }
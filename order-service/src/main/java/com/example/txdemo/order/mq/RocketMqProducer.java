@@ -1,16 +1,26 @@
 package com.example.txdemo.order.mq;
 
+import com.example.txdemo.order.outbox.OutboxRecord;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import org.apache.rocketmq.client.exception.MQClientException;
 import org.apache.rocketmq.client.producer.DefaultMQProducer;
+import org.apache.rocketmq.client.producer.SendCallback;
+import org.apache.rocketmq.client.producer.SendResult;
 import org.apache.rocketmq.common.message.Message;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Component
-public class RocketMqProducer {
+@ConditionalOnProperty(prefix = "txdemo.transport", name = "type", havingValue = "rocketmq", matchIfMissing = true)
+public class RocketMqProducer implements MessageSender {
+    private static final int MAX_BATCH_BYTES = 1024 * 1024;
+
     private final RocketMqProperties properties;
     private DefaultMQProducer producer;
 
@@ -26,14 +36,68 @@ public class RocketMqProducer {
         this.producer = p;
     }
 
-    public void send(String tag, String key, String jsonPayload) throws Exception {
+    @Override
+    public void send(String tag, String key, String jsonPayload, MessageTrace trace) throws Exception {
+        producer.send(message(tag, key, jsonPayload, trace));
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(String tag, String key, String jsonPayload, MessageTrace trace) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            producer.send(message(tag, key, jsonPayload, trace), new SendCallback() {
+                @Override
+                public void onSuccess(SendResult sendResult) {
+                    future.complete(null);
+                }
+
+                @Override
+                public void onException(Throwable ex) {
+                    future.completeExceptionally(ex);
+                }
+            });
+        } catch (Exception ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    @Override
+    public void sendBatch(List<OutboxRecord> records) throws BatchSendException {
+        List<Message> batch = new ArrayList<>();
+        int batchBytes = 0;
+        // 子批次按顺序发送，失败时前面已成功的子批次条数就是已发出的前缀
+        int sent = 0;
+        try {
+            for (OutboxRecord record : records) {
+                Message message = message(record.eventType(), record.aggregateId(), record.payload(), record.trace());
+                int size = message.getTopic().length() + message.getBody().length + 64;
+                if (!batch.isEmpty() && batchBytes + size > MAX_BATCH_BYTES) {
+                    producer.send(batch);
+                    sent += batch.size();
+                    batch = new ArrayList<>();
+                    batchBytes = 0;
+                }
+                batch.add(message);
+                batchBytes += size;
+            }
+            if (!batch.isEmpty()) {
+                producer.send(batch);
+            }
+        } catch (Exception ex) {
+            throw new BatchSendException(sent, ex);
+        }
+    }
+
+    private Message message(String tag, String key, String jsonPayload, MessageTrace trace) {
         Message message = new Message(
                 properties.topic(),
                 tag,
                 jsonPayload.getBytes(StandardCharsets.UTF_8)
         );
         message.setKeys(key);
-        producer.send(message);
+        trace.sentNow().toProperties().forEach(message::putUserProperty);
+        return message;
     }
 
     @PreDestroy
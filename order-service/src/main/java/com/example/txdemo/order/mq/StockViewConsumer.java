@@ -0,0 +1,73 @@
+package com.example.txdemo.order.mq;
+
+import com.example.txdemo.order.service.StockAvailabilityView;
+import com.example.txdemo.order.service.StockViewProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class StockViewConsumer {
+    private static final Logger log = LoggerFactory.getLogger(StockViewConsumer.class);
+
+    private final RocketMqProperties properties;
+    private final MessageSubscriber subscriber;
+    private final StockViewProperties stockViewProperties;
+    private final StockAvailabilityView stockView;
+    private final ObjectMapper objectMapper;
+
+    private AutoCloseable subscription;
+
+    public StockViewConsumer(
+            RocketMqProperties properties,
+            MessageSubscriber subscriber,
+            StockViewProperties stockViewProperties,
+            StockAvailabilityView stockView,
+            ObjectMapper objectMapper
+    ) {
+        this.properties = properties;
+        this.subscriber = subscriber;
+        this.stockViewProperties = stockViewProperties;
+        this.stockView = stockView;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() throws Exception {
+        if (!stockViewProperties.enabled()) {
+            return;
+        }
+        this.subscription = subscriber.subscribe(
+                properties.consumerGroup() + "-stock-view",
+                true,
+                List.of(EventType.INVENTORY_RESERVED, EventType.INVENTORY_RESERVE_FAILED, EventType.INVENTORY_AVAILABILITY_CHANGED),
+                this::consume
+        );
+    }
+
+    private void consume(String tag, String key, byte[] body, MessageTrace trace) {
+        try {
+            if (EventType.INVENTORY_AVAILABILITY_CHANGED.equals(tag)) {
+                InventoryAvailabilityChangedEvent event = objectMapper.readValue(body, InventoryAvailabilityChangedEvent.class);
+                stockView.update(event.productId(), event.available(), event.observedAt());
+            } else {
+                InventoryResultEvent event = objectMapper.readValue(body, InventoryResultEvent.class);
+                stockView.update(event.productId(), event.available(), event.observedAt());
+            }
+        } catch (Exception ex) {
+            log.warn("Skip unreadable inventory event, tag={}, key={}", tag, key, ex);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws Exception {
+        if (subscription != null) {
+            subscription.close();
+        }
+    }
+}
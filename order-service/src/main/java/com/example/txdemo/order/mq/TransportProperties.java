@@ -0,0 +1,15 @@
+package com.example.txdemo.order.mq;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "txdemo.transport")
+public record TransportProperties(
+        String type,
+        int queueCapacity,
+        int workers,
+        Duration sendTimeout,
+        int maxRetries,
+        Duration retryDelay
+) {}
@@ -0,0 +1,5 @@
+package com.example.txdemo.order.outbox;
+
+import com.example.txdemo.order.mq.MessageTrace;
+
+public record OutboxEntry(String aggregateId, String eventType, String payload, MessageTrace trace) {}
@@ -1,4 +1,7 @@
 package com.example.txdemo.order.outbox;
 
-public record OutboxRecord(long id, String aggregateId, String eventType, String payload) {}
+import com.example.txdemo.order.mq.MessageTrace;
 
+import java.time.Instant;
+
+public record OutboxRecord(long id, String aggregateId, String eventType, String payload, MessageTrace trace, Instant createdAt) {}
@@ -1,9 +1,12 @@
 package com.example.txdemo.order.outbox;
 
+import com.example.txdemo.order.mq.MessageTrace;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Repository
@@ -14,16 +17,34 @@ public class OutboxRepository {
         this.jdbcTemplate = jdbcTemplate;
     }
 
-    public void add(String aggregateId, String eventType, String payload) {
+    public void add(String aggregateId, String eventType, String payload, MessageTrace trace) {
         jdbcTemplate.update("""
-                insert into outbox (aggregate_id, event_type, payload, status, created_at)
-                values (?, ?, ?, 'NEW', ?)
-                """, aggregateId, eventType, payload, Instant.now());
+                insert into outbox (aggregate_id, event_type, payload, status, trace_id, origin_millis, created_at)
+                values (?, ?, ?, 'NEW', ?, ?, ?)
+                """, aggregateId, eventType, payload, trace.traceId(), trace.originMillis(), Instant.now());
+    }
+
+    public void addAll(List<OutboxEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<Object> args = new ArrayList<>(entries.size() * 6);
+        for (OutboxEntry entry : entries) {
+            args.add(entry.aggregateId());
+            args.add(entry.eventType());
+            args.add(entry.payload());
+            args.add(entry.trace().traceId());
+            args.add(entry.trace().originMillis());
+            args.add(now);
+        }
+        jdbcTemplate.update("insert into outbox (aggregate_id, event_type, payload, status, trace_id, origin_millis, created_at) values "
+                + String.join(", ", Collections.nCopies(entries.size(), "(?, ?, ?, 'NEW', ?, ?, ?)")), args.toArray());
     }
 
     public List<OutboxRecord> fetchNew(int limit) {
         return jdbcTemplate.query("""
-                        select id, aggregate_id, event_type, payload
+                        select id, aggregate_id, event_type, payload, trace_id, origin_millis, created_at
                           from outbox
                          where status = 'NEW'
                          order by id
@@ -33,12 +54,28 @@ public class OutboxRepository {
                         rs.getLong("id"),
                         rs.getString("aggregate_id"),
                         rs.getString("event_type"),
-                        rs.getString("payload")
+                        rs.getString("payload"),
+                        MessageTrace.origin(rs.getString("trace_id"), rs.getLong("origin_millis")),
+                        rs.getTimestamp("created_at").toInstant()
                 ),
                 limit
         );
     }
 
+    public OutboxBacklog backlog() {
+        Long pending = jdbcTemplate.queryForObject("select count(*) from outbox where status = 'NEW'", Long.class);
+        Instant oldest = jdbcTemplate.query("""
+                        select created_at
+                          from outbox
+                         where status = 'NEW'
+                         order by id
+                         limit 1
+                        """,
+                rs -> rs.next() ? rs.getTimestamp(1).toInstant() : null
+        );
+        return new OutboxBacklog(pending == null ? 0 : pending, oldest);
+    }
+
     public void markSent(long id) {
         jdbcTemplate.update("""
                 update outbox
@@ -48,6 +85,17 @@ public class OutboxRepository {
                 """, Instant.now(), id);
     }
 
+    public void markSentAll(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>(ids.size() + 1);
+        args.add(Instant.now());
+        args.addAll(ids);
+        jdbcTemplate.update("update outbox set status = 'SENT', sent_at = ? where id in ("
+                + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")", args.toArray());
+    }
+
     public void markFailed(long id, String error) {
         jdbcTemplate.update("""
                 update outbox
@@ -0,0 +1,268 @@
+package com.example.txdemo.order.reactive;
+
+import com.example.txdemo.order.admission.AdmissionGate;
+import com.example.txdemo.order.admission.AdmissionRejectedException;
+import com.example.txdemo.order.domain.OrderStatus;
+import com.example.txdemo.order.repo.IdempotencyRecord;
+import com.example.txdemo.order.repo.OrderView;
+import com.example.txdemo.order.service.BulkLineResult;
+import com.example.txdemo.order.service.BulkOrderService;
+import com.example.txdemo.order.service.IdempotencyKeyMismatchException;
+import com.example.txdemo.order.service.IdempotentOrderPlacer;
+import com.example.txdemo.order.service.OrderLine;
+import com.example.txdemo.order.service.OrderNotifyProperties;
+import com.example.txdemo.order.service.OrderStatsReadModel;
+import com.example.txdemo.order.service.OrderStatusNotifier;
+import com.example.txdemo.order.service.StockAvailabilityView;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@Profile("reactive")
+@RequestMapping("/orders")
+public class ReactiveOrderController {
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final ReactiveOrderService orderService;
+    private final BulkOrderService bulkOrderService;
+    private final StockAvailabilityView stockView;
+    private final AdmissionGate admissionGate;
+    private final OrderStatsReadModel statsReadModel;
+    private final OrderStatusNotifier notifier;
+    private final OrderNotifyProperties notifyProperties;
+
+    public ReactiveOrderController(
+            ReactiveOrderService orderService,
+            BulkOrderService bulkOrderService,
+            StockAvailabilityView stockView,
+            AdmissionGate admissionGate,
+            OrderStatsReadModel statsReadModel,
+            OrderStatusNotifier notifier,
+            OrderNotifyProperties notifyProperties
+    ) {
+        this.orderService = orderService;
+        this.bulkOrderService = bulkOrderService;
+        this.stockView = stockView;
+        this.admissionGate = admissionGate;
+        this.statsReadModel = statsReadModel;
+        this.notifier = notifier;
+        this.notifyProperties = notifyProperties;
+    }
+
+    /**
+     * 带 Idempotency-Key 时先按主键查 idempotency_keys，已下过单的重试直接返回原 orderId，不经过售罄判断和限流。
+     */
+    @PostMapping("/place")
+    public Mono<ResponseEntity<?>> place(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody PlaceOrderRequest request
+    ) {
+        if (idempotencyKey == null) {
+            return admitAndPlace(request, null, null);
+        }
+        String requestHash;
+        try {
+            IdempotentOrderPlacer.checkKey(idempotencyKey);
+            requestHash = IdempotentOrderPlacer.requestHash(request.productId(), request.quantity());
+        } catch (IllegalArgumentException ex) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", ex.getMessage())));
+        }
+        return orderService.findIdempotencyKey(idempotencyKey)
+                .<ResponseEntity<?>>map(record -> replayed(record, requestHash))
+                .switchIfEmpty(Mono.defer(() -> admitAndPlace(request, idempotencyKey, requestHash)));
+    }
+
+    private Mono<ResponseEntity<?>> admitAndPlace(PlaceOrderRequest request, String idempotencyKey, String requestHash) {
+        if (!stockView.tryAdmit(request.productId(), request.quantity())) {
+            return Mono.just(ResponseEntity.status(409).body(Map.of("accepted", false, "error", "库存不足: " + request.productId())));
+        }
+        AdmissionGate.Permit permit;
+        try {
+            permit = admissionGate.tryEnter(request.productId());
+        } catch (AdmissionRejectedException ex) {
+            return Mono.just(ResponseEntity.status(429).header("Retry-After", "1")
+                    .body(Map.of("accepted", false, "error", ex.getMessage())));
+        }
+        return orderService.place(request.productId(), request.quantity(), idempotencyKey, requestHash)
+                .<ResponseEntity<?>>map(orderId -> placed(orderId, false))
+                .onErrorResume(DuplicateKeyException.class, ex -> idempotencyKey == null
+                        ? Mono.error(ex)
+                        : orderService.findIdempotencyKey(idempotencyKey).<ResponseEntity<?>>map(record -> replayed(record, requestHash)))
+                .onErrorResume(ex -> Mono.just(ResponseEntity.status(409).body(Map.of("accepted", false, "error", String.valueOf(ex.getMessage())))))
+                .doFinally(signal -> permit.close());
+    }
+
+    /**
+     * 批量下单没有 R2DBC 版本的多值 INSERT，分块事务仍走 JDBC，放到 boundedElastic 上执行，每块结果出来就写一批 NDJSON。
+     */
+    @PostMapping(value = "/place/batch", produces = NDJSON)
+    public Mono<ResponseEntity<?>> placeBatch(@RequestBody BulkPlaceRequest request) {
+        List<OrderLine> lines = request.lines() == null ? List.of() : request.lines();
+        AdmissionGate.Permit permit;
+        try {
+            bulkOrderService.checkSize(lines.size());
+            permit = admissionGate.tryEnterBulk();
+        } catch (IllegalArgumentException ex) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", ex.getMessage())));
+        } catch (AdmissionRejectedException ex) {
+            return Mono.just(ResponseEntity.status(429).header("Retry-After", "1").body(Map.of("error", ex.getMessage())));
+        }
+        Flux<BulkLineResult> results = Flux.<BulkLineResult>create(sink -> {
+            try (permit) {
+                bulkOrderService.placeAll(lines, chunk -> {
+                    if (sink.isCancelled()) {
+                        throw new IOException("客户端已断开");
+                    }
+                    chunk.forEach(sink::next);
+                });
+                sink.complete();
+            } catch (Exception ex) {
+                sink.error(ex);
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+        return Mono.just(ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(results));
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<?>> list(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return orderService.listOrders(blankToNull(status), after, limit)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class,
+                        ex -> Mono.just(ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()))));
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON)
+    public Flux<OrderView> export(@RequestParam(required = false) String status) {
+        return orderService.exportOrders(blankToNull(status));
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> stats(
+            @RequestParam(required = false) String productId,
+            @RequestParam(required = false) Integer top
+    ) {
+        return statsReadModel.snapshot(blankToNull(productId), top);
+    }
+
+    @GetMapping("/stock-view")
+    public Map<String, Object> stockView() {
+        return stockView.stats();
+    }
+
+    @GetMapping("/{orderId}")
+    public Mono<ResponseEntity<OrderView>> get(@PathVariable String orderId) {
+        return orderService.getOrder(orderId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{orderId}/events")
+    public Mono<ResponseEntity<?>> events(@PathVariable String orderId, @RequestParam(required = false) Long timeoutMs) {
+        Duration timeout = timeout(timeoutMs);
+        Sinks.One<String> update = Sinks.one();
+        Runnable unsubscribe;
+        try {
+            unsubscribe = notifier.subscribe(orderId, update::tryEmitValue);
+        } catch (IllegalStateException ex) {
+            return Mono.just(ResponseEntity.status(503).body(Map.of("error", ex.getMessage())));
+        }
+        // 先订阅再查当前状态，查询期间到达的终态留在 Sinks.One 里不会丢；超时前再查一次，把最新状态推给客户端后结束
+        return orderService.getOrder(orderId)
+                .<ResponseEntity<?>>map(order -> ResponseEntity.ok().body(Flux.concat(
+                                Mono.just(order.status()),
+                                update.asMono().timeout(timeout, Mono.defer(() -> currentStatus(orderId))))
+                        .takeUntil(ReactiveOrderController::isFinal)
+                        .map(status -> ServerSentEvent.<Map<String, Object>>builder()
+                                .event("status")
+                                .data(statusBody(orderId, status))
+                                .build())
+                        .doFinally(signal -> unsubscribe.run())))
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    unsubscribe.run();
+                    return ResponseEntity.notFound().build();
+                }))
+                .doOnError(ex -> unsubscribe.run())
+                .doOnCancel(unsubscribe);
+    }
+
+    /**
+     * 长轮询：订单已是终态立即返回，否则等状态推送；超时后返回当时的状态，由客户端决定是否继续等。
+     */
+    @GetMapping("/{orderId}/await")
+    public Mono<ResponseEntity<?>> await(@PathVariable String orderId, @RequestParam(required = false) Long timeoutMs) {
+        Duration timeout = timeout(timeoutMs);
+        Sinks.One<String> update = Sinks.one();
+        Runnable unsubscribe;
+        try {
+            unsubscribe = notifier.subscribe(orderId, update::tryEmitValue);
+        } catch (IllegalStateException ex) {
+            return Mono.just(ResponseEntity.status(503).body(Map.of("error", ex.getMessage())));
+        }
+        return orderService.getOrder(orderId)
+                .flatMap(order -> isFinal(order.status())
+                        ? Mono.just(order.status())
+                        : update.asMono().timeout(timeout, Mono.defer(() -> currentStatus(orderId))))
+                .<ResponseEntity<?>>map(status -> ResponseEntity.ok(statusBody(orderId, status)))
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .doFinally(signal -> unsubscribe.run());
+    }
+
+    private Mono<String> currentStatus(String orderId) {
+        return orderService.getOrder(orderId).map(OrderView::status);
+    }
+
+    private static ResponseEntity<?> replayed(IdempotencyRecord record, String requestHash) {
+        if (!record.requestHash().equals(requestHash)) {
+            return ResponseEntity.unprocessableEntity()
+                    .body(Map.of("accepted", false, "error", new IdempotencyKeyMismatchException(record.key()).getMessage()));
+        }
+        return placed(record.orderId(), true);
+    }
+
+    private static ResponseEntity<?> placed(String orderId, boolean replayed) {
+        return ResponseEntity.ok()
+                .header("Idempotent-Replayed", Boolean.toString(replayed))
+                .body(Map.of("accepted", true, "orderId", orderId, "status", OrderStatus.PENDING));
+    }
+
+    private Duration timeout(Long timeoutMs) {
+        if (timeoutMs == null || timeoutMs <= 0) {
+            return notifyProperties.defaultTimeout();
+        }
+        Duration requested = Duration.ofMillis(timeoutMs);
+        return requested.compareTo(notifyProperties.maxTimeout()) > 0 ? notifyProperties.maxTimeout() : requested;
+    }
+
+    private static Map<String, Object> statusBody(String orderId, String status) {
+        return Map.of("orderId", orderId, "status", status, "final", isFinal(status));
+    }
+
+    private static boolean isFinal(String status) {
+        return OrderStatus.CONFIRMED.equals(status) || OrderStatus.CANCELLED.equals(status);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    public record PlaceOrderRequest(String productId, int quantity) {}
+
+    public record BulkPlaceRequest(List<OrderLine> lines) {}
+}
@@ -0,0 +1,13 @@
+package com.example.txdemo.order.reactive;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "txdemo.order.reactive")
+public record ReactiveOrderProperties(
+        String r2dbcUrl,
+        String username,
+        String password,
+        String zoneId,
+        int poolInitialSize,
+        int poolMaxSize
+) {}
@@ -0,0 +1,165 @@
+package com.example.txdemo.order.reactive;
+
+import com.example.txdemo.order.mq.MessageTrace;
+import com.example.txdemo.order.repo.IdempotencyRecord;
+import com.example.txdemo.order.repo.OrderCursor;
+import com.example.txdemo.order.repo.OrderView;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+@Repository
+@Profile("reactive")
+public class ReactiveOrderRepository {
+    private final DatabaseClient databaseClient;
+    private final ZoneId zoneId;
+
+    public ReactiveOrderRepository(DatabaseClient databaseClient, ReactiveOrderProperties properties) {
+        this.databaseClient = databaseClient;
+        this.zoneId = ZoneId.of(properties.zoneId());
+    }
+
+    public Mono<Void> insert(OrderView order) {
+        return databaseClient.sql("""
+                        insert into orders (id, product_id, quantity, status, created_at)
+                        values (:id, :productId, :quantity, :status, :createdAt)
+                        """)
+                .bind("id", order.id())
+                .bind("productId", order.productId())
+                .bind("quantity", order.quantity())
+                .bind("status", order.status())
+                .bind("createdAt", toLocal(order.createdAt()))
+                .then();
+    }
+
+    public Mono<Void> insertIdempotencyKey(String key, String requestHash, String orderId, Instant createdAt) {
+        return databaseClient.sql("""
+                        insert into idempotency_keys (idem_key, request_hash, order_id, created_at)
+                        values (:key, :requestHash, :orderId, :createdAt)
+                        """)
+                .bind("key", key)
+                .bind("requestHash", requestHash)
+                .bind("orderId", orderId)
+                .bind("createdAt", toLocal(createdAt))
+                .then();
+    }
+
+    public Mono<IdempotencyRecord> findIdempotencyKey(String key) {
+        return databaseClient.sql("""
+                        select idem_key, request_hash, order_id
+                          from idempotency_keys
+                         where idem_key = :key
+                        """)
+                .bind("key", key)
+                .map(row -> new IdempotencyRecord(
+                        row.get("idem_key", String.class),
+                        row.get("request_hash", String.class),
+                        row.get("order_id", String.class)))
+                .one();
+    }
+
+    public Mono<Long> addOutbox(String aggregateId, String eventType, String payload, MessageTrace trace, Instant createdAt) {
+        return databaseClient.sql("""
+                        insert into outbox (aggregate_id, event_type, payload, status, trace_id, origin_millis, created_at)
+                        values (:aggregateId, :eventType, :payload, 'NEW', :traceId, :originMillis, :createdAt)
+                        """)
+                .bind("aggregateId", aggregateId)
+                .bind("eventType", eventType)
+                .bind("payload", payload)
+                .bind("traceId", trace.traceId())
+                .bind("originMillis", trace.originMillis())
+                .bind("createdAt", toLocal(createdAt))
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    public Mono<Void> markOutboxSent(long id) {
+        return databaseClient.sql("""
+                        update outbox
+                           set status = 'SENT',
+                               sent_at = :sentAt
+                         where id = :id
+                           and status = 'NEW'
+                        """)
+                .bind("sentAt", toLocal(Instant.now()))
+                .bind("id", id)
+                .then();
+    }
+
+    public Mono<OrderView> findOne(String id) {
+        return databaseClient.sql("""
+                        select id, product_id, quantity, status, created_at
+                          from orders
+                         where id = :id
+                        """)
+                .bind("id", id)
+                .map(this::toOrder)
+                .one();
+    }
+
+    public Flux<OrderView> findPage(String status, OrderCursor after, int limit) {
+        StringBuilder sql = new StringBuilder("""
+                select id, product_id, quantity, status, created_at
+                  from orders
+                 where 1 = 1
+                """);
+        if (status != null) {
+            sql.append("   and status = :status\n");
+        }
+        if (after != null) {
+            sql.append("   and (created_at < :afterCreatedAt or (created_at = :afterCreatedAt and id < :afterId))\n");
+        }
+        sql.append(" order by created_at desc, id desc\n limit :limit");
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString()).bind("limit", limit);
+        if (status != null) {
+            spec = spec.bind("status", status);
+        }
+        if (after != null) {
+            spec = spec.bind("afterCreatedAt", toLocal(after.createdAt())).bind("afterId", after.id());
+        }
+        return spec.map(this::toOrder).all();
+    }
+
+    public Flux<OrderView> streamAll(String status) {
+        if (status == null) {
+            return databaseClient.sql("""
+                            select id, product_id, quantity, status, created_at
+                              from orders
+                             order by created_at desc, id desc
+                            """)
+                    .map(this::toOrder)
+                    .all();
+        }
+        return databaseClient.sql("""
+                        select id, product_id, quantity, status, created_at
+                          from orders
+                         where status = :status
+                         order by created_at desc, id desc
+                        """)
+                .bind("status", status)
+                .map(this::toOrder)
+                .all();
+    }
+
+    private OrderView toOrder(Readable row) {
+        return new OrderView(
+                row.get("id", String.class),
+                row.get("product_id", String.class),
+                row.get("quantity", Integer.class),
+                row.get("status", String.class),
+                row.get("created_at", LocalDateTime.class).atZone(zoneId).toInstant()
+        );
+    }
+
+    private LocalDateTime toLocal(Instant instant) {
+        return LocalDateTime.ofInstant(instant, zoneId);
+    }
+}
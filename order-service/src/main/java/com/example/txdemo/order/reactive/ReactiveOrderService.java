@@ -0,0 +1,125 @@
+package com.example.txdemo.order.reactive;
+
+import com.example.txdemo.order.domain.OrderStatus;
+import com.example.txdemo.order.mq.EventType;
+import com.example.txdemo.order.mq.MessageSender;
+import com.example.txdemo.order.mq.MessageTrace;
+import com.example.txdemo.order.mq.OrderCreatedEvent;
+import com.example.txdemo.order.repo.IdempotencyRecord;
+import com.example.txdemo.order.repo.OrderCursor;
+import com.example.txdemo.order.repo.OrderView;
+import com.example.txdemo.order.service.OrderPage;
+import com.example.txdemo.order.service.OrderStatsReadModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@Service
+@Profile("reactive")
+public class ReactiveOrderService {
+    private static final Logger log = LoggerFactory.getLogger(ReactiveOrderService.class);
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final Set<String> STATUSES = Set.of(OrderStatus.PENDING, OrderStatus.CONFIRMED, OrderStatus.CANCELLED);
+
+    private final ReactiveOrderRepository orderRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final MessageSender producer;
+    private final OrderStatsReadModel statsReadModel;
+    private final ObjectMapper objectMapper;
+
+    public ReactiveOrderService(
+            ReactiveOrderRepository orderRepository,
+            TransactionalOperator transactionalOperator,
+            MessageSender producer,
+            OrderStatsReadModel statsReadModel,
+            ObjectMapper objectMapper
+    ) {
+        this.orderRepository = orderRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.producer = producer;
+        this.statsReadModel = statsReadModel;
+        this.objectMapper = objectMapper;
+    }
+
+    public Mono<String> place(String productId, int quantity) {
+        return place(productId, quantity, null, null);
+    }
+
+    /**
+     * 幂等键和订单、outbox 在同一个事务里写入；并发的同键请求由主键冲突决出赢家，输家整笔回滚并抛 DuplicateKeyException。
+     */
+    public Mono<String> place(String productId, int quantity, String idempotencyKey, String requestHash) {
+        OrderView order = new OrderView(UUID.randomUUID().toString(), productId, quantity, OrderStatus.PENDING, Instant.now());
+        MessageTrace trace = MessageTrace.origin(order.id(), order.createdAt().toEpochMilli());
+        Mono<Void> idempotency = idempotencyKey == null
+                ? Mono.empty()
+                : orderRepository.insertIdempotencyKey(idempotencyKey, requestHash, order.id(), order.createdAt());
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(new OrderCreatedEvent(order.id(), productId, quantity)))
+                .flatMap(payload -> orderRepository.insert(order)
+                        .then(idempotency)
+                        .then(orderRepository.addOutbox(order.id(), EventType.ORDER_CREATED, payload, trace, order.createdAt()))
+                        .as(transactionalOperator::transactional)
+                        .doOnSuccess(outboxId -> statsReadModel.created(List.of(order)))
+                        .flatMap(outboxId -> publish(outboxId, order.id(), payload, trace)))
+                .thenReturn(order.id());
+    }
+
+    public Mono<IdempotencyRecord> findIdempotencyKey(String key) {
+        return orderRepository.findIdempotencyKey(key);
+    }
+
+    public Mono<OrderPage> listOrders(String status, String after, Integer limit) {
+        OrderCursor cursor;
+        try {
+            checkStatus(status);
+            cursor = after == null || after.isBlank() ? null : OrderCursor.decode(after);
+        } catch (IllegalArgumentException ex) {
+            return Mono.error(ex);
+        }
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return orderRepository.findPage(status, cursor, pageSize + 1)
+                .collectList()
+                .map(rows -> {
+                    if (rows.size() <= pageSize) {
+                        return new OrderPage(rows, null);
+                    }
+                    List<OrderView> items = rows.subList(0, pageSize);
+                    OrderView last = items.get(pageSize - 1);
+                    return new OrderPage(items, new OrderCursor(last.createdAt(), last.id()).encode());
+                });
+    }
+
+    public Flux<OrderView> exportOrders(String status) {
+        return Mono.fromRunnable(() -> checkStatus(status)).thenMany(orderRepository.streamAll(status));
+    }
+
+    public Mono<OrderView> getOrder(String orderId) {
+        return orderRepository.findOne(orderId);
+    }
+
+    private Mono<Void> publish(long outboxId, String orderId, String payload, MessageTrace trace) {
+        return Mono.fromFuture(() -> producer.sendAsync(EventType.ORDER_CREATED, orderId, payload, trace))
+                .then(orderRepository.markOutboxSent(outboxId))
+                .onErrorResume(ex -> {
+                    log.warn("Async send failed, leaving outbox row {} for the scheduled publisher", outboxId, ex);
+                    return Mono.empty();
+                });
+    }
+
+    private static void checkStatus(String status) {
+        if (status != null && !STATUSES.contains(status)) {
+            throw new IllegalArgumentException("未知的订单状态: " + status);
+        }
+    }
+}
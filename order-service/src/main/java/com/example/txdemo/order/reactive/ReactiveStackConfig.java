@@ -0,0 +1,66 @@
+package com.example.txdemo.order.reactive;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveStackConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool r2dbcConnectionPool(ReactiveOrderProperties properties) {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.parse(properties.r2dbcUrl())
+                .mutate()
+                .option(ConnectionFactoryOptions.USER, properties.username())
+                .option(ConnectionFactoryOptions.PASSWORD, properties.password())
+                .build());
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .initialSize(properties.poolInitialSize())
+                .maxSize(properties.poolMaxSize())
+                .build());
+    }
+
+    /**
+     * 容器里一旦有 ConnectionFactory，Boot 的 DataSourceAutoConfiguration 就整体退让；
+     * 结果消费、超时扫描、outbox 重试仍走 JDBC，所以按 spring.datasource 自己建 Hikari 连接池。
+     * 开了读写分离时 DataSource 由 ReadReplicaConfig 提供。
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "txdemo.order.read-replicas", name = "enabled", havingValue = "false", matchIfMissing = true)
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public DatabaseClient r2dbcDatabaseClient(ConnectionPool r2dbcConnectionPool) {
+        return DatabaseClient.create(r2dbcConnectionPool);
+    }
+
+    // 不注册为 TransactionManager bean，否则会顶掉 JDBC 的 DataSourceTransactionManager
+    @Bean
+    public TransactionalOperator r2dbcTransactionalOperator(ConnectionPool r2dbcConnectionPool) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(r2dbcConnectionPool));
+    }
+}
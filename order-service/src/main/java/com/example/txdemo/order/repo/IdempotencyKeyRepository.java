@@ -0,0 +1,42 @@
+package com.example.txdemo.order.repo;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public class IdempotencyKeyRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdempotencyKeyRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insert(String key, String requestHash, String orderId) {
+        jdbcTemplate.update("""
+                insert into idempotency_keys (idem_key, request_hash, order_id, created_at)
+                values (?, ?, ?, ?)
+                """, key, requestHash, orderId, Timestamp.from(Instant.now()));
+    }
+
+    public Optional<IdempotencyRecord> find(String key) {
+        return jdbcTemplate.query("""
+                select idem_key, request_hash, order_id
+                from idempotency_keys
+                where idem_key = ?
+                """, (rs, rowNum) -> new IdempotencyRecord(rs.getString(1), rs.getString(2), rs.getString(3)), key)
+                .stream()
+                .findFirst();
+    }
+
+    public int deleteCreatedBefore(Instant createdBefore, int limit) {
+        return jdbcTemplate.update("""
+                delete from idempotency_keys
+                where created_at < ?
+                limit ?
+                """, Timestamp.from(createdBefore), limit);
+    }
+}
@@ -0,0 +1,3 @@
+package com.example.txdemo.order.repo;
+
+public record IdempotencyRecord(String key, String requestHash, String orderId) {}
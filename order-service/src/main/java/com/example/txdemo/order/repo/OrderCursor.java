@@ -0,0 +1,30 @@
+package com.example.txdemo.order.repo;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+public record OrderCursor(Instant createdAt, String id) {
+
+    public String encode() {
+        String raw = createdAt.toEpochMilli() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String token) {
+        String raw;
+        long epochMillis;
+        int sep;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            sep = raw.indexOf(':');
+            epochMillis = sep > 0 ? Long.parseLong(raw.substring(0, sep)) : -1;
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("非法的分页游标: " + token, ex);
+        }
+        if (sep <= 0 || sep == raw.length() - 1) {
+            throw new IllegalArgumentException("非法的分页游标: " + token);
+        }
+        return new OrderCursor(Instant.ofEpochMilli(epochMillis), raw.substring(sep + 1));
+    }
+}
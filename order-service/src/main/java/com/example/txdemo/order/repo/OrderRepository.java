@@ -1,16 +1,37 @@
 package com.example.txdemo.order.repo;
 
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Repository
 public class OrderRepository {
+    private static final int EXPORT_FETCH_SIZE = 500;
+    private static final int STATUS_LOOKUP_BATCH = 500;
+
+    private static final RowMapper<OrderView> ORDER_ROW_MAPPER = (rs, rowNum) -> new OrderView(
+            rs.getString(1),
+            rs.getString(2),
+            rs.getInt(3),
+            rs.getString(4),
+            rs.getTimestamp(5).toInstant()
+    );
+
     private final JdbcTemplate jdbcTemplate;
 
     public OrderRepository(JdbcTemplate jdbcTemplate) {
@@ -24,39 +45,186 @@ public class OrderRepository {
                 """, id, productId, quantity, status, Timestamp.from(createdAt));
     }
 
-    public void updateStatus(String id, String status) {
-        jdbcTemplate.update("""
+    public void insertAll(List<OrderView> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>(orders.size() * 5);
+        for (OrderView order : orders) {
+            args.add(order.id());
+            args.add(order.productId());
+            args.add(order.quantity());
+            args.add(order.status());
+            args.add(Timestamp.from(order.createdAt()));
+        }
+        jdbcTemplate.update("insert into orders (id, product_id, quantity, status, created_at) values "
+                + String.join(", ", Collections.nCopies(orders.size(), "(?, ?, ?, ?, ?)")), args.toArray());
+    }
+
+    public boolean updateStatusIf(String id, String expectedStatus, String status, Instant finishedAt) {
+        return jdbcTemplate.update("""
                 update orders
-                   set status = ?
+                   set status = ?,
+                       finished_at = ?
                  where id = ?
-                """, status, id);
+                   and status = ?
+                """, status, Timestamp.from(finishedAt), id, expectedStatus) == 1;
+    }
+
+    public List<StuckOrder> findStuck(String status, Instant createdBefore, Instant sweptBefore, int limit) {
+        return jdbcTemplate.query("""
+                        select id, product_id, quantity, saga_attempts, created_at
+                          from orders
+                         where status = ?
+                           and created_at < ?
+                           and (last_swept_at is null or last_swept_at < ?)
+                         order by created_at
+                         limit ?
+                        """,
+                (rs, rowNum) -> new StuckOrder(rs.getString(1), rs.getString(2), rs.getInt(3), rs.getInt(4), rs.getTimestamp(5).toInstant()),
+                status, Timestamp.from(createdBefore), Timestamp.from(sweptBefore), limit
+        );
     }
 
-    public List<Map<String, Object>> findAll() {
-        return jdbcTemplate.queryForList("""
+    public boolean claimStuck(String id, String status, int expectedAttempts, Instant now) {
+        return jdbcTemplate.update("""
+                update orders
+                   set saga_attempts = saga_attempts + 1,
+                       last_swept_at = ?
+                 where id = ?
+                   and status = ?
+                   and saga_attempts = ?
+                """, Timestamp.from(now), id, status, expectedAttempts) == 1;
+    }
+
+    public List<OrderView> findPage(String status, OrderCursor after, int limit) {
+        StringBuilder sql = new StringBuilder("""
                 select id, product_id, quantity, status, created_at
                   from orders
-                 order by created_at desc
+                 where 1 = 1
                 """);
+        List<Object> args = new ArrayList<>(5);
+        if (status != null) {
+            sql.append("   and status = ?\n");
+            args.add(status);
+        }
+        if (after != null) {
+            Timestamp createdAt = Timestamp.from(after.createdAt());
+            sql.append("   and (created_at < ? or (created_at = ? and id < ?))\n");
+            args.add(createdAt);
+            args.add(createdAt);
+            args.add(after.id());
+        }
+        sql.append(" order by created_at desc, id desc\n limit ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), ORDER_ROW_MAPPER, args.toArray());
+    }
+
+    public void streamAll(String status, Consumer<OrderView> consumer) {
+        String sql = status == null
+                ? """
+                select id, product_id, quantity, status, created_at
+                  from orders
+                 order by created_at desc, id desc
+                """
+                : """
+                select id, product_id, quantity, status, created_at
+                  from orders
+                 where status = ?
+                 order by created_at desc, id desc
+                """;
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            streamRows(con, ps);
+            if (status != null) {
+                ps.setString(1, status);
+            }
+            return ps;
+        }, rs -> {
+            consumer.accept(ORDER_ROW_MAPPER.mapRow(rs, 0));
+        });
     }
 
-    public Optional<Map<String, Object>> findOne(String id) {
+    public void streamStatsRows(Consumer<OrderStatsRow> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    select product_id, quantity, status, created_at, finished_at
+                      from orders
+                    """, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            streamRows(con, ps);
+            return ps;
+        }, rs -> {
+            Timestamp finishedAt = rs.getTimestamp(5);
+            consumer.accept(new OrderStatsRow(
+                    rs.getString(1),
+                    rs.getInt(2),
+                    rs.getString(3),
+                    rs.getTimestamp(4).toInstant(),
+                    finishedAt == null ? null : finishedAt.toInstant()
+            ));
+        });
+    }
+
+    /**
+     * 只给导出和全表扫描这两条语句开流式读取，其余查询照常一次取完结果。
+     * MySQL 驱动在 URL 不带 useCursorFetch 时，只有 fetchSize = Integer.MIN_VALUE 才逐行流式返回；其他驱动（测试用的 H2）用普通的 fetch size。
+     */
+    private static void streamRows(Connection con, PreparedStatement ps) throws SQLException {
+        boolean mysql = "MySQL".equals(con.getMetaData().getDatabaseProductName());
+        ps.setFetchSize(mysql ? Integer.MIN_VALUE : EXPORT_FETCH_SIZE);
+    }
+
+    /**
+     * 按订单号批量查当前状态，查不到的不在结果里。
+     */
+    public Map<String, String> findStatuses(Collection<String> ids) {
+        Map<String, String> statuses = new HashMap<>();
+        List<String> batch = new ArrayList<>(STATUS_LOOKUP_BATCH);
+        for (String id : ids) {
+            batch.add(id);
+            if (batch.size() == STATUS_LOOKUP_BATCH) {
+                findStatuses(batch, statuses);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            findStatuses(batch, statuses);
+        }
+        return statuses;
+    }
+
+    private void findStatuses(List<String> ids, Map<String, String> statuses) {
+        jdbcTemplate.query("select id, status from orders where id in ("
+                        + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")",
+                rs -> {
+                    statuses.put(rs.getString(1), rs.getString(2));
+                }, ids.toArray());
+    }
+
+    public Optional<OrderView> lockOne(String id) {
         return jdbcTemplate.query("""
                         select id, product_id, quantity, status, created_at
                           from orders
                          where id = ?
+                           for update
                         """,
                 rs -> rs.next()
-                        ? Optional.of(Map.of(
-                        "id", rs.getString("id"),
-                        "productId", rs.getString("product_id"),
-                        "quantity", rs.getInt("quantity"),
-                        "status", rs.getString("status"),
-                        "createdAt", rs.getTimestamp("created_at").toInstant().toString()
-                ))
+                        ? Optional.of(ORDER_ROW_MAPPER.mapRow(rs, 1))
                         : Optional.empty(),
                 id
         );
     }
-}
 
+    public Optional<OrderView> findOne(String id) {
+        return jdbcTemplate.query("""
+                        select id, product_id, quantity, status, created_at
+                          from orders
+                         where id = ?
+                        """,
+                rs -> rs.next()
+                        ? Optional.of(ORDER_ROW_MAPPER.mapRow(rs, 1))
+                        : Optional.empty(),
+                id
+        );
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.txdemo.order.repo;
+
+import java.time.Instant;
+
+public record OrderView(String id, String productId, int quantity, String status, Instant createdAt) {}
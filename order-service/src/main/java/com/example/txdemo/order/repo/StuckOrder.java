@@ -0,0 +1,5 @@
+package com.example.txdemo.order.repo;
+
+import java.time.Instant;
+
+public record StuckOrder(String id, String productId, int quantity, int sagaAttempts, Instant createdAt) {}
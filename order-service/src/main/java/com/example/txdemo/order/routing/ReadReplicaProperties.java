@@ -0,0 +1,19 @@
+package com.example.txdemo.order.routing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "txdemo.order.read-replicas")
+public record ReadReplicaProperties(
+        boolean enabled,
+        List<Replica> replicas,
+        Duration maxLag,
+        Duration stickyWindow,
+        Duration probeInterval,
+        double latencySmoothing,
+        int poolSize
+) {
+    public record Replica(String name, String url, String username, String password) {}
+}
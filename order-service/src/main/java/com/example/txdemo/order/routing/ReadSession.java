@@ -0,0 +1,19 @@
+package com.example.txdemo.order.routing;
+
+public final class ReadSession {
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ReadSession() {}
+
+    public static void set(String sessionId) {
+        CURRENT.set(sessionId);
+    }
+
+    public static String get() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
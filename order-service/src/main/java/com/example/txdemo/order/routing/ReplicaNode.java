@@ -0,0 +1,17 @@
+package com.example.txdemo.order.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+final class ReplicaNode {
+    final String name;
+    final HikariDataSource dataSource;
+    volatile boolean healthy;
+    volatile long lagMillis = -1;
+    volatile double latencyMicros;
+    volatile String lastError;
+
+    ReplicaNode(String name, HikariDataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+}
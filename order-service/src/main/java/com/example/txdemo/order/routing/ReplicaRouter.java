@@ -0,0 +1,158 @@
+package com.example.txdemo.order.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ReplicaRouter implements AutoCloseable {
+    static final String PRIMARY = "primary";
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRouter.class);
+
+    private final HikariDataSource primary;
+    private final List<ReplicaNode> replicas;
+    private final ReadReplicaProperties properties;
+    private final ConcurrentHashMap<String, Long> stickyUntil = new ConcurrentHashMap<>();
+    private final LongAdder primaryReads = new LongAdder();
+    private final LongAdder stickyReads = new LongAdder();
+    private final Map<String, LongAdder> replicaReads = new ConcurrentHashMap<>();
+
+    ReplicaRouter(HikariDataSource primary, List<ReplicaNode> replicas, ReadReplicaProperties properties) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.properties = properties;
+        replicas.forEach(replica -> replicaReads.put(replica.name, new LongAdder()));
+    }
+
+    HikariDataSource primary() {
+        return primary;
+    }
+
+    List<ReplicaNode> replicas() {
+        return replicas;
+    }
+
+    String route() {
+        String session = ReadSession.get();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (session != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                stickyUntil.put(session, System.nanoTime() + properties.stickyWindow().toNanos());
+            }
+            return PRIMARY;
+        }
+        if (session != null && isSticky(session)) {
+            stickyReads.increment();
+            return PRIMARY;
+        }
+        ReplicaNode replica = choose();
+        if (replica == null) {
+            primaryReads.increment();
+            return PRIMARY;
+        }
+        replicaReads.get(replica.name).increment();
+        return replica.name;
+    }
+
+    void writeHeartbeat() {
+        new JdbcTemplate(primary).update("""
+                insert into replication_heartbeat (id, beat_millis)
+                values (1, ?)
+                on duplicate key update beat_millis = values(beat_millis)
+                """, System.currentTimeMillis());
+    }
+
+    void probeReplicas() {
+        long maxLag = properties.maxLag().toMillis();
+        for (ReplicaNode replica : replicas) {
+            long start = System.nanoTime();
+            try {
+                Long beat = new JdbcTemplate(replica.dataSource).queryForObject(
+                        "select beat_millis from replication_heartbeat where id = 1", Long.class);
+                double micros = (System.nanoTime() - start) / 1_000.0;
+                replica.latencyMicros = replica.latencyMicros == 0
+                        ? micros
+                        : properties.latencySmoothing() * micros + (1 - properties.latencySmoothing()) * replica.latencyMicros;
+                replica.lagMillis = beat == null ? Long.MAX_VALUE : System.currentTimeMillis() - beat;
+                boolean healthy = replica.lagMillis <= maxLag;
+                if (healthy != replica.healthy) {
+                    log.info("Replica {} is now {}, lag={}ms", replica.name, healthy ? "in rotation" : "excluded", replica.lagMillis);
+                }
+                replica.healthy = healthy;
+                replica.lastError = null;
+            } catch (Exception ex) {
+                if (replica.healthy) {
+                    log.warn("Replica {} probe failed, excluding it", replica.name, ex);
+                }
+                replica.healthy = false;
+                replica.lastError = ex.getMessage();
+            }
+        }
+        long now = System.nanoTime();
+        stickyUntil.values().removeIf(until -> until - now < 0);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("primaryReads", primaryReads.sum());
+        stats.put("stickyReads", stickyReads.sum());
+        stats.put("stickySessions", stickyUntil.size());
+        stats.put("replicas", replicas.stream().map(replica -> {
+            Map<String, Object> node = new LinkedHashMap<>();
+            node.put("name", replica.name);
+            node.put("healthy", replica.healthy);
+            node.put("lagMillis", replica.lagMillis);
+            node.put("latencyMicros", Math.round(replica.latencyMicros));
+            node.put("reads", replicaReads.get(replica.name).sum());
+            node.put("lastError", replica.lastError);
+            return node;
+        }).toList());
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+        primary.close();
+    }
+
+    private boolean isSticky(String session) {
+        Long until = stickyUntil.get(session);
+        return until != null && until - System.nanoTime() > 0;
+    }
+
+    private ReplicaNode choose() {
+        double totalWeight = 0;
+        for (ReplicaNode replica : replicas) {
+            if (replica.healthy) {
+                totalWeight += weight(replica);
+            }
+        }
+        if (totalWeight == 0) {
+            return null;
+        }
+        double point = ThreadLocalRandom.current().nextDouble(totalWeight);
+        ReplicaNode chosen = null;
+        for (ReplicaNode replica : replicas) {
+            if (replica.healthy) {
+                chosen = replica;
+                point -= weight(replica);
+                if (point < 0) {
+                    break;
+                }
+            }
+        }
+        return chosen;
+    }
+
+    private static double weight(ReplicaNode replica) {
+        return 1.0 / Math.max(1.0, replica.latencyMicros);
+    }
+}
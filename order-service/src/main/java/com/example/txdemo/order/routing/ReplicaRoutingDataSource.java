@@ -0,0 +1,16 @@
+package com.example.txdemo.order.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+final class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private final ReplicaRouter router;
+
+    ReplicaRoutingDataSource(ReplicaRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return router.route();
+    }
+}
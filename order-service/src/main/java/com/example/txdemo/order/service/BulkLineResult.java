@@ -0,0 +1,15 @@
+package com.example.txdemo.order.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkLineResult(int line, String productId, boolean accepted, String orderId, String error) {
+
+    static BulkLineResult accepted(int line, String productId, String orderId) {
+        return new BulkLineResult(line, productId, true, orderId, null);
+    }
+
+    static BulkLineResult rejected(int line, String productId, String error) {
+        return new BulkLineResult(line, productId, false, null, error);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.txdemo.order.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "txdemo.order.bulk")
+public record BulkOrderProperties(
+        int chunkSize,
+        int maxLines
+) {}
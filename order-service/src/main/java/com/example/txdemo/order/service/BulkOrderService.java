@@ -0,0 +1,90 @@
+package com.example.txdemo.order.service;
+
+import com.example.txdemo.order.admission.AdmissionGate;
+import com.example.txdemo.order.admission.AdmissionRejectedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class BulkOrderService {
+    private static final Logger log = LoggerFactory.getLogger(BulkOrderService.class);
+
+    private final PlaceOrderService placeOrderService;
+    private final StockAvailabilityView stockView;
+    private final AdmissionGate admissionGate;
+    private final BulkOrderProperties properties;
+
+    public BulkOrderService(
+            PlaceOrderService placeOrderService,
+            StockAvailabilityView stockView,
+            AdmissionGate admissionGate,
+            BulkOrderProperties properties
+    ) {
+        this.placeOrderService = placeOrderService;
+        this.stockView = stockView;
+        this.admissionGate = admissionGate;
+        this.properties = properties;
+    }
+
+    public void checkSize(int lines) {
+        if (lines == 0 || lines > properties.maxLines()) {
+            throw new IllegalArgumentException("批量下单行数必须在 1 到 " + properties.maxLines() + " 之间");
+        }
+    }
+
+    public void placeAll(List<OrderLine> lines, ChunkListener listener) throws IOException {
+        checkSize(lines.size());
+        for (int from = 0; from < lines.size(); from += properties.chunkSize()) {
+            int to = Math.min(lines.size(), from + properties.chunkSize());
+            listener.onChunk(placeChunk(lines, from, to));
+        }
+    }
+
+    private List<BulkLineResult> placeChunk(List<OrderLine> lines, int from, int to) {
+        BulkLineResult[] results = new BulkLineResult[to - from];
+        List<OrderLine> accepted = new ArrayList<>(to - from);
+        List<Integer> acceptedAt = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            OrderLine line = lines.get(i);
+            if (line == null || line.productId() == null || line.productId().isBlank() || line.quantity() <= 0) {
+                results[i - from] = BulkLineResult.rejected(i, line == null ? null : line.productId(), "非法的订单行");
+            } else if (!stockView.tryAdmit(line.productId(), line.quantity())) {
+                results[i - from] = BulkLineResult.rejected(i, line.productId(), "库存不足: " + line.productId());
+            } else {
+                try {
+                    admissionGate.chargeLine(line.productId());
+                    accepted.add(line);
+                    acceptedAt.add(i);
+                } catch (AdmissionRejectedException ex) {
+                    results[i - from] = BulkLineResult.rejected(i, line.productId(), ex.getMessage());
+                }
+            }
+        }
+        if (!accepted.isEmpty()) {
+            try {
+                List<String> orderIds = placeOrderService.placeAll(accepted);
+                for (int j = 0; j < accepted.size(); j++) {
+                    int i = acceptedAt.get(j);
+                    results[i - from] = BulkLineResult.accepted(i, accepted.get(j).productId(), orderIds.get(j));
+                }
+            } catch (Exception ex) {
+                log.error("Bulk chunk failed, lines {}-{}", from, to - 1, ex);
+                for (int j = 0; j < accepted.size(); j++) {
+                    int i = acceptedAt.get(j);
+                    results[i - from] = BulkLineResult.rejected(i, accepted.get(j).productId(), ex.getMessage());
+                }
+            }
+        }
+        return List.of(results);
+    }
+
+    @FunctionalInterface
+    public interface ChunkListener {
+        void onChunk(List<BulkLineResult> results) throws IOException;
+    }
+}
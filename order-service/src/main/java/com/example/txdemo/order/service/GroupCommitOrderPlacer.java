@@ -0,0 +1,174 @@
+package com.example.txdemo.order.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+public class GroupCommitOrderPlacer {
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitOrderPlacer.class);
+    private static final long SHUTDOWN_WAIT_MILLIS = 5000;
+
+    private final PlaceOrderService placeOrderService;
+    private final GroupCommitProperties properties;
+    private final BlockingQueue<PendingPlacement> queue;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public GroupCommitOrderPlacer(PlaceOrderService placeOrderService, GroupCommitProperties properties) {
+        this.placeOrderService = placeOrderService;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.queueCapacity()));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "order-group-commit");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    public boolean enabled() {
+        return properties.enabled();
+    }
+
+    public String place(String productId, int quantity) throws Exception {
+        PendingPlacement placement = new PendingPlacement(new OrderLine(productId, quantity));
+        if (!running || !queue.offer(placement)) {
+            throw new IllegalStateException("下单队列已满，请稍后重试");
+        }
+        if (!running && queue.remove(placement)) {
+            throw new IllegalStateException("订单服务正在关闭");
+        }
+        try {
+            return placement.future.get(properties.submitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        } catch (TimeoutException ex) {
+            // 还在队列里就撤回，保证不会再被写入，客户端可以放心重试；已被 flush 认领则等这一批提交完。
+            if (placement.claim()) {
+                queue.remove(placement);
+                placement.future.cancel(false);
+                throw new IllegalStateException("下单排队超时，订单未创建，请重试", ex);
+            }
+            try {
+                return placement.future.get();
+            } catch (ExecutionException failed) {
+                throw unwrap(failed);
+            }
+        }
+    }
+
+    private void flushLoop() {
+        int maxBatchSize = Math.max(1, properties.maxBatchSize());
+        long maxDelayNanos = properties.maxDelay().toNanos();
+        List<PendingPlacement> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxDelayNanos;
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                while (batch.size() < maxBatchSize) {
+                    PendingPlacement next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+                flush(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                failShuttingDown(batch);
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingPlacement> batch) {
+        batch.removeIf(placement -> !placement.claim());
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<OrderLine> lines = new ArrayList<>(batch.size());
+        for (PendingPlacement placement : batch) {
+            lines.add(placement.line);
+        }
+        try {
+            List<String> orderIds = placeOrderService.placeAll(lines);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(orderIds.get(i));
+            }
+        } catch (Exception ex) {
+            log.error("Error while flushing group commit batch, size={}", batch.size(), ex);
+            for (PendingPlacement placement : batch) {
+                placement.future.completeExceptionally(ex);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join(SHUTDOWN_WAIT_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // flusher 退出后队列里剩下的（包括关闭过程中刚入队的）直接失败，不让调用方干等到超时。
+        List<PendingPlacement> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        failShuttingDown(remaining);
+    }
+
+    private static void failShuttingDown(List<PendingPlacement> placements) {
+        for (PendingPlacement placement : placements) {
+            if (placement.claim()) {
+                placement.future.completeExceptionally(new IllegalStateException("订单服务正在关闭"));
+            }
+        }
+    }
+
+    private static Exception unwrap(ExecutionException ex) {
+        return ex.getCause() instanceof Exception cause ? cause : ex;
+    }
+
+    /**
+     * claimed 由 flush、超时撤回、关闭三方抢占，谁先抢到谁决定这条请求的结局，避免超时后仍被写入。
+     */
+    private static final class PendingPlacement {
+        private final OrderLine line;
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private PendingPlacement(OrderLine line) {
+            this.line = line;
+        }
+
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.txdemo.order.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "txdemo.order.group-commit")
+public record GroupCommitProperties(
+        boolean enabled,
+        int maxBatchSize,
+        Duration maxDelay,
+        int queueCapacity,
+        Duration submitTimeout
+) {}
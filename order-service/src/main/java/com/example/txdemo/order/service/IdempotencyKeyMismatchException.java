@@ -0,0 +1,7 @@
+package com.example.txdemo.order.service;
+
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    public IdempotencyKeyMismatchException(String key) {
+        super("幂等键已用于不同的请求: " + key);
+    }
+}
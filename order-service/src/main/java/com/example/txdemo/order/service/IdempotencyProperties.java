@@ -0,0 +1,14 @@
+package com.example.txdemo.order.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "txdemo.order.idempotency")
+public record IdempotencyProperties(
+        int cacheSize,
+        Duration waitTimeout,
+        Duration retention,
+        Duration purgeInterval,
+        int purgeBatchSize
+) {}
@@ -0,0 +1,178 @@
+package com.example.txdemo.order.service;
+
+import com.example.txdemo.order.repo.IdempotencyKeyRepository;
+import com.example.txdemo.order.repo.IdempotencyRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Component
+public class IdempotentOrderPlacer implements SchedulingConfigurer {
+    private static final Logger log = LoggerFactory.getLogger(IdempotentOrderPlacer.class);
+    private static final int MAX_KEY_LENGTH = 128;
+
+    private final PlaceOrderService placeOrderService;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final IdempotencyProperties properties;
+    private final Map<String, IdempotencyRecord> recent;
+    private final ConcurrentHashMap<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotentOrderPlacer(
+            PlaceOrderService placeOrderService,
+            IdempotencyKeyRepository idempotencyKeyRepository,
+            IdempotencyProperties properties
+    ) {
+        this.placeOrderService = placeOrderService;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.properties = properties;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > properties.cacheSize();
+            }
+        };
+    }
+
+    public static String requestHash(String productId, int quantity) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((productId + "\n" + quantity).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * 在库存视图和限流之前调用：依次查本地 LRU、同键的在途请求、idempotency_keys 表，
+     * 已经下过单的重试直接拿到原来的 orderId，不会因为售罄或限流被拒。
+     */
+    public Optional<String> replay(String key, String requestHash) {
+        checkKey(key);
+        IdempotencyRecord record;
+        synchronized (recent) {
+            record = recent.get(key);
+        }
+        if (record == null) {
+            CompletableFuture<IdempotencyRecord> running = inFlight.get(key);
+            record = running != null ? awaitInFlight(running) : idempotencyKeyRepository.find(key).orElse(null);
+            if (record != null) {
+                remember(record);
+            }
+        }
+        return Optional.ofNullable(record).map(found -> matching(found, requestHash));
+    }
+
+    public Result place(String key, String productId, int quantity) throws Exception {
+        checkKey(key);
+        String requestHash = requestHash(productId, quantity);
+        CompletableFuture<IdempotencyRecord> mine = new CompletableFuture<>();
+        CompletableFuture<IdempotencyRecord> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return new Result(matching(await(running), requestHash), true);
+        }
+        try {
+            IdempotencyRecord record = idempotencyKeyRepository.find(key).orElse(null);
+            boolean replayed = record != null;
+            if (record == null) {
+                try {
+                    record = new IdempotencyRecord(key, requestHash, placeOrderService.place(productId, quantity, key, requestHash));
+                } catch (DuplicateKeyException ex) {
+                    record = idempotencyKeyRepository.find(key)
+                            .orElseThrow(() -> new IllegalStateException("幂等键冲突但记录不存在: " + key));
+                    replayed = true;
+                }
+            }
+            remember(record);
+            mine.complete(record);
+            return new Result(matching(record, requestHash), replayed);
+        } catch (Exception ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(this::purgeExpired, properties.purgeInterval());
+    }
+
+    public void purgeExpired() {
+        Instant cutoff = Instant.now().minus(properties.retention());
+        int purged = 0;
+        int batch;
+        do {
+            batch = idempotencyKeyRepository.deleteCreatedBefore(cutoff, properties.purgeBatchSize());
+            purged += batch;
+        } while (batch >= properties.purgeBatchSize());
+        if (purged > 0) {
+            log.info("Purged {} idempotency keys created before {}", purged, cutoff);
+        }
+    }
+
+    private IdempotencyRecord await(CompletableFuture<IdempotencyRecord> running) throws Exception {
+        try {
+            return running.get(properties.waitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new IllegalStateException("相同幂等键的请求仍在处理中");
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof Exception cause ? cause : ex;
+        }
+    }
+
+    /**
+     * 在途请求失败时返回 null，由本次请求重新下单（失败的请求没有留下幂等记录）。
+     */
+    private IdempotencyRecord awaitInFlight(CompletableFuture<IdempotencyRecord> running) {
+        try {
+            return running.get(properties.waitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new IllegalStateException("相同幂等键的请求仍在处理中");
+        } catch (ExecutionException ex) {
+            return null;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待相同幂等键的请求被中断");
+        }
+    }
+
+    private void remember(IdempotencyRecord record) {
+        synchronized (recent) {
+            recent.put(record.key(), record);
+        }
+    }
+
+    private static String matching(IdempotencyRecord record, String requestHash) {
+        if (!record.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException(record.key());
+        }
+        return record.orderId();
+    }
+
+    public static void checkKey(String key) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("非法的幂等键");
+        }
+    }
+
+    public record Result(String orderId, boolean replayed) {}
+}
@@ -0,0 +1,3 @@
+package com.example.txdemo.order.service;
+
+public record OrderLine(String productId, int quantity) {}
@@ -0,0 +1,12 @@
+package com.example.txdemo.order.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "txdemo.order.notify")
+public record OrderNotifyProperties(
+        int maxWaiters,
+        Duration defaultTimeout,
+        Duration maxTimeout
+) {}
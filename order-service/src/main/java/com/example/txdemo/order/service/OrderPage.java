@@ -0,0 +1,7 @@
+package com.example.txdemo.order.service;
+
+import com.example.txdemo.order.repo.OrderView;
+
+import java.util.List;
+
+public record OrderPage(List<OrderView> items, String nextCursor) {}
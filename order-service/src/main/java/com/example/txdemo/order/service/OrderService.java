@@ -1,47 +1,130 @@
 package com.example.txdemo.order.service;
 
 import com.example.txdemo.order.domain.OrderStatus;
+import com.example.txdemo.order.repo.OrderCursor;
 import com.example.txdemo.order.repo.OrderRepository;
+import com.example.txdemo.order.repo.OrderView;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Service
 public class OrderService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final Set<String> STATUSES = Set.of(OrderStatus.PENDING, OrderStatus.CONFIRMED, OrderStatus.CANCELLED);
+
     private final OrderRepository orderRepository;
+    private final OrderStatsReadModel statsReadModel;
+    private final SagaCompensator compensator;
 
-    public OrderService(OrderRepository orderRepository) {
+    public OrderService(OrderRepository orderRepository, OrderStatsReadModel statsReadModel, SagaCompensator compensator) {
         this.orderRepository = orderRepository;
+        this.statsReadModel = statsReadModel;
+        this.compensator = compensator;
     }
 
     @Transactional
     public String createPending(String productId, int quantity) {
         String orderId = UUID.randomUUID().toString();
-        orderRepository.insert(orderId, productId, quantity, OrderStatus.PENDING, Instant.now());
+        Instant now = Instant.now();
+        orderRepository.insert(orderId, productId, quantity, OrderStatus.PENDING, now);
+        statsReadModel.created(List.of(new OrderView(orderId, productId, quantity, OrderStatus.PENDING, now)));
         return orderId;
     }
 
     @Transactional
-    public void confirm(String orderId) {
-        orderRepository.updateStatus(orderId, OrderStatus.CONFIRMED);
+    public List<OrderView> createPendingAll(List<OrderLine> lines) {
+        Instant now = Instant.now();
+        List<OrderView> orders = new ArrayList<>(lines.size());
+        for (OrderLine line : lines) {
+            orders.add(new OrderView(UUID.randomUUID().toString(), line.productId(), line.quantity(), OrderStatus.PENDING, now));
+        }
+        orderRepository.insertAll(orders);
+        statsReadModel.created(orders);
+        return orders;
+    }
+
+    /**
+     * 只有 PENDING 的订单会被确认，返回是否真的发生了状态变化。
+     * 订单已被超时扫描取消时，迟到的预留结果不能把它翻成 CONFIRMED，而是回一条释放，把库存还回去。
+     */
+    @Transactional
+    public boolean confirm(String orderId) {
+        Optional<OrderView> current = orderRepository.lockOne(orderId);
+        if (current.isEmpty()) {
+            return false;
+        }
+        if (finish(current.get(), OrderStatus.CONFIRMED)) {
+            return true;
+        }
+        if (OrderStatus.CANCELLED.equals(current.get().status())) {
+            compensator.releaseInventory(orderId, current.get().productId(), current.get().quantity());
+        }
+        return false;
     }
 
     @Transactional
-    public void cancel(String orderId) {
-        orderRepository.updateStatus(orderId, OrderStatus.CANCELLED);
+    public boolean cancel(String orderId) {
+        Optional<OrderView> current = orderRepository.lockOne(orderId);
+        return current.isPresent() && finish(current.get(), OrderStatus.CANCELLED);
     }
 
-    public List<Map<String, Object>> listOrders() {
-        return orderRepository.findAll();
+    @Transactional(readOnly = true)
+    public OrderPage listOrders(String status, String after, Integer limit) {
+        checkStatus(status);
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        OrderCursor cursor = after == null || after.isBlank() ? null : OrderCursor.decode(after);
+
+        List<OrderView> rows = orderRepository.findPage(status, cursor, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new OrderPage(rows, null);
+        }
+        List<OrderView> items = rows.subList(0, pageSize);
+        OrderView last = items.get(pageSize - 1);
+        return new OrderPage(items, new OrderCursor(last.createdAt(), last.id()).encode());
+    }
+
+    @Transactional(readOnly = true)
+    public void exportOrders(String status, Consumer<OrderView> consumer) {
+        checkStatus(status);
+        orderRepository.streamAll(status, consumer);
     }
 
-    public Optional<Map<String, Object>> getOrder(String orderId) {
+    @Transactional(readOnly = true)
+    public Optional<OrderView> getOrder(String orderId) {
         return orderRepository.findOne(orderId);
     }
+
+    /**
+     * 读写事务只会路由到主库。状态推送和长轮询通常紧跟在下单之后，从库复制延迟会让刚建的订单查不到而误报 404。
+     */
+    @Transactional
+    public Optional<OrderView> getOrderFromPrimary(String orderId) {
+        return orderRepository.findOne(orderId);
+    }
+
+    private boolean finish(OrderView current, String status) {
+        Instant now = Instant.now();
+        if (!OrderStatus.PENDING.equals(current.status())
+                || !orderRepository.updateStatusIf(current.id(), OrderStatus.PENDING, status, now)) {
+            return false;
+        }
+        statsReadModel.finished(current.id(), OrderStatus.PENDING, status, current.createdAt(), now);
+        return true;
+    }
+
+    private static void checkStatus(String status) {
+        if (status != null && !STATUSES.contains(status)) {
+            throw new IllegalArgumentException("未知的订单状态: " + status);
+        }
+    }
 }
 
@@ -0,0 +1,14 @@
+package com.example.txdemo.order.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "txdemo.order.stats")
+public record OrderStatsProperties(
+        boolean rebuildOnStartup,
+        Duration window,
+        int windowBuckets,
+        int maxProducts,
+        int defaultTop
+) {}
@@ -0,0 +1,281 @@
+package com.example.txdemo.order.service;
+
+import com.example.txdemo.order.domain.OrderStatus;
+import com.example.txdemo.order.metrics.LatencyHistogram;
+import com.example.txdemo.order.repo.OrderRepository;
+import com.example.txdemo.order.repo.OrderStatsRow;
+import com.example.txdemo.order.repo.OrderView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Component
+public class OrderStatsReadModel {
+    private static final Logger log = LoggerFactory.getLogger(OrderStatsReadModel.class);
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final OrderStatsProperties properties;
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final Queue<PendingEvent> pendingDuringRebuild = new ArrayDeque<>();
+    private volatile State state;
+    private volatile boolean rebuilding;
+    private volatile Instant rebuiltAt;
+
+    public OrderStatsReadModel(
+            OrderRepository orderRepository,
+            PlatformTransactionManager transactionManager,
+            OrderStatsProperties properties
+    ) {
+        this.orderRepository = orderRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        // 全表扫描和之后按订单号查状态要看到同一个快照，回放排队事件时才能判断扫描是否已经包含它。
+        this.readOnlyTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.properties = properties;
+        this.state = new State(properties);
+    }
+
+    public void created(List<OrderView> orders) {
+        for (OrderView order : orders) {
+            afterCommit(new PendingEvent(order.id(), OrderStatus.PENDING,
+                    s -> s.created(order.productId(), order.quantity(), order.createdAt())));
+        }
+    }
+
+    public void finished(String orderId, String fromStatus, String toStatus, Instant createdAt, Instant finishedAt) {
+        afterCommit(new PendingEvent(orderId, toStatus, s -> s.finished(fromStatus, toStatus, createdAt, finishedAt)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (properties.rebuildOnStartup()) {
+            rebuild();
+        }
+    }
+
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        setRebuilding(true);
+        State fresh = new State(properties);
+        LongAdder rows = new LongAdder();
+        LongAdder skipped = new LongAdder();
+        try {
+            readOnlyTx.executeWithoutResult(tx -> {
+                orderRepository.streamStatsRows(row -> {
+                    fresh.load(row);
+                    rows.increment();
+                });
+                // 持有写锁期间不会再有事件入队；在同一个快照里查排队订单的状态，扫描已经算过的事件不再回放。
+                swapLock.writeLock().lock();
+                try {
+                    List<PendingEvent> events = new ArrayList<>(pendingDuringRebuild);
+                    Map<String, String> scanned = orderRepository.findStatuses(
+                            events.stream().map(PendingEvent::orderId).collect(Collectors.toSet()));
+                    pendingDuringRebuild.clear();
+                    for (PendingEvent event : events) {
+                        if (event.includedIn(scanned.get(event.orderId()))) {
+                            skipped.increment();
+                        } else {
+                            event.change().accept(fresh);
+                        }
+                    }
+                    state = fresh;
+                    rebuilding = false;
+                    rebuiltAt = Instant.now();
+                } finally {
+                    swapLock.writeLock().unlock();
+                }
+            });
+        } catch (RuntimeException ex) {
+            setRebuilding(false);
+            throw ex;
+        }
+        log.info("Order stats rebuilt from {} rows in {} ms, {} events during rebuild already in the scan",
+                rows.sum(), (System.nanoTime() - start) / 1_000_000, skipped.sum());
+    }
+
+    public Map<String, Object> snapshot(String productId, Integer top) {
+        State current = state;
+        long now = System.currentTimeMillis();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("rebuiltAt", rebuiltAt);
+        snapshot.put("statusCounts", current.statusCounts());
+        snapshot.put("window", properties.window().toString());
+        if (productId != null) {
+            RollingWindow window = current.products.get(productId);
+            snapshot.put("products", window == null ? List.of() : List.of(productWindow(productId, window, now)));
+        } else {
+            int limit = top == null ? properties.defaultTop() : Math.max(1, top);
+            snapshot.put("products", current.products.entrySet().stream()
+                    .map(entry -> productWindow(entry.getKey(), entry.getValue(), now))
+                    .filter(product -> (long) product.get("orders") > 0)
+                    .sorted(Comparator.comparingLong(product -> -(long) product.get("orders")))
+                    .limit(limit)
+                    .toList());
+        }
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put(OrderStatus.CONFIRMED, current.confirmedLatency.snapshot());
+        latency.put(OrderStatus.CANCELLED, current.cancelledLatency.snapshot());
+        snapshot.put("pendingToFinalLatency", latency);
+        return snapshot;
+    }
+
+    private static Map<String, Object> productWindow(String productId, RollingWindow window, long now) {
+        long[] sum = window.sum(now);
+        Map<String, Object> product = new LinkedHashMap<>();
+        product.put("productId", productId);
+        product.put("orders", sum[0]);
+        product.put("quantity", sum[1]);
+        return product;
+    }
+
+    private void afterCommit(PendingEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(event);
+                }
+            });
+        } else {
+            apply(event);
+        }
+    }
+
+    private void apply(PendingEvent event) {
+        swapLock.readLock().lock();
+        try {
+            if (rebuilding) {
+                synchronized (pendingDuringRebuild) {
+                    pendingDuringRebuild.add(event);
+                }
+            } else {
+                event.change().accept(state);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void setRebuilding(boolean value) {
+        swapLock.writeLock().lock();
+        try {
+            rebuilding = value;
+            if (!value) {
+                PendingEvent event;
+                while ((event = pendingDuringRebuild.poll()) != null) {
+                    event.change().accept(state);
+                }
+            }
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 一笔订单的一次状态变化：toStatus 为 PENDING 表示创建。状态只会 PENDING -> 终态，
+     * 扫描看到订单已处于 toStatus（创建事件只要看到订单即可）就说明这次变化已经计入。
+     */
+    private record PendingEvent(String orderId, String toStatus, Consumer<State> change) {
+        boolean includedIn(String scannedStatus) {
+            return scannedStatus != null && (OrderStatus.PENDING.equals(toStatus) || toStatus.equals(scannedStatus));
+        }
+    }
+
+    private static final class State {
+        private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, RollingWindow> products = new ConcurrentHashMap<>();
+        private final LatencyHistogram confirmedLatency = new LatencyHistogram();
+        private final LatencyHistogram cancelledLatency = new LatencyHistogram();
+        private final long windowMillis;
+        private final int windowBuckets;
+        private final int maxProducts;
+
+        State(OrderStatsProperties properties) {
+            this.windowMillis = properties.window().toMillis();
+            this.windowBuckets = properties.windowBuckets();
+            this.maxProducts = properties.maxProducts();
+            for (String status : List.of(OrderStatus.PENDING, OrderStatus.CONFIRMED, OrderStatus.CANCELLED)) {
+                counts.put(status, new LongAdder());
+            }
+        }
+
+        void load(OrderStatsRow row) {
+            counter(row.status()).increment();
+            recordWindow(row.productId(), row.quantity(), row.createdAt());
+            if (row.finishedAt() != null) {
+                recordLatency(row.status(), row.createdAt(), row.finishedAt());
+            }
+        }
+
+        void created(String productId, int quantity, Instant createdAt) {
+            counter(OrderStatus.PENDING).increment();
+            recordWindow(productId, quantity, createdAt);
+        }
+
+        void finished(String fromStatus, String toStatus, Instant createdAt, Instant finishedAt) {
+            counter(fromStatus).decrement();
+            counter(toStatus).increment();
+            if (OrderStatus.PENDING.equals(fromStatus)) {
+                recordLatency(toStatus, createdAt, finishedAt);
+            }
+        }
+
+        Map<String, Long> statusCounts() {
+            Map<String, Long> snapshot = new LinkedHashMap<>();
+            counts.forEach((status, count) -> snapshot.put(status, count.sum()));
+            return snapshot;
+        }
+
+        private LongAdder counter(String status) {
+            return counts.computeIfAbsent(status, ignored -> new LongAdder());
+        }
+
+        private void recordWindow(String productId, int quantity, Instant createdAt) {
+            long now = System.currentTimeMillis();
+            long createdMillis = createdAt.toEpochMilli();
+            if (createdMillis <= now - windowMillis) {
+                return;
+            }
+            RollingWindow window = products.get(productId);
+            if (window == null) {
+                if (products.size() >= maxProducts) {
+                    return;
+                }
+                window = products.computeIfAbsent(productId, ignored -> new RollingWindow(windowMillis, windowBuckets));
+            }
+            window.add(createdMillis, quantity, now);
+        }
+
+        private void recordLatency(String status, Instant createdAt, Instant finishedAt) {
+            long millis = finishedAt.toEpochMilli() - createdAt.toEpochMilli();
+            if (OrderStatus.CONFIRMED.equals(status)) {
+                confirmedLatency.record(millis);
+            } else if (OrderStatus.CANCELLED.equals(status)) {
+                cancelledLatency.record(millis);
+            }
+        }
+    }
+}
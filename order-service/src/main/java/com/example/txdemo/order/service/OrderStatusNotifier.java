@@ -0,0 +1,65 @@
+package com.example.txdemo.order.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+@Component
+public class OrderStatusNotifier {
+    private static final Logger log = LoggerFactory.getLogger(OrderStatusNotifier.class);
+
+    private final ConcurrentHashMap<String, List<Consumer<String>>> waiters = new ConcurrentHashMap<>();
+    private final AtomicInteger waiterCount = new AtomicInteger();
+    private final int maxWaiters;
+
+    public OrderStatusNotifier(OrderNotifyProperties properties) {
+        this.maxWaiters = properties.maxWaiters();
+    }
+
+    public Runnable subscribe(String orderId, Consumer<String> listener) {
+        if (waiterCount.incrementAndGet() > maxWaiters) {
+            waiterCount.decrementAndGet();
+            throw new IllegalStateException("订单状态订阅数已达上限: " + maxWaiters);
+        }
+        waiters.compute(orderId, (key, list) -> {
+            List<Consumer<String>> target = list == null ? new ArrayList<>(1) : list;
+            target.add(listener);
+            return target;
+        });
+        return () -> unsubscribe(orderId, listener);
+    }
+
+    public void publish(String orderId, String status) {
+        List<Consumer<String>> listeners = waiters.remove(orderId);
+        if (listeners == null) {
+            return;
+        }
+        waiterCount.addAndGet(-listeners.size());
+        for (Consumer<String> listener : listeners) {
+            try {
+                listener.accept(status);
+            } catch (Exception ex) {
+                log.warn("Error while notifying order status listener, orderId={}", orderId, ex);
+            }
+        }
+    }
+
+    public int waiterCount() {
+        return waiterCount.get();
+    }
+
+    private void unsubscribe(String orderId, Consumer<String> listener) {
+        waiters.computeIfPresent(orderId, (key, list) -> {
+            if (list.remove(listener)) {
+                waiterCount.decrementAndGet();
+            }
+            return list.isEmpty() ? null : list;
+        });
+    }
+}
@@ -1,31 +1,41 @@
 package com.example.txdemo.order.service;
 
 import com.example.txdemo.order.mq.EventType;
+import com.example.txdemo.order.mq.MessageTrace;
 import com.example.txdemo.order.mq.OrderCreatedEvent;
 import com.example.txdemo.order.mq.OutboxPublisher;
+import com.example.txdemo.order.outbox.OutboxEntry;
 import com.example.txdemo.order.outbox.OutboxRepository;
+import com.example.txdemo.order.repo.IdempotencyKeyRepository;
+import com.example.txdemo.order.repo.OrderView;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
 public class PlaceOrderService {
     private final OrderService orderService;
     private final OutboxRepository outboxRepository;
     private final OutboxPublisher outboxPublisher;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
     private final ObjectMapper objectMapper;
 
     public PlaceOrderService(
             OrderService orderService,
             OutboxRepository outboxRepository,
             OutboxPublisher outboxPublisher,
+            IdempotencyKeyRepository idempotencyKeyRepository,
             ObjectMapper objectMapper
     ) {
         this.orderService = orderService;
         this.outboxRepository = outboxRepository;
         this.outboxPublisher = outboxPublisher;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
         this.objectMapper = objectMapper;
     }
 
@@ -33,7 +43,37 @@ public class PlaceOrderService {
     public String place(String productId, int quantity) throws Exception {
         String orderId = orderService.createPending(productId, quantity);
         String payload = objectMapper.writeValueAsString(new OrderCreatedEvent(orderId, productId, quantity));
-        outboxRepository.add(orderId, EventType.ORDER_CREATED, payload);
+        outboxRepository.add(orderId, EventType.ORDER_CREATED, payload, MessageTrace.origin(orderId, System.currentTimeMillis()));
+        publishAfterCommit();
+        return orderId;
+    }
+
+    @Transactional
+    public String place(String productId, int quantity, String idempotencyKey, String requestHash) throws Exception {
+        String orderId = orderService.createPending(productId, quantity);
+        idempotencyKeyRepository.insert(idempotencyKey, requestHash, orderId);
+        String payload = objectMapper.writeValueAsString(new OrderCreatedEvent(orderId, productId, quantity));
+        outboxRepository.add(orderId, EventType.ORDER_CREATED, payload, MessageTrace.origin(orderId, System.currentTimeMillis()));
+        publishAfterCommit();
+        return orderId;
+    }
+
+    @Transactional
+    public List<String> placeAll(List<OrderLine> lines) throws Exception {
+        List<OrderView> orders = orderService.createPendingAll(lines);
+        List<OutboxEntry> events = new ArrayList<>(orders.size());
+        List<String> orderIds = new ArrayList<>(orders.size());
+        for (OrderView order : orders) {
+            String payload = objectMapper.writeValueAsString(new OrderCreatedEvent(order.id(), order.productId(), order.quantity()));
+            events.add(new OutboxEntry(order.id(), EventType.ORDER_CREATED, payload, MessageTrace.origin(order.id(), order.createdAt().toEpochMilli())));
+            orderIds.add(order.id());
+        }
+        outboxRepository.addAll(events);
+        publishAfterCommit();
+        return orderIds;
+    }
+
+    private void publishAfterCommit() {
         if (TransactionSynchronizationManager.isSynchronizationActive()) {
             TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
                 @Override
@@ -44,6 +84,5 @@ public class PlaceOrderService {
         } else {
             outboxPublisher.publishOnce();
         }
-        return orderId;
     }
 }
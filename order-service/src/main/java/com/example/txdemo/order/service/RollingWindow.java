@@ -0,0 +1,49 @@
+package com.example.txdemo.order.service;
+
+import java.util.Arrays;
+
+final class RollingWindow {
+    private final long bucketMillis;
+    private final long[] bucketIndex;
+    private final long[] orders;
+    private final long[] quantity;
+
+    RollingWindow(long windowMillis, int buckets) {
+        this.bucketMillis = Math.max(1, windowMillis / buckets);
+        this.bucketIndex = new long[buckets];
+        this.orders = new long[buckets];
+        this.quantity = new long[buckets];
+        Arrays.fill(bucketIndex, Long.MIN_VALUE);
+    }
+
+    synchronized void add(long epochMillis, int qty, long nowMillis) {
+        long index = epochMillis / bucketMillis;
+        if (index <= nowMillis / bucketMillis - bucketIndex.length) {
+            return;
+        }
+        int slot = (int) Math.floorMod(index, (long) bucketIndex.length);
+        if (bucketIndex[slot] != index) {
+            if (bucketIndex[slot] > index) {
+                return;
+            }
+            bucketIndex[slot] = index;
+            orders[slot] = 0;
+            quantity[slot] = 0;
+        }
+        orders[slot]++;
+        quantity[slot] += qty;
+    }
+
+    synchronized long[] sum(long nowMillis) {
+        long oldest = nowMillis / bucketMillis - bucketIndex.length;
+        long totalOrders = 0;
+        long totalQuantity = 0;
+        for (int i = 0; i < bucketIndex.length; i++) {
+            if (bucketIndex[i] > oldest) {
+                totalOrders += orders[i];
+                totalQuantity += quantity[i];
+            }
+        }
+        return new long[]{totalOrders, totalQuantity};
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.txdemo.order.service;
+
+import com.example.txdemo.order.mq.EventType;
+import com.example.txdemo.order.mq.MessageTrace;
+import com.example.txdemo.order.mq.OrderCancelledEvent;
+import com.example.txdemo.order.mq.OutboxPublisher;
+import com.example.txdemo.order.outbox.OutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 订单在本地取消后，通知库存服务释放这笔订单的预留（ORDER_CANCELLED）。
+ * 事件和取消写在同一个事务的 outbox 里；库存侧按订单号记账，没预留过就留下标记，之后到达的 ORDER_CREATED 不再预留。
+ */
+@Component
+public class SagaCompensator {
+    private final OutboxRepository outboxRepository;
+    private final OutboxPublisher outboxPublisher;
+    private final ObjectMapper objectMapper;
+
+    public SagaCompensator(OutboxRepository outboxRepository, OutboxPublisher outboxPublisher, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.outboxPublisher = outboxPublisher;
+        this.objectMapper = objectMapper;
+    }
+
+    public void releaseInventory(String orderId, String productId, int quantity) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(new OrderCancelledEvent(orderId, productId, quantity));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+        outboxRepository.add(orderId, EventType.ORDER_CANCELLED, payload, MessageTrace.origin(orderId, System.currentTimeMillis()));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    outboxPublisher.publishOnce();
+                }
+            });
+        } else {
+            outboxPublisher.publishOnce();
+        }
+    }
+}
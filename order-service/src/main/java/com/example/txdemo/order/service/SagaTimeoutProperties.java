@@ -0,0 +1,15 @@
+package com.example.txdemo.order.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "txdemo.order.saga-timeout")
+public record SagaTimeoutProperties(
+        boolean enabled,
+        Duration timeout,
+        Duration retryInterval,
+        int maxReemits,
+        int batchSize,
+        Duration sweepInterval
+) {}
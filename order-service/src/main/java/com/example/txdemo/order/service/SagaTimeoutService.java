@@ -0,0 +1,80 @@
+package com.example.txdemo.order.service;
+
+import com.example.txdemo.order.domain.OrderStatus;
+import com.example.txdemo.order.metrics.SagaMetrics;
+import com.example.txdemo.order.mq.EventType;
+import com.example.txdemo.order.mq.MessageTrace;
+import com.example.txdemo.order.mq.OrderCreatedEvent;
+import com.example.txdemo.order.outbox.OutboxRepository;
+import com.example.txdemo.order.repo.OrderRepository;
+import com.example.txdemo.order.repo.StuckOrder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Service
+public class SagaTimeoutService {
+    private final OrderRepository orderRepository;
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final SagaTimeoutProperties properties;
+    private final OrderStatsReadModel statsReadModel;
+    private final SagaMetrics metrics;
+    private final SagaCompensator compensator;
+
+    public SagaTimeoutService(
+            OrderRepository orderRepository,
+            OutboxRepository outboxRepository,
+            ObjectMapper objectMapper,
+            SagaTimeoutProperties properties,
+            OrderStatsReadModel statsReadModel,
+            SagaMetrics metrics,
+            SagaCompensator compensator
+    ) {
+        this.orderRepository = orderRepository;
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.statsReadModel = statsReadModel;
+        this.metrics = metrics;
+        this.compensator = compensator;
+    }
+
+    public List<StuckOrder> findExpired(Instant now) {
+        return orderRepository.findStuck(
+                OrderStatus.PENDING,
+                now.minus(properties.timeout()),
+                now.minus(properties.retryInterval()),
+                properties.batchSize()
+        );
+    }
+
+    @Transactional
+    public Outcome handleExpired(StuckOrder order, Instant now) throws Exception {
+        if (!orderRepository.claimStuck(order.id(), OrderStatus.PENDING, order.sagaAttempts(), now)) {
+            return Outcome.SKIPPED;
+        }
+        if (order.sagaAttempts() < properties.maxReemits()) {
+            String payload = objectMapper.writeValueAsString(new OrderCreatedEvent(order.id(), order.productId(), order.quantity()));
+            outboxRepository.add(order.id(), EventType.ORDER_CREATED, payload, MessageTrace.origin(order.id(), order.createdAt().toEpochMilli()));
+            return Outcome.REEMITTED;
+        }
+        if (!orderRepository.updateStatusIf(order.id(), OrderStatus.PENDING, OrderStatus.CANCELLED, now)) {
+            return Outcome.SKIPPED;
+        }
+        // 库存可能已经预留（回复丢了），也可能还没处理排队中的 ORDER_CREATED：同一事务里发释放。
+        compensator.releaseInventory(order.id(), order.productId(), order.quantity());
+        statsReadModel.finished(order.id(), OrderStatus.PENDING, OrderStatus.CANCELLED, order.createdAt(), now);
+        metrics.finished(OrderStatus.CANCELLED, order.createdAt().toEpochMilli(), now.toEpochMilli());
+        return Outcome.CANCELLED;
+    }
+
+    public enum Outcome {
+        SKIPPED,
+        REEMITTED,
+        CANCELLED
+    }
+}
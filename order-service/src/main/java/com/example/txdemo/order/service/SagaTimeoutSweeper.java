@@ -0,0 +1,71 @@
+package com.example.txdemo.order.service;
+
+import com.example.txdemo.order.domain.OrderStatus;
+import com.example.txdemo.order.mq.OutboxPublisher;
+import com.example.txdemo.order.repo.StuckOrder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+@Component
+public class SagaTimeoutSweeper implements SchedulingConfigurer {
+    private static final Logger log = LoggerFactory.getLogger(SagaTimeoutSweeper.class);
+
+    private final SagaTimeoutService sagaTimeoutService;
+    private final SagaTimeoutProperties properties;
+    private final OutboxPublisher outboxPublisher;
+    private final OrderStatusNotifier notifier;
+
+    public SagaTimeoutSweeper(
+            SagaTimeoutService sagaTimeoutService,
+            SagaTimeoutProperties properties,
+            OutboxPublisher outboxPublisher,
+            OrderStatusNotifier notifier
+    ) {
+        this.sagaTimeoutService = sagaTimeoutService;
+        this.properties = properties;
+        this.outboxPublisher = outboxPublisher;
+        this.notifier = notifier;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(this::sweep, properties.sweepInterval());
+    }
+
+    public void sweep() {
+        if (!properties.enabled()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<StuckOrder> expired = sagaTimeoutService.findExpired(now);
+        int reemitted = 0;
+        int cancelled = 0;
+        for (StuckOrder order : expired) {
+            try {
+                switch (sagaTimeoutService.handleExpired(order, now)) {
+                    case REEMITTED -> reemitted++;
+                    case CANCELLED -> {
+                        cancelled++;
+                        notifier.publish(order.id(), OrderStatus.CANCELLED);
+                    }
+                    case SKIPPED -> {
+                    }
+                }
+            } catch (Exception ex) {
+                log.error("Error while handling expired saga, orderId={}", order.id(), ex);
+            }
+        }
+        if (reemitted > 0) {
+            outboxPublisher.publishOnce();
+        }
+        if (reemitted > 0 || cancelled > 0) {
+            log.info("Saga timeout sweep: scanned={}, reemitted={}, cancelled={}", expired.size(), reemitted, cancelled);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.txdemo.order.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class StockAvailabilityView {
+    private final StockViewProperties properties;
+    private final ConcurrentHashMap<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    private final LongAdder fastRejected = new LongAdder();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder staleUpdates = new LongAdder();
+    private final LongAdder sagaRejected = new LongAdder();
+
+    public StockAvailabilityView(StockViewProperties properties) {
+        this.properties = properties;
+    }
+
+    public boolean tryAdmit(String productId, int quantity) {
+        if (!properties.enabled()) {
+            return true;
+        }
+        Snapshot snapshot = snapshots.get(productId);
+        if (snapshot != null
+                && snapshot.available() < quantity
+                && System.nanoTime() - snapshot.receivedAtNanos() < properties.ttl().toNanos()) {
+            fastRejected.increment();
+            return false;
+        }
+        admitted.increment();
+        return true;
+    }
+
+    public void update(String productId, Integer available, Long observedAt) {
+        if (productId == null || available == null || observedAt == null) {
+            return;
+        }
+        if (!snapshots.containsKey(productId) && snapshots.size() >= properties.maxProducts()) {
+            return;
+        }
+        Snapshot incoming = new Snapshot(available, observedAt, System.nanoTime());
+        Snapshot merged = snapshots.merge(productId, incoming,
+                (current, next) -> next.observedAt() >= current.observedAt() ? next : current);
+        if (merged == incoming) {
+            updates.increment();
+        } else {
+            staleUpdates.increment();
+        }
+    }
+
+    public void recordSagaRejection() {
+        sagaRejected.increment();
+    }
+
+    public Map<String, Object> stats() {
+        long rejected = fastRejected.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.enabled());
+        stats.put("trackedProducts", snapshots.size());
+        stats.put("admitted", admitted.sum());
+        stats.put("fastRejected", rejected);
+        stats.put("rejectedBySaga", sagaRejected.sum());
+        // 按每次快速拒绝省下 2 行 outbox、2 次 MQ 投递估算，不是实测值
+        stats.put("estimatedSavedOutboxRows", rejected * 2);
+        stats.put("estimatedSavedMqMessages", rejected * 2);
+        stats.put("updates", updates.sum());
+        stats.put("staleUpdates", staleUpdates.sum());
+        return stats;
+    }
+
+    private record Snapshot(int available, long observedAt, long receivedAtNanos) {}
+}
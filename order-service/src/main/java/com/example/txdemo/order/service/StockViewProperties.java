@@ -0,0 +1,12 @@
+package com.example.txdemo.order.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "txdemo.order.stock-view")
+public record StockViewProperties(
+        boolean enabled,
+        Duration ttl,
+        int maxProducts
+) {}
@@ -0,0 +1,33 @@
+package com.example.txdemo.order.web;
+
+import com.example.txdemo.order.admission.AdmissionGate;
+import com.example.txdemo.order.admission.AdmissionProperties;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/admission")
+public class AdmissionController {
+    private final AdmissionGate admissionGate;
+
+    public AdmissionController(AdmissionGate admissionGate) {
+        this.admissionGate = admissionGate;
+    }
+
+    @GetMapping
+    public Map<String, Object> stats() {
+        return admissionGate.stats();
+    }
+
+    @PutMapping
+    public ResponseEntity<?> update(@RequestBody AdmissionProperties limits) {
+        try {
+            admissionGate.update(limits);
+            return ResponseEntity.ok(admissionGate.stats());
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+    }
+}
@@ -1,38 +1,170 @@
 package com.example.txdemo.order.web;
 
+import com.example.txdemo.order.admission.AdmissionGate;
+import com.example.txdemo.order.admission.AdmissionRejectedException;
 import com.example.txdemo.order.domain.OrderStatus;
+import com.example.txdemo.order.service.BulkOrderService;
+import com.example.txdemo.order.service.GroupCommitOrderPlacer;
+import com.example.txdemo.order.service.IdempotencyKeyMismatchException;
+import com.example.txdemo.order.service.IdempotentOrderPlacer;
+import com.example.txdemo.order.service.OrderLine;
 import com.example.txdemo.order.service.OrderService;
+import com.example.txdemo.order.service.OrderStatsReadModel;
 import com.example.txdemo.order.service.PlaceOrderService;
+import com.example.txdemo.order.service.StockAvailabilityView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/orders")
 public class OrderController {
+    private static final String NDJSON = "application/x-ndjson";
+
     private final PlaceOrderService placeOrderService;
+    private final GroupCommitOrderPlacer groupCommitOrderPlacer;
+    private final IdempotentOrderPlacer idempotentOrderPlacer;
+    private final BulkOrderService bulkOrderService;
     private final OrderService orderService;
+    private final OrderStatsReadModel statsReadModel;
+    private final StockAvailabilityView stockView;
+    private final AdmissionGate admissionGate;
+    private final ObjectMapper objectMapper;
 
-    public OrderController(PlaceOrderService placeOrderService, OrderService orderService) {
+    public OrderController(
+            PlaceOrderService placeOrderService,
+            GroupCommitOrderPlacer groupCommitOrderPlacer,
+            IdempotentOrderPlacer idempotentOrderPlacer,
+            BulkOrderService bulkOrderService,
+            OrderService orderService,
+            OrderStatsReadModel statsReadModel,
+            StockAvailabilityView stockView,
+            AdmissionGate admissionGate,
+            ObjectMapper objectMapper
+    ) {
         this.placeOrderService = placeOrderService;
+        this.groupCommitOrderPlacer = groupCommitOrderPlacer;
+        this.idempotentOrderPlacer = idempotentOrderPlacer;
+        this.bulkOrderService = bulkOrderService;
         this.orderService = orderService;
+        this.statsReadModel = statsReadModel;
+        this.stockView = stockView;
+        this.admissionGate = admissionGate;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/place")
-    public ResponseEntity<?> place(@RequestBody PlaceOrderRequest request) {
+    public ResponseEntity<?> place(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody PlaceOrderRequest request
+    ) {
         try {
-            String orderId = placeOrderService.place(request.productId(), request.quantity());
-            return ResponseEntity.ok(Map.of("accepted", true, "orderId", orderId, "status", OrderStatus.PENDING));
+            if (idempotencyKey != null) {
+                String requestHash = IdempotentOrderPlacer.requestHash(request.productId(), request.quantity());
+                Optional<String> replayed = idempotentOrderPlacer.replay(idempotencyKey, requestHash);
+                if (replayed.isPresent()) {
+                    return placed(replayed.get(), true);
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (IdempotencyKeyMismatchException ex) {
+            return ResponseEntity.unprocessableEntity().body(Map.of("accepted", false, "error", ex.getMessage()));
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(409).body(Map.of("accepted", false, "error", ex.getMessage()));
+        }
+        if (!stockView.tryAdmit(request.productId(), request.quantity())) {
+            return ResponseEntity.status(409).body(Map.of("accepted", false, "error", "库存不足: " + request.productId()));
+        }
+        try (AdmissionGate.Permit ignored = admissionGate.enter(request.productId())) {
+            if (idempotencyKey != null) {
+                IdempotentOrderPlacer.Result result = idempotentOrderPlacer.place(idempotencyKey, request.productId(), request.quantity());
+                return placed(result.orderId(), result.replayed());
+            }
+            String orderId = groupCommitOrderPlacer.enabled()
+                    ? groupCommitOrderPlacer.place(request.productId(), request.quantity())
+                    : placeOrderService.place(request.productId(), request.quantity());
+            return placed(orderId, false);
+        } catch (AdmissionRejectedException ex) {
+            return ResponseEntity.status(429).header("Retry-After", "1")
+                    .body(Map.of("accepted", false, "error", ex.getMessage()));
+        } catch (IdempotencyKeyMismatchException ex) {
+            return ResponseEntity.unprocessableEntity().body(Map.of("accepted", false, "error", ex.getMessage()));
         } catch (Exception ex) {
             return ResponseEntity.status(409).body(Map.of("accepted", false, "error", ex.getMessage()));
         }
     }
 
+    @PostMapping(value = "/place/batch", produces = NDJSON)
+    public void placeBatch(@RequestBody BulkPlaceRequest request, HttpServletResponse response) throws IOException {
+        List<OrderLine> lines = request.lines() == null ? List.of() : request.lines();
+        try {
+            bulkOrderService.checkSize(lines.size());
+        } catch (IllegalArgumentException ex) {
+            writeError(response, 400, ex.getMessage());
+            return;
+        }
+        try (AdmissionGate.Permit ignored = admissionGate.enterBulk()) {
+            response.setContentType(NDJSON);
+            response.setCharacterEncoding("UTF-8");
+            try (SequenceWriter writer = objectMapper.writer()
+                    .withRootValueSeparator("\n")
+                    .writeValues(response.getOutputStream())) {
+                bulkOrderService.placeAll(lines, results -> {
+                    writer.writeAll(results);
+                    writer.flush();
+                    response.flushBuffer();
+                });
+                response.getOutputStream().write('\n');
+            }
+        } catch (AdmissionRejectedException ex) {
+            response.setHeader("Retry-After", "1");
+            writeError(response, 429, ex.getMessage());
+        }
+    }
+
     @GetMapping
-    public List<Map<String, Object>> list() {
-        return orderService.listOrders();
+    public ResponseEntity<?> list(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit
+    ) {
+        try {
+            return ResponseEntity.ok(orderService.listOrders(blankToNull(status), after, limit));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON)
+    public void export(@RequestParam(required = false) String status, HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        try (OrderNdjsonWriter writer = new OrderNdjsonWriter(objectMapper.getFactory(), response.getOutputStream())) {
+            orderService.exportOrders(blankToNull(status), writer);
+        }
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> stats(
+            @RequestParam(required = false) String productId,
+            @RequestParam(required = false) Integer top
+    ) {
+        return statsReadModel.snapshot(blankToNull(productId), top);
+    }
+
+    @GetMapping("/stock-view")
+    public Map<String, Object> stockView() {
+        return stockView.stats();
     }
 
     @GetMapping("/{orderId}")
@@ -42,6 +174,25 @@ public class OrderController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    private static ResponseEntity<?> placed(String orderId, boolean replayed) {
+        return ResponseEntity.ok()
+                .header("Idempotent-Replayed", Boolean.toString(replayed))
+                .body(Map.of("accepted", true, "orderId", orderId, "status", OrderStatus.PENDING));
+    }
+
+    private void writeError(HttpServletResponse response, int status, String error) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), Map.of("accepted", false, "error", error));
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
     public record PlaceOrderRequest(String productId, int quantity) {}
+
+    public record BulkPlaceRequest(List<OrderLine> lines) {}
 }
 
@@ -0,0 +1,58 @@
+package com.example.txdemo.order.web;
+
+import com.example.txdemo.order.repo.OrderView;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+final class OrderNdjsonWriter implements Consumer<OrderView>, Closeable {
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString PRODUCT_ID = new SerializedString("productId");
+    private static final SerializedString QUANTITY = new SerializedString("quantity");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+
+    private final JsonGenerator generator;
+    private boolean written;
+
+    OrderNdjsonWriter(JsonFactory jsonFactory, OutputStream out) throws IOException {
+        this.generator = jsonFactory.createGenerator(out);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.generator.setRootValueSeparator(new SerializedString("\n"));
+    }
+
+    @Override
+    public void accept(OrderView order) {
+        try {
+            generator.writeStartObject();
+            generator.writeFieldName(ID);
+            generator.writeString(order.id());
+            generator.writeFieldName(PRODUCT_ID);
+            generator.writeString(order.productId());
+            generator.writeFieldName(QUANTITY);
+            generator.writeNumber(order.quantity());
+            generator.writeFieldName(STATUS);
+            generator.writeString(order.status());
+            generator.writeFieldName(CREATED_AT);
+            generator.writeString(order.createdAt().toString());
+            generator.writeEndObject();
+            written = true;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (written) {
+            generator.writeRaw('\n');
+        }
+        generator.close();
+    }
+}
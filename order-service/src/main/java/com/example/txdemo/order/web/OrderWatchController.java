@@ -0,0 +1,134 @@
+package com.example.txdemo.order.web;
+
+import com.example.txdemo.order.domain.OrderStatus;
+import com.example.txdemo.order.repo.OrderView;
+import com.example.txdemo.order.service.OrderNotifyProperties;
+import com.example.txdemo.order.service.OrderService;
+import com.example.txdemo.order.service.OrderStatusNotifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/orders")
+public class OrderWatchController {
+    private final OrderService orderService;
+    private final OrderStatusNotifier notifier;
+    private final OrderNotifyProperties properties;
+
+    public OrderWatchController(OrderService orderService, OrderStatusNotifier notifier, OrderNotifyProperties properties) {
+        this.orderService = orderService;
+        this.notifier = notifier;
+        this.properties = properties;
+    }
+
+    @GetMapping("/{orderId}/events")
+    public ResponseEntity<?> events(@PathVariable String orderId, @RequestParam(required = false) Long timeoutMs) {
+        SseEmitter emitter = new SseEmitter(timeout(timeoutMs).toMillis());
+        AtomicBoolean settled = new AtomicBoolean();
+        Runnable unsubscribe;
+        try {
+            unsubscribe = notifier.subscribe(orderId, status -> {
+                synchronized (emitter) {
+                    if (settled.compareAndSet(false, true)) {
+                        send(emitter, orderId, status);
+                        emitter.complete();
+                    }
+                }
+            });
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(503).body(Map.of("error", ex.getMessage()));
+        }
+        emitter.onCompletion(unsubscribe);
+        // 超时前再查一次当前状态推给客户端，和 /await 一样让客户端拿到最新状态后再决定是否重连
+        emitter.onTimeout(() -> {
+            synchronized (emitter) {
+                if (settled.compareAndSet(false, true)) {
+                    orderService.getOrderFromPrimary(orderId).ifPresent(order -> send(emitter, orderId, order.status()));
+                    emitter.complete();
+                }
+            }
+        });
+        emitter.onError(ex -> unsubscribe.run());
+
+        Optional<OrderView> current = orderService.getOrderFromPrimary(orderId);
+        if (current.isEmpty()) {
+            unsubscribe.run();
+            return ResponseEntity.notFound().build();
+        }
+        synchronized (emitter) {
+            if (!settled.get()) {
+                send(emitter, orderId, current.get().status());
+                if (isFinal(current.get().status())) {
+                    emitter.complete();
+                }
+            }
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    @GetMapping("/{orderId}/await")
+    public DeferredResult<ResponseEntity<?>> await(@PathVariable String orderId, @RequestParam(required = false) Long timeoutMs) {
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(timeout(timeoutMs).toMillis());
+        Runnable unsubscribe;
+        try {
+            unsubscribe = notifier.subscribe(orderId, status -> result.setResult(ResponseEntity.ok(statusBody(orderId, status))));
+        } catch (IllegalStateException ex) {
+            result.setResult(ResponseEntity.status(503).body(Map.of("error", ex.getMessage())));
+            return result;
+        }
+        result.onCompletion(unsubscribe);
+        result.onTimeout(() -> result.setResult(currentStatus(orderId)));
+
+        Optional<OrderView> current = orderService.getOrderFromPrimary(orderId);
+        if (current.isEmpty()) {
+            result.setResult(ResponseEntity.notFound().build());
+        } else if (isFinal(current.get().status())) {
+            result.setResult(ResponseEntity.ok(statusBody(orderId, current.get().status())));
+        }
+        return result;
+    }
+
+    private ResponseEntity<?> currentStatus(String orderId) {
+        return orderService.getOrderFromPrimary(orderId)
+                .<ResponseEntity<?>>map(order -> ResponseEntity.ok(statusBody(orderId, order.status())))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private Duration timeout(Long timeoutMs) {
+        if (timeoutMs == null || timeoutMs <= 0) {
+            return properties.defaultTimeout();
+        }
+        Duration requested = Duration.ofMillis(timeoutMs);
+        return requested.compareTo(properties.maxTimeout()) > 0 ? properties.maxTimeout() : requested;
+    }
+
+    private static void send(SseEmitter emitter, String orderId, String status) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(statusBody(orderId, status)));
+        } catch (IOException | IllegalStateException ex) {
+            emitter.completeWithError(ex);
+        }
+    }
+
+    private static Map<String, Object> statusBody(String orderId, String status) {
+        return Map.of("orderId", orderId, "status", status, "final", isFinal(status));
+    }
+
+    private static boolean isFinal(String status) {
+        return OrderStatus.CONFIRMED.equals(status) || OrderStatus.CANCELLED.equals(status);
+    }
+}
@@ -3,7 +3,12 @@ create table if not exists orders (
     product_id varchar(64) not null,
     quantity   int not null,
     status     varchar(32) not null,
-    created_at timestamp not null default current_timestamp
+    created_at timestamp not null default current_timestamp,
+    saga_attempts int not null default 0,
+    last_swept_at timestamp null,
+    finished_at timestamp null,
+    key idx_orders_created_id (created_at, id),
+    key idx_orders_status_created (status, created_at)
 ) engine=InnoDB default charset=utf8mb4;
 
 create table if not exists outbox (
@@ -14,7 +19,9 @@ create table if not exists outbox (
     status       varchar(16) not null,
     retries      int not null default 0,
     error        longtext null,
-    created_at   timestamp not null default current_timestamp,
+    trace_id     varchar(64) null,
+    origin_millis bigint null,
+    created_at   timestamp(3) not null default current_timestamp(3),
     sent_at      timestamp null,
     key idx_outbox_status_id (status, id)
 ) engine=InnoDB default charset=utf8mb4;
@@ -24,3 +31,16 @@ create table if not exists processed_messages (
     processed_at timestamp not null default current_timestamp
 ) engine=InnoDB default charset=utf8mb4;
 
+
+create table if not exists idempotency_keys (
+    idem_key     varchar(128) primary key,
+    request_hash char(64) not null,
+    order_id     varchar(64) not null,
+    created_at   timestamp not null default current_timestamp,
+    key idx_idempotency_created (created_at)
+) engine=InnoDB default charset=utf8mb4;
+
+create table if not exists replication_heartbeat (
+    id          int primary key,
+    beat_millis bigint not null
+) engine=InnoDB default charset=utf8mb4;
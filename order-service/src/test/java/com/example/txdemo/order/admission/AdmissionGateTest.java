@@ -0,0 +1,59 @@
+package com.example.txdemo.order.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 速率都设得极低（每秒 0.001 个），测试期间桶不会自然回填，拿到几个令牌完全由突发量和退回决定。
+ */
+class AdmissionGateTest {
+    private static final double SLOW = 0.001;
+
+    @Test
+    void concurrencyRejectionReturnsRateTokens() {
+        AdmissionGate gate = new AdmissionGate(properties(2, 1, 1));
+
+        AdmissionGate.Permit held = gate.tryEnter("sku-1");
+        assertThatThrownBy(() -> gate.tryEnter("sku-2")).isInstanceOf(AdmissionRejectedException.class)
+                .hasMessageContaining("并发");
+        held.close();
+
+        // 被并发拒绝的那次没有用掉全局令牌，第二个令牌还在。
+        gate.tryEnter("sku-2").close();
+        assertThat(gate.stats().get("rejectedGlobalRate")).isEqualTo(0L);
+    }
+
+    @Test
+    void globalRejectionReturnsProductToken() {
+        AdmissionGate gate = new AdmissionGate(properties(1, 1, 0));
+
+        gate.tryEnter("sku-1").close();
+        assertThatThrownBy(() -> gate.tryEnter("sku-2")).hasMessageContaining("全局");
+        gate.update(properties(2, 1, 0));
+
+        // sku-2 的商品令牌在全局拒绝时已退回，放宽全局限制后可以直接进入。
+        gate.tryEnter("sku-2").close();
+        assertThat(gate.stats().get("rejectedProductRate")).isEqualTo(0L);
+    }
+
+    @Test
+    void bulkLinesPayProductTokensPerLine() {
+        AdmissionGate gate = new AdmissionGate(properties(10, 2, 1));
+
+        try (AdmissionGate.Permit ignored = gate.enterBulk()) {
+            gate.chargeLine("sku-1");
+            gate.chargeLine("sku-1");
+            assertThatThrownBy(() -> gate.chargeLine("sku-1")).hasMessageContaining("商品");
+            gate.chargeLine("sku-2");
+        }
+        assertThat(gate.stats().get("rejectedProductRate")).isEqualTo(1L);
+    }
+
+    private static AdmissionProperties properties(int globalBurst, int productBurst, int maxConcurrency) {
+        return new AdmissionProperties(true, SLOW, globalBurst, SLOW, productBurst, maxConcurrency, 0, Duration.ZERO, 100);
+    }
+}
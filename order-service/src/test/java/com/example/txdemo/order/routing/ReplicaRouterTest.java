@@ -0,0 +1,114 @@
+package com.example.txdemo.order.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 两个本地 H2 库分别充当主库和从库，每个库的 {@code node} 表里只有自己的名字，
+ * 查一下就知道这次读落在了哪个库上。库之间没有真实复制，心跳由测试直接写进从库。
+ */
+class ReplicaRouterTest {
+    private static final String REPLICA = "replica-1";
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReplicaRouter router;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readTx;
+    private TransactionTemplate writeTx;
+
+    @BeforeEach
+    void setUp() {
+        primary = h2("primary");
+        replica = h2(REPLICA);
+        for (HikariDataSource node : List.of(primary, replica)) {
+            JdbcTemplate jdbc = new JdbcTemplate(node);
+            jdbc.execute("create table replication_heartbeat (id int primary key, beat_millis bigint not null)");
+            jdbc.execute("create table node (name varchar(32) not null)");
+            jdbc.update("insert into node (name) values (?)", node.getPoolName());
+        }
+        ReadReplicaProperties properties = new ReadReplicaProperties(
+                true, List.of(), Duration.ofSeconds(3), Duration.ofSeconds(5), Duration.ofSeconds(1), 0.2, 2);
+        router = new ReplicaRouter(primary, List.of(new ReplicaNode(REPLICA, replica)), properties);
+        DataSource dataSource = new ReadReplicaConfig().dataSource(router);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readTx = new TransactionTemplate(transactionManager);
+        readTx.setReadOnly(true);
+        writeTx = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadSession.clear();
+        for (HikariDataSource node : List.of(primary, replica)) {
+            new JdbcTemplate(node).execute("shutdown");
+        }
+        router.close();
+    }
+
+    @Test
+    void readOnlyTransactionRoutesToReplica() {
+        replicate(System.currentTimeMillis());
+
+        assertThat(nodeIn(readTx)).isEqualTo(REPLICA);
+        assertThat(nodeIn(writeTx)).isEqualTo("primary");
+    }
+
+    @Test
+    void sessionStaysOnPrimaryAfterWrite() {
+        replicate(System.currentTimeMillis());
+
+        ReadSession.set("alice");
+        writeTx.executeWithoutResult(status -> jdbcTemplate.update("update node set name = name"));
+        assertThat(nodeIn(readTx)).isEqualTo("primary");
+
+        ReadSession.set("bob");
+        assertThat(nodeIn(readTx)).isEqualTo(REPLICA);
+    }
+
+    @Test
+    void laggingReplicaIsExcluded() {
+        replicate(System.currentTimeMillis() - Duration.ofSeconds(10).toMillis());
+
+        assertThat(nodeIn(readTx)).isEqualTo("primary");
+        assertThat(router.stats().get("primaryReads")).isEqualTo(1L);
+
+        replicate(System.currentTimeMillis());
+        assertThat(nodeIn(readTx)).isEqualTo(REPLICA);
+    }
+
+    /**
+     * 主库写心跳，再把同一个时间戳“复制”到从库，然后跑一轮探测。
+     */
+    private void replicate(long beatMillis) {
+        router.writeHeartbeat();
+        new JdbcTemplate(replica).update("merge into replication_heartbeat (id, beat_millis) key (id) values (1, ?)", beatMillis);
+        router.probeReplicas();
+    }
+
+    private String nodeIn(TransactionTemplate tx) {
+        return tx.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class));
+    }
+
+    private static HikariDataSource h2(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name.replace('-', '_') + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        dataSource.setMaximumPoolSize(2);
+        return dataSource;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.txdemo.order.web;
+
+import com.example.txdemo.order.repo.OrderRepository;
+import com.example.txdemo.order.repo.OrderView;
+import com.example.txdemo.order.service.OrderPage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /orders/{id}、GET /orders、GET /orders/export 读路径的前后对比：
+ * 旧实现按列名读成 {@code Map<String, Object>}（int 装箱、时间转字符串）再交给 Jackson 反射序列化，
+ * 新实现按列下标读成 {@link OrderView}，导出走 {@link OrderNdjsonWriter} 直接写。
+ * 数据库是进程内 H2，两边跑同样的 SQL，差异只来自映射和序列化。
+ * <p>
+ * 单线程 AverageTime 模式下 {@code us/op} 即每次调用的 CPU 时间，GC profiler 的
+ * {@code gc.alloc.rate.norm} 是每次调用分配的字节数。
+ *
+ * <pre>
+ * cd order-service
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test-cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/test-cp.txt) com.example.txdemo.order.web.OrderReadPathBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderReadPathBenchmark {
+    private static final int ORDERS = 1000;
+    private static final int PAGE_SIZE = 50;
+    private static final String SELECT = "select id, product_id, quantity, status, created_at from orders";
+
+    /**
+     * 改造前 OrderRepository 的映射方式。
+     */
+    private static final RowMapper<Map<String, Object>> LEGACY_ROW_MAPPER = (rs, rowNum) -> Map.of(
+            "id", rs.getString("id"),
+            "productId", rs.getString("product_id"),
+            "quantity", rs.getInt("quantity"),
+            "status", rs.getString("status"),
+            "createdAt", rs.getTimestamp("created_at").toInstant().toString()
+    );
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private OrderRepository orderRepository;
+    private ObjectMapper objectMapper;
+    private int next;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(OrderReadPathBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:read_path;MODE=MySQL;DATABASE_TO_LOWER=TRUE", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("""
+                create table orders (
+                    id         varchar(64) primary key,
+                    product_id varchar(64) not null,
+                    quantity   int not null,
+                    status     varchar(32) not null,
+                    created_at timestamp not null,
+                    key idx_orders_created_id (created_at, id)
+                )
+                """);
+        orderRepository = new OrderRepository(jdbcTemplate);
+        Instant base = Instant.parse("2026-01-01T00:00:00Z");
+        List<OrderView> orders = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            orders.add(new OrderView(id(i), "sku-" + i % 100, 1 + i % 5, "CONFIRMED", base.plusMillis(i * 1000L)));
+        }
+        orderRepository.insertAll(orders);
+        // 与 Spring Boot 自动配置的 ObjectMapper 一致：注册 JavaTimeModule，Instant 写成 ISO-8601。
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public byte[] getByIdMap() throws IOException {
+        Optional<Map<String, Object>> order = jdbcTemplate.query(SELECT + " where id = ?", LEGACY_ROW_MAPPER, nextId())
+                .stream().findFirst();
+        return objectMapper.writeValueAsBytes(order.orElseThrow());
+    }
+
+    @Benchmark
+    public byte[] getByIdRecord() throws IOException {
+        return objectMapper.writeValueAsBytes(orderRepository.findOne(nextId()).orElseThrow());
+    }
+
+    @Benchmark
+    public byte[] listPageMap() throws IOException {
+        List<Map<String, Object>> rows = jdbcTemplate.query(
+                SELECT + " order by created_at desc, id desc limit ?", LEGACY_ROW_MAPPER, PAGE_SIZE + 1);
+        return objectMapper.writeValueAsBytes(new LegacyOrderPage(rows.subList(0, PAGE_SIZE), "cursor"));
+    }
+
+    @Benchmark
+    public byte[] listPageRecord() throws IOException {
+        List<OrderView> rows = orderRepository.findPage(null, null, PAGE_SIZE + 1);
+        return objectMapper.writeValueAsBytes(new OrderPage(rows.subList(0, PAGE_SIZE), "cursor"));
+    }
+
+    @Benchmark
+    public void exportMap() {
+        OutputStream out = OutputStream.nullOutputStream();
+        jdbcTemplate.query(SELECT + " order by created_at desc, id desc", rs -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(LEGACY_ROW_MAPPER.mapRow(rs, 0)));
+                out.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    @Benchmark
+    public void exportRecord() throws IOException {
+        try (OrderNdjsonWriter writer = new OrderNdjsonWriter(objectMapper.getFactory(), OutputStream.nullOutputStream())) {
+            orderRepository.streamAll(null, writer);
+        }
+    }
+
+    private String nextId() {
+        next = (next + 1) % ORDERS;
+        return id(next);
+    }
+
+    private static String id(int i) {
+        return "order-" + i;
+    }
+
+    record LegacyOrderPage(List<Map<String, Object>> items, String nextCursor) {}
+}
@@ -0,0 +1,65 @@
+package com.example.txdemo.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 命令行参数，形如 {@code --rate=500 --duration=60s --zipf=1.1}。
+ * {@code --stack=reactive} 时订单服务以 {@code reactive} profile 启动（WebFlux + R2DBC），默认是阻塞栈。
+ */
+public record LoadTestOptions(
+        int rate,
+        Duration duration,
+        Duration warmup,
+        int products,
+        double zipfExponent,
+        int stock,
+        int quantity,
+        Duration drainTimeout,
+        String stack
+) {
+    public static final String BLOCKING = "blocking";
+    public static final String REACTIVE = "reactive";
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("参数格式应为 --name=value: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        LoadTestOptions options = new LoadTestOptions(
+                Integer.parseInt(values.getOrDefault("rate", "200")),
+                DurationStyle.detectAndParse(values.getOrDefault("duration", "30s")),
+                DurationStyle.detectAndParse(values.getOrDefault("warmup", "5s")),
+                Integer.parseInt(values.getOrDefault("products", "1000")),
+                Double.parseDouble(values.getOrDefault("zipf", "1.0")),
+                Integer.parseInt(values.getOrDefault("stock", "1000000")),
+                Integer.parseInt(values.getOrDefault("quantity", "1")),
+                DurationStyle.detectAndParse(values.getOrDefault("drain-timeout", "30s")),
+                values.getOrDefault("stack", BLOCKING)
+        );
+        options.validate();
+        return options;
+    }
+
+    private void validate() {
+        if (rate <= 0 || products <= 0 || quantity <= 0 || stock < 0) {
+            throw new IllegalArgumentException("rate、products、quantity 必须为正数，stock 不能为负数");
+        }
+        if (zipfExponent < 0) {
+            throw new IllegalArgumentException("zipf 指数不能为负数");
+        }
+        if (!warmup.minus(duration).isNegative()) {
+            throw new IllegalArgumentException("warmup 必须小于 duration");
+        }
+        if (!BLOCKING.equals(stack) && !REACTIVE.equals(stack)) {
+            throw new IllegalArgumentException("stack 只能是 blocking 或 reactive: " + stack);
+        }
+    }
+}
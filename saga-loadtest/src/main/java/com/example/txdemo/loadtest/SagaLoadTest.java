@@ -0,0 +1,211 @@
+package com.example.txdemo.loadtest;
+
+import com.example.txdemo.inventory.InventoryServiceApplication;
+import com.example.txdemo.inventory.service.InventoryService;
+import com.example.txdemo.order.OrderServiceApplication;
+import com.example.txdemo.order.domain.OrderStatus;
+import com.example.txdemo.order.mq.EventType;
+import com.example.txdemo.order.service.OrderStatusNotifier;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 单 JVM 跑通下单 saga：订单服务、库存服务各起一个 Spring 上下文，数据库用 H2 MySQL 模式，
+ * 分布式锁换成进程内锁，消息走两边的 InMemoryTransport 互相投递。
+ * 请求按固定到达率开环发送，延迟从计划发送时刻算起，避免协调遗漏（coordinated omission）。
+ */
+public class SagaLoadTest {
+    private static final String PRODUCT_PREFIX = "sku-";
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext inventory = new SpringApplicationBuilder(InventoryServiceApplication.class)
+                .run(serviceArgs(InventoryServiceApplication.class, "loadtest-inventory.yml"));
+        ConfigurableApplicationContext order = new SpringApplicationBuilder(OrderServiceApplication.class)
+                .run(orderArgs(options));
+        int exitCode = 0;
+        try {
+            new SagaLoadTest(options, order, inventory).run();
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            exitCode = 1;
+        } finally {
+            order.close();
+            inventory.close();
+        }
+        System.exit(exitCode);
+    }
+
+    /**
+     * 两个服务的 jar 里都有 {@code application.yml} 和 {@code db/schema.sql}，放进同一个 classpath 后
+     * {@code classpath:} 只能找到排在前面的那份，所以配置和建表脚本都按服务自己的 jar 定位，再叠加压测的覆盖配置。
+     * 用命令行参数传入，优先级高于服务 yml 里的 {@code schema-locations}。
+     */
+    static String[] serviceArgs(Class<?> application, String overrides) {
+        String root = resourceRoot(application);
+        return new String[] {
+                "--spring.config.location=" + root + ",classpath:/" + overrides,
+                "--spring.sql.init.schema-locations=" + root + "db/schema.sql"
+        };
+    }
+
+    /**
+     * 响应式栈的 R2DBC 连的是同一个 H2 内存库（见 loadtest-order-reactive.yml），
+     * 时区跟 JVM 一致，两条链路写入的 created_at 才能和超时扫描对得上。
+     */
+    private static String[] orderArgs(LoadTestOptions options) {
+        String[] args = serviceArgs(OrderServiceApplication.class, "loadtest-order.yml");
+        if (!LoadTestOptions.REACTIVE.equals(options.stack())) {
+            return args;
+        }
+        String[] reactive = Arrays.copyOf(args, args.length + 2);
+        reactive[args.length] = "--spring.profiles.active=reactive";
+        reactive[args.length + 1] = "--txdemo.order.reactive.zone-id=" + ZoneId.systemDefault().getId();
+        return reactive;
+    }
+
+    private static String resourceRoot(Class<?> application) {
+        String location = application.getProtectionDomain().getCodeSource().getLocation().toString();
+        return location.endsWith(".jar") ? "jar:" + location + "!/" : location;
+    }
+
+    private final LoadTestOptions options;
+    private final ConfigurableApplicationContext order;
+    private final ConfigurableApplicationContext inventory;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ZipfianGenerator zipf;
+    private final HttpClient http;
+    private final URI placeUri;
+
+    SagaLoadTest(LoadTestOptions options, ConfigurableApplicationContext order, ConfigurableApplicationContext inventory) {
+        this.options = options;
+        this.order = order;
+        this.inventory = inventory;
+        this.zipf = new ZipfianGenerator(options.products(), options.zipfExponent());
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.placeUri = URI.create("http://localhost:" + order.getEnvironment().getProperty("local.server.port") + "/orders/place");
+    }
+
+    void run() throws Exception {
+        seed();
+        long start = System.nanoTime();
+        SagaTracker tracker = new SagaTracker(start + options.warmup().toNanos());
+        bridge(tracker);
+
+        long interval = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        long total = options.duration().toNanos() / interval;
+        System.out.printf("Driving %d orders at %d/s against the %s stack over %d products (zipf=%.2f, top 1%% share=%.1f%%)%n",
+                total, options.rate(), options.stack(), options.products(), options.zipfExponent(),
+                zipf.share(Math.max(1, options.products() / 100)) * 100);
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < total; i++) {
+                long intended = start + i * interval;
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                senders.execute(() -> place(tracker, intended));
+            }
+        }
+
+        long drainDeadline = System.nanoTime() + options.drainTimeout().toNanos();
+        while (tracker.pending() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(50);
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        tracker.report(System.out, elapsedSeconds);
+        printConsistency();
+        printSagaMetrics();
+    }
+
+    private void seed() throws Exception {
+        InventoryService inventoryService = inventory.getBean(InventoryService.class);
+        for (int i = 0; i < options.products(); i++) {
+            inventoryService.seed(PRODUCT_PREFIX + i, options.stock());
+        }
+    }
+
+    private void bridge(SagaTracker tracker) {
+        var orderTransport = order.getBean(com.example.txdemo.order.mq.InMemoryTransport.class);
+        var inventoryTransport = inventory.getBean(com.example.txdemo.inventory.mq.InMemoryTransport.class);
+        OrderStatusNotifier notifier = order.getBean(OrderStatusNotifier.class);
+
+        orderTransport.connect((tag, key, body, trace) -> {
+            if (EventType.ORDER_CREATED.equals(tag) && tracker.dispatched(key)) {
+                notifier.subscribe(key, status -> tracker.finished(key, status));
+            }
+            inventoryTransport.deliver(tag, key, body, new com.example.txdemo.inventory.mq.MessageTrace(trace.traceId(), trace.originMillis(), trace.sentMillis()));
+        });
+        inventoryTransport.connect((tag, key, body, trace) -> {
+            if (EventType.INVENTORY_RESERVED.equals(tag) || EventType.INVENTORY_RESERVE_FAILED.equals(tag)) {
+                tracker.replied(key);
+            }
+            orderTransport.deliver(tag, key, body, new com.example.txdemo.order.mq.MessageTrace(trace.traceId(), trace.originMillis(), trace.sentMillis()));
+        });
+    }
+
+    private void place(SagaTracker tracker, long intended) {
+        String productId = PRODUCT_PREFIX + zipf.next();
+        try {
+            String body = objectMapper.writeValueAsString(Map.of("productId", productId, "quantity", options.quantity()));
+            HttpRequest request = HttpRequest.newBuilder(placeUri)
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            long responded = System.nanoTime();
+            if (response.statusCode() != 200) {
+                tracker.rejected("http_" + response.statusCode());
+                return;
+            }
+            JsonNode json = objectMapper.readTree(response.body());
+            tracker.placed(json.get("orderId").asText(), intended, responded);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            tracker.rejected(ex.getClass().getSimpleName());
+        }
+    }
+
+    private void printSagaMetrics() throws Exception {
+        var writer = order.getBean(ObjectMapper.class).writerWithDefaultPrettyPrinter();
+        System.out.println("order-service saga metrics:");
+        System.out.println(writer.writeValueAsString(order.getBean(com.example.txdemo.order.metrics.SagaMetrics.class).snapshot()));
+        System.out.println("inventory-service saga metrics:");
+        System.out.println(writer.writeValueAsString(inventory.getBean(com.example.txdemo.inventory.metrics.SagaMetrics.class).snapshot()));
+        System.out.println("order-service transport:");
+        System.out.println(writer.writeValueAsString(order.getBean(com.example.txdemo.order.mq.InMemoryTransport.class).stats()));
+        System.out.println("inventory-service transport:");
+        System.out.println(writer.writeValueAsString(inventory.getBean(com.example.txdemo.inventory.mq.InMemoryTransport.class).stats()));
+    }
+
+    private void printConsistency() {
+        JdbcTemplate orders = order.getBean(JdbcTemplate.class);
+        JdbcTemplate stock = inventory.getBean(JdbcTemplate.class);
+        Long confirmedUnits = orders.queryForObject("select coalesce(sum(quantity), 0) from orders where status = ?", Long.class, OrderStatus.CONFIRMED);
+        Long reservedUnits = stock.queryForObject("select coalesce(sum(reserved), 0) from inventory", Long.class);
+        System.out.printf("confirmed units=%d reserved units=%d%s%n", confirmedUnits, reservedUnits,
+                confirmedUnits.equals(reservedUnits) ? "" : "  <-- MISMATCH");
+    }
+}
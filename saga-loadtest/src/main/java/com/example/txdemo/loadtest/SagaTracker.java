@@ -0,0 +1,193 @@
+package com.example.txdemo.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按订单号收集 saga 各阶段的时间点，订单走到终态且下单响应已返回时记入直方图。
+ * 事件可能先于下单响应到达（outbox 在提交后立即发布），所以 trace 由任一事件惰性创建。
+ * 已完成的订单号记在 completedIds 里，之后到达的重复消息（saga 超时重发等）直接忽略，不会重新建出一条永远完成不了的 trace。
+ */
+public class SagaTracker {
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final ConcurrentHashMap<String, Trace> traces = new ConcurrentHashMap<>();
+    private final Set<String> completedIds = ConcurrentHashMap.newKeySet();
+    private final Map<Stage, Histogram> histograms = new LinkedHashMap<>();
+    private final ConcurrentHashMap<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder lateEvents = new LongAdder();
+    private final long recordAfterNanos;
+
+    public SagaTracker(long recordAfterNanos) {
+        this.recordAfterNanos = recordAfterNanos;
+        for (Stage stage : Stage.values()) {
+            histograms.put(stage, new ConcurrentHistogram(HIGHEST_MICROS, 3));
+        }
+    }
+
+    public void placed(String orderId, long startNanos, long respondedNanos) {
+        accepted.increment();
+        Trace trace = trace(orderId);
+        if (trace == null) {
+            return;
+        }
+        synchronized (trace) {
+            trace.started = startNanos;
+            trace.responded = respondedNanos;
+            completeIfDone(orderId, trace);
+        }
+    }
+
+    public void rejected(String outcome) {
+        outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * 返回 true 表示第一次看到这条 ORDER_CREATED，调用方据此订阅终态，saga 超时重发的不再重复订阅。
+     */
+    public boolean dispatched(String orderId) {
+        Trace trace = trace(orderId);
+        if (trace == null) {
+            return false;
+        }
+        synchronized (trace) {
+            if (trace.dispatched != 0) {
+                return false;
+            }
+            trace.dispatched = System.nanoTime();
+            return true;
+        }
+    }
+
+    public void replied(String orderId) {
+        Trace trace = trace(orderId);
+        if (trace == null) {
+            return;
+        }
+        synchronized (trace) {
+            if (trace.replied == 0) {
+                trace.replied = System.nanoTime();
+            }
+        }
+    }
+
+    public void finished(String orderId, String status) {
+        Trace trace = trace(orderId);
+        if (trace == null) {
+            return;
+        }
+        synchronized (trace) {
+            trace.finished = System.nanoTime();
+            trace.status = status;
+            completeIfDone(orderId, trace);
+        }
+    }
+
+    public long pending() {
+        return accepted.sum() - completed.sum();
+    }
+
+    public void report(PrintStream out, double elapsedSeconds) {
+        out.printf("%n%-20s %10s %10s %10s %10s %10s %10s%n", "stage (ms)", "count", "p50", "p90", "p99", "p99.9", "max");
+        histograms.forEach((stage, histogram) -> out.printf("%-20s %10d %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+                stage.label,
+                histogram.getTotalCount(),
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue())));
+        out.printf("%naccepted=%d completed=%d incomplete=%d lateEvents=%d throughput=%.1f/s%n",
+                accepted.sum(), completed.sum(), pending(), lateEvents.sum(), completed.sum() / elapsedSeconds);
+        outcomes.forEach((outcome, count) -> out.printf("%s=%d%n", outcome, count.sum()));
+    }
+
+    /**
+     * 已完成的订单返回 null。判断和创建都在 compute 里做，和 completeIfDone 的移除对同一个键互斥，不会在完成的同时又建出新 trace。
+     */
+    private Trace trace(String orderId) {
+        Trace trace = traces.compute(orderId, (k, existing) -> {
+            if (existing != null || completedIds.contains(k)) {
+                return existing;
+            }
+            return new Trace();
+        });
+        if (trace == null) {
+            lateEvents.increment();
+        }
+        return trace;
+    }
+
+    private void completeIfDone(String orderId, Trace trace) {
+        if (trace.started == 0 || trace.finished == 0) {
+            return;
+        }
+        boolean[] removed = new boolean[1];
+        traces.computeIfPresent(orderId, (k, existing) -> {
+            if (existing != trace) {
+                return existing;
+            }
+            completedIds.add(k);
+            removed[0] = true;
+            return null;
+        });
+        if (!removed[0]) {
+            return;
+        }
+        completed.increment();
+        outcomes.computeIfAbsent(trace.status, k -> new LongAdder()).increment();
+        if (trace.started < recordAfterNanos) {
+            return;
+        }
+        record(Stage.PLACE, trace.started, trace.responded);
+        record(Stage.DISPATCH, trace.started, trace.dispatched);
+        record(Stage.RESERVE, trace.dispatched, trace.replied);
+        record(Stage.FINALIZE, trace.replied, trace.finished);
+        record(Stage.END_TO_END, trace.started, trace.finished);
+    }
+
+    private void record(Stage stage, long fromNanos, long toNanos) {
+        if (fromNanos == 0 || toNanos == 0) {
+            return;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(Math.max(0, toNanos - fromNanos));
+        histograms.get(stage).recordValue(Math.min(micros, HIGHEST_MICROS));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    enum Stage {
+        PLACE("place (http)"),
+        DISPATCH("dispatch"),
+        RESERVE("inventory.reserve"),
+        FINALIZE("order.finalize"),
+        END_TO_END("end-to-end");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final class Trace {
+        long started;
+        long responded;
+        long dispatched;
+        long replied;
+        long finished;
+        String status;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.txdemo.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 按 Zipf 分布抽取 [0, n) 的排名，0 最热。exponent 为 0 时退化为均匀分布。
+ */
+public class ZipfianGenerator {
+    private final double[] cdf;
+
+    public ZipfianGenerator(int n, double exponent) {
+        cdf = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= sum;
+        }
+    }
+
+    public int next() {
+        int index = Arrays.binarySearch(cdf, ThreadLocalRandom.current().nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+
+    /**
+     * 排名前 k 的商品承担的流量占比。
+     */
+    public double share(int k) {
+        return cdf[Math.min(k, cdf.length) - 1];
+    }
+}
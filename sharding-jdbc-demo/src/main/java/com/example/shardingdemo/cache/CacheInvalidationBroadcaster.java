@@ -0,0 +1,119 @@
+package com.example.shardingdemo.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongConsumer;
+
+/**
+ * 本机多实例之间广播“某个用户的订单变了”：UDP 组播，每条消息 16 字节（发送方实例 id + userId），
+ * 只走回环网卡、TTL 为 0，不会出本机。收到其他实例的消息后回调监听者，自己发的直接忽略。
+ * 组播不可用（如容器里没有回环组播）时只打警告，本实例照常工作，跨实例失效退化为 recent-orders.ttl-ms 到期前可能读到旧数据。
+ */
+@Component
+public class CacheInvalidationBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBroadcaster.class);
+    private static final int MESSAGE_BYTES = 16;
+
+    private final long instanceId = ThreadLocalRandom.current().nextLong();
+    private final InetSocketAddress group;
+    private volatile MulticastSocket socket;
+    private volatile LongConsumer listener = userId -> { };
+
+    public CacheInvalidationBroadcaster(@Value("${recent-orders.broadcast.enabled:true}") boolean enabled,
+                                        @Value("${recent-orders.broadcast.group:239.255.27.1}") String group,
+                                        @Value("${recent-orders.broadcast.port:45821}") int port) {
+        this.group = new InetSocketAddress(group, port);
+        if (enabled) {
+            open();
+        }
+    }
+
+    public void listen(LongConsumer listener) {
+        this.listener = listener;
+    }
+
+    public boolean isActive() {
+        return socket != null;
+    }
+
+    public void publish(long userId) {
+        MulticastSocket current = socket;
+        if (current == null) {
+            return;
+        }
+        byte[] message = ByteBuffer.allocate(MESSAGE_BYTES).putLong(instanceId).putLong(userId).array();
+        try {
+            current.send(new DatagramPacket(message, message.length, group));
+        } catch (IOException ex) {
+            log.warn("failed to broadcast cache invalidation for user {}", userId, ex);
+        }
+    }
+
+    private void open() {
+        try {
+            NetworkInterface loopback = NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress());
+            MulticastSocket multicast = new MulticastSocket(group.getPort());
+            multicast.setOption(StandardSocketOptions.IP_MULTICAST_IF, loopback);
+            multicast.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true);
+            multicast.setTimeToLive(0);
+            multicast.joinGroup(group, loopback);
+            socket = multicast;
+        } catch (IOException | RuntimeException ex) {
+            log.warn("cache invalidation broadcast disabled: {}", ex.toString());
+            return;
+        }
+        Thread receiver = new Thread(this::receive, "cache-invalidation");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    private void receive() {
+        byte[] buffer = new byte[MESSAGE_BYTES];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        while (true) {
+            MulticastSocket current = socket;
+            if (current == null) {
+                return;
+            }
+            try {
+                current.receive(packet);
+            } catch (SocketException ex) {
+                return;
+            } catch (IOException ex) {
+                log.warn("failed to receive cache invalidation", ex);
+                continue;
+            }
+            if (packet.getLength() != MESSAGE_BYTES) {
+                continue;
+            }
+            ByteBuffer message = ByteBuffer.wrap(buffer);
+            if (message.getLong() != instanceId) {
+                listener.accept(message.getLong());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        MulticastSocket current = socket;
+        socket = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+}
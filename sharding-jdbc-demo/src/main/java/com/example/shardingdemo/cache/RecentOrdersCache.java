@@ -0,0 +1,145 @@
+package com.example.shardingdemo.cache;
+
+import com.example.shardingdemo.domain.Order;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongFunction;
+
+/**
+ * 每个用户最近 N 笔订单（按 order_id 倒序）的进程内缓存，按用户数做 LRU 淘汰。
+ * <ul>
+ *     <li>读：limit &lt;= N 且缓存够用时直接返回，否则回源取 N 条装入；用户订单不足 N 条时整份都在缓存里，任何 limit 都能命中。</li>
+ *     <li>本实例写：已缓存的用户就地插入新订单；其他实例通过 {@link CacheInvalidationBroadcaster} 收到后整份失效。</li>
+ *     <li>回源和写入并发时，用按用户分桶的版本号保证旧结果不会覆盖掉刚写入的订单。</li>
+ *     <li>每份缓存从回源时起最多用 ttl；广播丢失或绕过 OrderService 直接改库时，旧数据最多停留这么久。</li>
+ * </ul>
+ */
+@Component
+public class RecentOrdersCache {
+
+    private static final int VERSION_STRIPES = 4096;
+    private static final Comparator<Order> NEWEST_FIRST = Comparator.comparing(Order::getOrderId).reversed();
+
+    private final int size;
+    private final int maxUsers;
+    private final long ttlNanos;
+    private final CacheInvalidationBroadcaster broadcaster;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+    private final Map<Long, Entry> entries;
+    private long hits;
+    private long misses;
+
+    public RecentOrdersCache(@Value("${recent-orders.size:20}") int size,
+                             @Value("${recent-orders.max-users:10000}") int maxUsers,
+                             @Value("${recent-orders.ttl-ms:60000}") long ttlMillis,
+                             CacheInvalidationBroadcaster broadcaster) {
+        this.size = size;
+        this.maxUsers = maxUsers;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.broadcaster = broadcaster;
+        this.entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > RecentOrdersCache.this.maxUsers;
+            }
+        };
+        broadcaster.listen(this::evict);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * limit 不在 1..N 之间时返回 empty，由调用方直接查库。
+     */
+    public Optional<List<Order>> find(long userId, int limit, LongFunction<List<Order>> loader) {
+        if (limit <= 0 || limit > size) {
+            return Optional.empty();
+        }
+        synchronized (entries) {
+            Entry entry = entries.get(userId);
+            if (entry != null && System.nanoTime() - entry.loadedAt > ttlNanos) {
+                entries.remove(userId);
+                entry = null;
+            }
+            if (entry != null && (entry.complete || entry.orders.size() >= limit)) {
+                hits++;
+                return Optional.of(new ArrayList<>(entry.orders.subList(0, Math.min(limit, entry.orders.size()))));
+            }
+            misses++;
+        }
+        long version = versions.get(stripe(userId));
+        List<Order> loaded = loader.apply(userId);
+        synchronized (entries) {
+            if (versions.get(stripe(userId)) == version) {
+                entries.put(userId, new Entry(new ArrayList<>(loaded), loaded.size() < size, System.nanoTime()));
+            }
+        }
+        return Optional.of(new ArrayList<>(loaded.subList(0, Math.min(limit, loaded.size()))));
+    }
+
+    /**
+     * 订单落库成功后调用：更新本实例缓存并通知其他实例失效。
+     */
+    public void onCreated(Order order) {
+        long userId = order.getUserId();
+        synchronized (entries) {
+            versions.incrementAndGet(stripe(userId));
+            Entry entry = entries.get(userId);
+            if (entry != null) {
+                entry.orders.add(order);
+                entry.orders.sort(NEWEST_FIRST);
+                if (entry.orders.size() > size) {
+                    entry.orders.subList(size, entry.orders.size()).clear();
+                }
+            }
+        }
+        broadcaster.publish(userId);
+    }
+
+    public void evict(long userId) {
+        synchronized (entries) {
+            versions.incrementAndGet(stripe(userId));
+            entries.remove(userId);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        synchronized (entries) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("users", entries.size());
+            stats.put("hits", hits);
+            stats.put("misses", misses);
+            stats.put("broadcast", broadcaster.isActive());
+            return stats;
+        }
+    }
+
+    private static int stripe(long userId) {
+        return (int) (Long.hashCode(userId) & (VERSION_STRIPES - 1));
+    }
+
+    private static final class Entry {
+        private final List<Order> orders;
+        // 用户的订单总数不足 N，缓存里就是全部订单。
+        private final boolean complete;
+        // 回源装入的时间；本实例写入就地更新时不续期。
+        private final long loadedAt;
+
+        private Entry(List<Order> orders, boolean complete, long loadedAt) {
+            this.orders = orders;
+            this.complete = complete;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
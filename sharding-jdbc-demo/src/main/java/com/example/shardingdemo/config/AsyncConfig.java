@@ -7,6 +7,8 @@ import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
@@ -22,4 +24,20 @@ public class AsyncConfig {
         executor.initialize();
         return TtlExecutors.getTtlExecutor(executor);
     }
+
+    /**
+     * 按分片并行读写（批量写、分片聚合）用的有界线程池；队列满时由调用线程自己执行，压力传回请求方而不是无限排队。
+     * 返回 ExecutorService，容器关闭时会调用它的 shutdown。
+     */
+    @Bean(name = "shardExecutor")
+    public ExecutorService shardExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(64);
+        executor.setThreadNamePrefix("shard-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return TtlExecutors.getTtlExecutorService(executor.getThreadPoolExecutor());
+    }
 }
@@ -0,0 +1,31 @@
+package com.example.shardingdemo.config;
+
+import com.example.shardingdemo.id.SegmentIdAllocator;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 号段表放在独立的数据源里，不走 ShardingSphere 路由；
+ * 数据源由发号器持有并随它关闭，不注册成 DataSource Bean，避免和 ShardingSphere 的数据源抢 JdbcTemplate 自动配置。
+ */
+@Configuration
+public class IdSegmentConfig {
+
+    @Bean(destroyMethod = "close")
+    public SegmentIdAllocator orderIdAllocator(@Value("${order-id.segment.jdbc-url}") String jdbcUrl,
+                                               @Value("${order-id.segment.biz-tag:t_order}") String bizTag,
+                                               @Value("${order-id.segment.initial-id:1000}") long initialId,
+                                               @Value("${order-id.segment.step:10000}") int step,
+                                               @Value("${order-id.segment.username:sa}") String username,
+                                               @Value("${order-id.segment.password:}") String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("id-segment");
+        dataSource.setJdbcUrl(jdbcUrl);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(2);
+        return new SegmentIdAllocator(dataSource, bizTag, initialId, step);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.shardingdemo.config;
+
+import com.example.shardingdemo.migration.MigrationTarget;
+import org.apache.shardingsphere.driver.api.yaml.YamlShardingSphereDataSourceFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+
+/**
+ * migrate profile 专用：按 migration.target-config 建目标分片的 ShardingSphere 数据源。
+ * 同样不注册成 DataSource Bean，应用默认的 JdbcTemplate 仍然指向迁移源。
+ */
+@Configuration
+@Profile("migrate")
+public class MigrationConfig {
+
+    // 与 migration-target.yaml 里的 databaseName 一致。
+    private static final String TARGET_DATABASE = "migration_target";
+
+    @Bean(destroyMethod = "close")
+    public MigrationTarget migrationTarget(@Value("${migration.target-config}") Resource config) throws Exception {
+        try (InputStream in = config.getInputStream()) {
+            return new MigrationTarget(YamlShardingSphereDataSourceFactory.createDataSource(in.readAllBytes()), TARGET_DATABASE);
+        }
+    }
+}
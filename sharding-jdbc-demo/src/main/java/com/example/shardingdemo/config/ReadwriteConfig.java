@@ -0,0 +1,14 @@
+package com.example.shardingdemo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * readwrite profile 专用：复制延迟心跳探测需要定时调度。
+ */
+@Configuration
+@Profile("readwrite")
+@EnableScheduling
+public class ReadwriteConfig {
+}
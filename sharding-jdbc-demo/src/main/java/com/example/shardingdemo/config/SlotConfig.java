@@ -0,0 +1,32 @@
+package com.example.shardingdemo.config;
+
+import com.example.shardingdemo.slot.SlotMapRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * slot profile 专用：槽位配置表所在的元数据库，以及定时热加载映射所需的调度。
+ * 和号段表一样不注册 DataSource Bean。
+ */
+@Configuration
+@Profile("slot")
+@EnableScheduling
+public class SlotConfig {
+
+    @Bean(destroyMethod = "close")
+    public SlotMapRepository slotMapRepository(@Value("${slot.jdbc-url}") String jdbcUrl,
+                                               @Value("${slot.username:sa}") String username,
+                                               @Value("${slot.password:}") String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("slot-map");
+        dataSource.setJdbcUrl(jdbcUrl);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(2);
+        return new SlotMapRepository(dataSource);
+    }
+}
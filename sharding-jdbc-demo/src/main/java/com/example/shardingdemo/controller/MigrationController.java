@@ -0,0 +1,61 @@
+package com.example.shardingdemo.controller;
+
+import com.example.shardingdemo.migration.MigrationStatus;
+import com.example.shardingdemo.migration.OrderMigrationService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@Profile("migrate")
+@RequestMapping("/admin/migration")
+public class MigrationController {
+
+    private final OrderMigrationService orderMigrationService;
+
+    public MigrationController(OrderMigrationService orderMigrationService) {
+        this.orderMigrationService = orderMigrationService;
+    }
+
+    @GetMapping
+    public MigrationStatus status() {
+        return orderMigrationService.status();
+    }
+
+    @PostMapping("/start")
+    public MigrationStatus start() {
+        return orderMigrationService.start();
+    }
+
+    @PostMapping("/verify")
+    public MigrationStatus verify() {
+        return orderMigrationService.verify();
+    }
+
+    @PostMapping("/repair")
+    public MigrationStatus repair() {
+        return orderMigrationService.repair();
+    }
+
+    @PostMapping("/abort")
+    public MigrationStatus abort() {
+        return orderMigrationService.abort();
+    }
+
+    @PostMapping("/cutover")
+    public MigrationStatus cutover() {
+        return orderMigrationService.cutover();
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<Map<String, String>> conflict(IllegalStateException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", ex.getMessage()));
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.shardingdemo.controller;
 
 import com.example.shardingdemo.domain.Order;
+import com.example.shardingdemo.domain.OrderPage;
+import com.example.shardingdemo.domain.OrderWriteResult;
 import com.example.shardingdemo.service.OrderService;
+import com.example.shardingdemo.sharding.SlotFrozenException;
 import com.example.shardingdemo.trace.TraceIdHolder;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -13,7 +18,9 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/orders")
@@ -30,6 +37,15 @@ public class OrderController {
         return orderService.createOrder(request.getOrderId(), request.getUserId(), request.getAmount());
     }
 
+    @PostMapping("/batch")
+    public List<OrderWriteResult> createBatch(@RequestBody List<CreateOrderRequest> requests) {
+        List<Order> orders = new ArrayList<>(requests.size());
+        for (CreateOrderRequest request : requests) {
+            orders.add(new Order(request.getOrderId(), request.getUserId(), request.getAmount(), null, null));
+        }
+        return orderService.createOrders(orders);
+    }
+
     @GetMapping("/{orderId}")
     public ResponseEntity<Order> findById(@PathVariable long orderId) {
         return orderService.findById(orderId)
@@ -43,6 +59,14 @@ public class OrderController {
         return orderService.findByUserId(userId, limit);
     }
 
+    // 带 after 参数时走游标翻页，第一页传空值：/orders?userId=1&after=
+    @GetMapping(params = "after")
+    public OrderPage findPageByUserId(@RequestParam long userId,
+                                      @RequestParam(required = false) Long after,
+                                      @RequestParam(defaultValue = "10") int limit) {
+        return orderService.findPageByUserId(userId, after, limit);
+    }
+
     @GetMapping("/trace-demo")
     public String traceDemo() {
         String traceId = TraceIdHolder.get();
@@ -50,6 +74,17 @@ public class OrderController {
         return "traceId=" + traceId;
     }
 
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+    }
+
+    // 只有槽位迁移的写屏障映射成 409，其他 IllegalStateException 是服务端问题，仍按 500 处理。
+    @ExceptionHandler(SlotFrozenException.class)
+    public ResponseEntity<Map<String, String>> conflict(SlotFrozenException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", ex.getMessage()));
+    }
+
     public static class CreateOrderRequest {
         private Long orderId;
         private Long userId;
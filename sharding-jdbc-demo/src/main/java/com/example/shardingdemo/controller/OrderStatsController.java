@@ -0,0 +1,49 @@
+package com.example.shardingdemo.controller;
+
+import com.example.shardingdemo.stats.AggregateDimension;
+import com.example.shardingdemo.stats.OrderAggregate;
+import com.example.shardingdemo.stats.OrderAggregationService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/orders/stats")
+public class OrderStatsController {
+
+    private final OrderAggregationService orderAggregationService;
+
+    public OrderStatsController(OrderAggregationService orderAggregationService) {
+        this.orderAggregationService = orderAggregationService;
+    }
+
+    // 不传时间窗口时取截至当前分钟的最近 24 小时，同一分钟内的请求能命中缓存。
+    @GetMapping
+    public OrderAggregate aggregate(@RequestParam(defaultValue = "status") String by,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        AggregateDimension dimension;
+        try {
+            dimension = AggregateDimension.valueOf(by.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("不支持的聚合维度: " + by);
+        }
+        LocalDateTime end = to != null ? to : LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        LocalDateTime start = from != null ? from : end.minusDays(1);
+        return orderAggregationService.aggregate(dimension, start, end);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.shardingdemo.controller;
+
+import com.example.shardingdemo.sharding.SlotMap;
+import com.example.shardingdemo.slot.SlotMigrationReport;
+import com.example.shardingdemo.slot.SlotMigrationService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@Profile("slot")
+@RequestMapping("/admin/slots")
+public class SlotAdminController {
+
+    private final SlotMigrationService slotMigrationService;
+
+    public SlotAdminController(SlotMigrationService slotMigrationService) {
+        this.slotMigrationService = slotMigrationService;
+    }
+
+    @GetMapping
+    public Map<String, Integer> slotsPerNode() {
+        return SlotMap.current().slotsPerNode();
+    }
+
+    @PostMapping("/rebalance")
+    public SlotMigrationReport rebalance(@RequestBody RebalanceRequest request) {
+        return slotMigrationService.rebalance(request.getNodes());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<Map<String, String>> conflict(IllegalStateException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", ex.getMessage()));
+    }
+
+    public static class RebalanceRequest {
+        private List<String> nodes;
+
+        public RebalanceRequest() {
+        }
+
+        public List<String> getNodes() {
+            return nodes;
+        }
+
+        public void setNodes(List<String> nodes) {
+            this.nodes = nodes;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.shardingdemo.domain;
+
+import java.util.List;
+
+/**
+ * 按 order_id 倒序翻页的一页结果；nextCursor 为空表示已经到底，否则作为下一页的 after 传回。
+ */
+public class OrderPage {
+
+    private final List<Order> orders;
+    private final Long nextCursor;
+
+    public OrderPage(List<Order> orders, Long nextCursor) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Order> getOrders() {
+        return orders;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.shardingdemo.domain;
+
+/**
+ * 批量下单里单行的结果：成功时带落库节点（如 ds1.t_order_0），失败时带原因，互不影响。
+ */
+public class OrderWriteResult {
+
+    private final Long orderId;
+    private final String dataNode;
+    private final boolean success;
+    private final String error;
+
+    private OrderWriteResult(Long orderId, String dataNode, boolean success, String error) {
+        this.orderId = orderId;
+        this.dataNode = dataNode;
+        this.success = success;
+        this.error = error;
+    }
+
+    public static OrderWriteResult success(Long orderId, String dataNode) {
+        return new OrderWriteResult(orderId, dataNode, true, null);
+    }
+
+    public static OrderWriteResult failure(Long orderId, String dataNode, String error) {
+        return new OrderWriteResult(orderId, dataNode, false, error);
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public String getDataNode() {
+        return dataNode;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.shardingdemo.id;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Leaf 风格的号段发号器：每次从 id_segment 表领一段 [max_id - step, max_id)，在内存里自增发放。
+ * 当前号段用掉 10% 时异步预取下一段（双 buffer），当前段耗尽直接切换，热路径只有一次 CAS，不访问数据库。
+ * 多实例共享同一张表，UPDATE max_id = max_id + step 由行锁保证号段互不重叠，重启也不会回退。
+ */
+public class SegmentIdAllocator implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SegmentIdAllocator.class);
+    private static final int PREFETCH_PERCENT = 10;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String bizTag;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "id-segment-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final LongAdder segmentsFetched = new LongAdder();
+
+    private volatile Segment current;
+    private volatile CompletableFuture<Segment> next;
+
+    public SegmentIdAllocator(DataSource dataSource, String bizTag, long initialId, int step) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.bizTag = bizTag;
+        createTagIfAbsent(initialId, step);
+        this.current = fetchSegment();
+    }
+
+    public long nextId() {
+        while (true) {
+            Segment segment = current;
+            long id = segment.cursor.getAndIncrement();
+            if (id < segment.max) {
+                if (id == segment.prefetchAt) {
+                    prefetch(segment);
+                }
+                return id;
+            }
+            switchSegment(segment);
+        }
+    }
+
+    public long segmentsFetched() {
+        return segmentsFetched.sum();
+    }
+
+    private void prefetch(Segment segment) {
+        synchronized (this) {
+            if (current == segment && next == null) {
+                next = CompletableFuture.supplyAsync(this::fetchSegment, loader);
+            }
+        }
+    }
+
+    private synchronized void switchSegment(Segment exhausted) {
+        if (current != exhausted) {
+            return;
+        }
+        CompletableFuture<Segment> pending = next;
+        next = null;
+        Segment fresh = null;
+        if (pending != null) {
+            try {
+                fresh = pending.join();
+            } catch (RuntimeException ex) {
+                log.warn("预取号段失败，改为同步获取, bizTag={}", bizTag, ex);
+            }
+        }
+        current = fresh != null ? fresh : fetchSegment();
+    }
+
+    private Segment fetchSegment() {
+        Segment segment = transactionTemplate.execute(status -> {
+            jdbcTemplate.update("UPDATE id_segment SET max_id = max_id + step, updated_at = ? WHERE biz_tag = ?",
+                    Timestamp.from(Instant.now()), bizTag);
+            return jdbcTemplate.queryForObject("SELECT max_id, step FROM id_segment WHERE biz_tag = ?",
+                    (rs, rowNum) -> new Segment(rs.getLong("max_id") - rs.getInt("step"), rs.getLong("max_id")), bizTag);
+        });
+        segmentsFetched.increment();
+        return segment;
+    }
+
+    private void createTagIfAbsent(long initialId, int step) {
+        try {
+            jdbcTemplate.update("INSERT INTO id_segment (biz_tag, max_id, step, updated_at) VALUES (?, ?, ?, ?)",
+                    bizTag, initialId, step, Timestamp.from(Instant.now()));
+        } catch (DuplicateKeyException ignored) {
+            // 其他实例或上次启动已经建好。
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        loader.shutdownNow();
+        if (dataSource instanceof AutoCloseable) {
+            ((AutoCloseable) dataSource).close();
+        }
+    }
+
+    private static final class Segment {
+        private final AtomicLong cursor;
+        private final long max;
+        private final long prefetchAt;
+
+        private Segment(long start, long max) {
+            this.cursor = new AtomicLong(start);
+            this.max = max;
+            this.prefetchAt = start + Math.max(1, (max - start) * PREFETCH_PERCENT / 100);
+        }
+    }
+}
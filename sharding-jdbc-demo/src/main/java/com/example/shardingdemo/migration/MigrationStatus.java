@@ -0,0 +1,81 @@
+package com.example.shardingdemo.migration;
+
+import java.util.List;
+
+public class MigrationStatus {
+
+    private final String state;
+    private final MigrationSwitch.Phase phase;
+    private final long copiedRows;
+    private final long copyMillis;
+    private final long dualWriteFailures;
+    private final List<ShardProgress> shards;
+    private final List<ShardChecksum> verification;
+
+    public MigrationStatus(String state, MigrationSwitch.Phase phase, long copiedRows, long copyMillis,
+                           long dualWriteFailures, List<ShardProgress> shards, List<ShardChecksum> verification) {
+        this.state = state;
+        this.phase = phase;
+        this.copiedRows = copiedRows;
+        this.copyMillis = copyMillis;
+        this.dualWriteFailures = dualWriteFailures;
+        this.shards = shards;
+        this.verification = verification;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public MigrationSwitch.Phase getPhase() {
+        return phase;
+    }
+
+    public long getCopiedRows() {
+        return copiedRows;
+    }
+
+    public long getCopyMillis() {
+        return copyMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return copyMillis == 0 ? 0 : copiedRows * 1000.0 / copyMillis;
+    }
+
+    public long getDualWriteFailures() {
+        return dualWriteFailures;
+    }
+
+    public List<ShardProgress> getShards() {
+        return shards;
+    }
+
+    public List<ShardChecksum> getVerification() {
+        return verification;
+    }
+
+    public static class ShardProgress {
+        private final String node;
+        private final long copiedRows;
+        private final boolean done;
+
+        public ShardProgress(String node, long copiedRows, boolean done) {
+            this.node = node;
+            this.copiedRows = copiedRows;
+            this.done = done;
+        }
+
+        public String getNode() {
+            return node;
+        }
+
+        public long getCopiedRows() {
+            return copiedRows;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+    }
+}
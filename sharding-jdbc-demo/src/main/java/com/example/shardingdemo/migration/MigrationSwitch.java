@@ -0,0 +1,65 @@
+package com.example.shardingdemo.migration;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OrderRepository 读写走哪套分片的开关：
+ * IDLE 只写旧分片；DUAL_WRITE 读旧分片、写旧分片后再按新规则 upsert 一份；CUT_OVER 读写都只走新分片。
+ * 没有启用迁移（非 migrate profile）时一直是 IDLE。
+ */
+@Component
+public class MigrationSwitch {
+
+    public enum Phase {
+        IDLE, DUAL_WRITE, CUT_OVER
+    }
+
+    private volatile Phase phase = Phase.IDLE;
+    private volatile MigrationTarget target;
+    private final AtomicLong dualWriteFailures = new AtomicLong();
+
+    public Phase phase() {
+        return phase;
+    }
+
+    public MigrationTarget target() {
+        return target;
+    }
+
+    public long dualWriteFailures() {
+        return dualWriteFailures.get();
+    }
+
+    void startDualWrite(MigrationTarget target) {
+        this.target = target;
+        this.phase = Phase.DUAL_WRITE;
+    }
+
+    /**
+     * 中止迁移：停掉双写、清零失败计数。新分片上已经写入的行不动，重新开始时由 upsert 覆盖。
+     */
+    void stopDualWrite() {
+        if (phase == Phase.CUT_OVER) {
+            throw new IllegalStateException("已经切换到新分片，不能中止");
+        }
+        this.phase = Phase.IDLE;
+        dualWriteFailures.set(0);
+    }
+
+    void cutOver() {
+        if (phase != Phase.DUAL_WRITE) {
+            throw new IllegalStateException("只能从双写阶段切换");
+        }
+        this.phase = Phase.CUT_OVER;
+    }
+
+    public void recordDualWriteFailure() {
+        dualWriteFailures.incrementAndGet();
+    }
+
+    void resetDualWriteFailures() {
+        dualWriteFailures.set(0);
+    }
+}
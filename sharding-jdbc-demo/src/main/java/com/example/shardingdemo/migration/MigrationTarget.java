@@ -0,0 +1,73 @@
+package com.example.shardingdemo.migration;
+
+import com.example.shardingdemo.sharding.DataNodeRouter;
+import com.example.shardingdemo.sharding.PhysicalDataSources;
+import org.apache.shardingsphere.infra.datanode.DataNode;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 迁移目标分片：一个独立的 ShardingSphere 数据源（逻辑读写用）加上它的真实数据源和预路由器（批量复制用）。
+ */
+public class MigrationTarget implements AutoCloseable {
+
+    private static final String UPSERT = " (order_id, user_id, amount, status, created_at) VALUES (?, ?, ?, ?, ?)"
+            + " ON DUPLICATE KEY UPDATE amount = VALUES(amount), status = VALUES(status), created_at = VALUES(created_at)";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final PhysicalDataSources physicalDataSources;
+    private final DataNodeRouter router;
+
+    public MigrationTarget(DataSource dataSource, String databaseName) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.physicalDataSources = new PhysicalDataSources(dataSource, databaseName);
+        this.router = physicalDataSources.router("t_order");
+    }
+
+    public JdbcTemplate jdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    public PhysicalDataSources physicalDataSources() {
+        return physicalDataSources;
+    }
+
+    public DataNodeRouter router() {
+        return router;
+    }
+
+    public DataNode route(long orderId, long userId) {
+        Map<String, Comparable<?>> keys = new HashMap<>();
+        keys.put("order_id", orderId);
+        keys.put("user_id", userId);
+        return router.route(keys);
+    }
+
+    /**
+     * 按新规则预路由后直接写真实表，同一节点的行合成一个 JDBC batch。
+     * 行格式为 {order_id, user_id, amount, status, created_at}；复制和双写都用 upsert，谁先到都不会丢更新。
+     */
+    public void upsert(List<Object[]> rows) {
+        Map<DataNode, List<Object[]>> groups = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            groups.computeIfAbsent(route((Long) row[0], (Long) row[1]), k -> new ArrayList<>()).add(row);
+        }
+        groups.forEach((node, group) -> new JdbcTemplate(physicalDataSources.get(node.getDataSourceName()))
+                .batchUpdate("INSERT INTO " + node.getTableName() + UPSERT, group));
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (dataSource instanceof AutoCloseable) {
+            ((AutoCloseable) dataSource).close();
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.shardingdemo.migration;
+
+import com.example.shardingdemo.sharding.PhysicalDataSources;
+import org.apache.shardingsphere.infra.datanode.DataNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * t_order 从当前分片（迁移源）在线迁到 migration-target.yaml 描述的新分片：
+ * <ol>
+ *     <li>start：先打开双写，再按源分片并行复制，每个分片用 order_id keyset 分批读，按目标节点分组批量 upsert；</li>
+ *     <li>verify：以启动校验时的最大 order_id 为水位，源、目标两边按目标节点算行数和校验和；</li>
+ *     <li>repair：校验不一致的目标节点（双写有失败时是全部目标节点）清空后从源端重新复制，之后需要重新校验；</li>
+ *     <li>cutover：校验全部一致且双写没有失败时，把读写切到新分片。</li>
+ * </ol>
+ * 复制和双写都经 {@link MigrationTarget#upsert} 写新分片，先后顺序不影响结果。
+ * 切换前任何阶段都可以 abort：停掉双写、清空进度回到 IDLE，正在跑的复制任务在下一批前退出。
+ */
+@Service
+@Profile("migrate")
+public class OrderMigrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderMigrationService.class);
+    private static final String COLUMNS = "order_id, user_id, amount, status, created_at";
+
+    private final PhysicalDataSources source;
+    private final MigrationTarget target;
+    private final MigrationSwitch migrationSwitch;
+    private final int threads;
+    private final int batchSize;
+    private final long pauseMillis;
+
+    private final Map<String, AtomicLong> copied = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Set<String> finished = ConcurrentHashMap.newKeySet();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile String state = "IDLE";
+    private volatile long copyStartedAt;
+    private volatile long copyFinishedAt;
+    private volatile List<ShardChecksum> verification = Collections.emptyList();
+
+    public OrderMigrationService(PhysicalDataSources source,
+                                 MigrationTarget target,
+                                 MigrationSwitch migrationSwitch,
+                                 @Value("${migration.copy.threads:2}") int threads,
+                                 @Value("${migration.copy.batch-size:500}") int batchSize,
+                                 @Value("${migration.copy.pause-ms:0}") long pauseMillis) {
+        this.source = source;
+        this.target = target;
+        this.migrationSwitch = migrationSwitch;
+        this.threads = threads;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    public synchronized MigrationStatus start() {
+        if (!"IDLE".equals(state)) {
+            throw new IllegalStateException("迁移已经启动: " + state);
+        }
+        migrationSwitch.startDualWrite(target);
+        launchCopy("COPYING", null);
+        return status();
+    }
+
+    /**
+     * 目标节点的数据清空后重新复制。双写仍在进行：清空之后的新写入由双写补上，清空之前的写入已经在源端，由复制补上。
+     * 失败计数在扫描源端之前清零，修复期间再出现的双写失败会重新计数。
+     */
+    public synchronized MigrationStatus repair() {
+        if (!"COPIED".equals(state) && !"VERIFIED".equals(state)) {
+            throw new IllegalStateException("复制完成后才能修复: " + state);
+        }
+        Set<String> nodes = new LinkedHashSet<>();
+        for (ShardChecksum checksum : verification) {
+            if (!checksum.isMatched()) {
+                nodes.add(checksum.getNode());
+            }
+        }
+        if (migrationSwitch.dualWriteFailures() > 0) {
+            target.router().dataNodes().forEach(node -> nodes.add(node.format()));
+        }
+        if (nodes.isEmpty()) {
+            throw new IllegalStateException("校验一致且双写没有失败，无需修复");
+        }
+        migrationSwitch.resetDualWriteFailures();
+        for (DataNode node : target.router().dataNodes()) {
+            if (nodes.contains(node.format())) {
+                new JdbcTemplate(target.physicalDataSources().get(node.getDataSourceName())).update("DELETE FROM " + node.getTableName());
+            }
+        }
+        log.info("order migration repairing {}", nodes);
+        launchCopy("REPAIRING", nodes);
+        return status();
+    }
+
+    public synchronized MigrationStatus abort() {
+        migrationSwitch.stopDualWrite();
+        generation.incrementAndGet();
+        state = "IDLE";
+        synchronized (copied) {
+            copied.clear();
+        }
+        finished.clear();
+        copyStartedAt = 0;
+        copyFinishedAt = 0;
+        verification = Collections.emptyList();
+        log.info("order migration aborted");
+        return status();
+    }
+
+    /**
+     * 按源分片并行复制；targetNodes 不为空时只复制路由到这些目标节点的行。
+     */
+    private void launchCopy(String runningState, Set<String> targetNodes) {
+        long run = generation.incrementAndGet();
+        state = runningState;
+        synchronized (copied) {
+            copied.clear();
+        }
+        finished.clear();
+        verification = Collections.emptyList();
+        copyStartedAt = System.currentTimeMillis();
+        copyFinishedAt = 0;
+        List<DataNode> shards = source.router("t_order").dataNodes();
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "migration-copy-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (DataNode shard : shards) {
+            copied.put(shard.format(), new AtomicLong());
+            tasks.add(CompletableFuture.runAsync(() -> copyShard(shard, targetNodes, run), executor));
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).whenComplete((ignored, ex) -> {
+            executor.shutdown();
+            synchronized (this) {
+                if (run != generation.get()) {
+                    return;
+                }
+                copyFinishedAt = System.currentTimeMillis();
+                if (ex != null) {
+                    log.error("order migration copy failed", ex);
+                    state = "FAILED";
+                } else {
+                    state = "COPIED";
+                    log.info("order migration copied {} rows in {} ms", copiedRows(), copyFinishedAt - copyStartedAt);
+                }
+            }
+        });
+    }
+
+    public synchronized MigrationStatus verify() {
+        if (!"COPIED".equals(state) && !"VERIFIED".equals(state)) {
+            throw new IllegalStateException("复制完成后才能校验: " + state);
+        }
+        long highWater = Long.MIN_VALUE;
+        for (DataNode shard : source.router("t_order").dataNodes()) {
+            Long max = sourceTemplate(shard).queryForObject("SELECT MAX(order_id) FROM " + shard.getTableName(), Long.class);
+            highWater = Math.max(highWater, max == null ? Long.MIN_VALUE : max);
+        }
+        Map<String, ShardChecksum> result = new LinkedHashMap<>();
+        for (DataNode node : target.router().dataNodes()) {
+            result.put(node.format(), new ShardChecksum(node.format()));
+        }
+        for (DataNode shard : source.router("t_order").dataNodes()) {
+            scan(sourceTemplate(shard), shard.getTableName(), highWater, rows -> {
+                for (Object[] row : rows) {
+                    result.get(target.route((Long) row[0], (Long) row[1]).format()).addExpected(checksum(row));
+                }
+            });
+        }
+        for (DataNode node : target.router().dataNodes()) {
+            JdbcTemplate template = new JdbcTemplate(target.physicalDataSources().get(node.getDataSourceName()));
+            scan(template, node.getTableName(), highWater, rows -> {
+                for (Object[] row : rows) {
+                    result.get(node.format()).addActual(checksum(row));
+                }
+            });
+        }
+        verification = new ArrayList<>(result.values());
+        boolean matched = verification.stream().allMatch(ShardChecksum::isMatched);
+        state = matched ? "VERIFIED" : "COPIED";
+        log.info("order migration verification up to order_id {}: {}", highWater, matched ? "matched" : "MISMATCH");
+        return status();
+    }
+
+    public synchronized MigrationStatus cutover() {
+        if (!"VERIFIED".equals(state)) {
+            throw new IllegalStateException("校验通过后才能切换: " + state);
+        }
+        if (migrationSwitch.dualWriteFailures() > 0) {
+            throw new IllegalStateException("双写有失败记录，需要补数据并重新校验");
+        }
+        migrationSwitch.cutOver();
+        state = "CUT_OVER";
+        return status();
+    }
+
+    public MigrationStatus status() {
+        List<MigrationStatus.ShardProgress> shards = new ArrayList<>();
+        synchronized (copied) {
+            copied.forEach((node, rows) -> shards.add(new MigrationStatus.ShardProgress(node, rows.get(), finished.contains(node))));
+        }
+        long end = copyFinishedAt > 0 ? copyFinishedAt : System.currentTimeMillis();
+        long copyMillis = copyStartedAt > 0 ? end - copyStartedAt : 0;
+        return new MigrationStatus(state, migrationSwitch.phase(), copiedRows(), copyMillis,
+                migrationSwitch.dualWriteFailures(), shards, verification);
+    }
+
+    private void copyShard(DataNode shard, Set<String> targetNodes, long run) {
+        AtomicLong progress = copied.get(shard.format());
+        scan(sourceTemplate(shard), shard.getTableName(), Long.MAX_VALUE, rows -> {
+            if (run != generation.get()) {
+                throw new IllegalStateException("迁移已中止");
+            }
+            List<Object[]> selected = rows;
+            if (targetNodes != null) {
+                selected = new ArrayList<>();
+                for (Object[] row : rows) {
+                    if (targetNodes.contains(target.route((Long) row[0], (Long) row[1]).format())) {
+                        selected.add(row);
+                    }
+                }
+            }
+            if (!selected.isEmpty()) {
+                target.upsert(selected);
+            }
+            progress.addAndGet(selected.size());
+            if (pauseMillis > 0) {
+                try {
+                    Thread.sleep(pauseMillis);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("迁移被中断", ex);
+                }
+            }
+        });
+        finished.add(shard.format());
+    }
+
+    /**
+     * order_id keyset 分批扫描一张物理表，内存里最多只有一批。
+     */
+    private void scan(JdbcTemplate template, String table, long maxOrderId, Consumer<List<Object[]>> consumer) {
+        String sql = "SELECT " + COLUMNS + " FROM " + table + " WHERE order_id > ? AND order_id <= ? ORDER BY order_id LIMIT ?";
+        long cursor = Long.MIN_VALUE;
+        while (true) {
+            List<Object[]> rows = template.query(sql, (rs, rowNum) -> new Object[]{
+                    rs.getLong(1), rs.getLong(2), rs.getBigDecimal(3), rs.getString(4), rs.getTimestamp(5)
+            }, cursor, maxOrderId, batchSize);
+            if (rows.isEmpty()) {
+                return;
+            }
+            consumer.accept(rows);
+            if (rows.size() < batchSize) {
+                return;
+            }
+            cursor = (long) rows.get(rows.size() - 1)[0];
+        }
+    }
+
+    private JdbcTemplate sourceTemplate(DataNode shard) {
+        return new JdbcTemplate(source.get(shard.getDataSourceName()));
+    }
+
+    private static long checksum(Object[] row) {
+        return ShardChecksum.rowChecksum((Long) row[0], (Long) row[1], (BigDecimal) row[2], (String) row[3], (Timestamp) row[4]);
+    }
+
+    private long copiedRows() {
+        synchronized (copied) {
+            return copied.values().stream().mapToLong(AtomicLong::get).sum();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.shardingdemo.migration;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.zip.CRC32;
+
+/**
+ * 单个目标分片的校验结果：行数加上逐行 CRC32 之和（与行顺序无关），源端按目标路由累加，目标端直接扫表累加。
+ */
+public class ShardChecksum {
+
+    private final String node;
+    private long expectedRows;
+    private long expectedChecksum;
+    private long actualRows;
+    private long actualChecksum;
+
+    public ShardChecksum(String node) {
+        this.node = node;
+    }
+
+    public static long rowChecksum(long orderId, long userId, BigDecimal amount, String status, Timestamp createdAt) {
+        CRC32 crc = new CRC32();
+        String text = orderId + "|" + userId + "|" + amount.toPlainString() + "|" + status + "|" + createdAt.getTime();
+        crc.update(text.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    void addExpected(long checksum) {
+        expectedRows++;
+        expectedChecksum += checksum;
+    }
+
+    void addActual(long checksum) {
+        actualRows++;
+        actualChecksum += checksum;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public long getExpectedRows() {
+        return expectedRows;
+    }
+
+    public long getExpectedChecksum() {
+        return expectedChecksum;
+    }
+
+    public long getActualRows() {
+        return actualRows;
+    }
+
+    public long getActualChecksum() {
+        return actualChecksum;
+    }
+
+    public boolean isMatched() {
+        return expectedRows == actualRows && expectedChecksum == actualChecksum;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.shardingdemo.readwrite;
+
+import org.apache.shardingsphere.infra.context.transaction.TransactionConnectionContext;
+import org.apache.shardingsphere.readwritesplitting.spi.ReadQueryLoadBalanceAlgorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 读负载均衡 SPI（type = LAG_AWARE）：
+ * <ul>
+ *     <li>当前 trace 在 read-your-writes-ms 内写过，直接读主库；</li>
+ *     <li>复制延迟超过 max-lag-ms 或读不到心跳的从库不参与；</li>
+ *     <li>其余从库按观测到的查询延迟倒数加权随机，没有样本的从库按已知从库的平均延迟计；</li>
+ *     <li>所有从库都不可用时退回主库。</li>
+ * </ul>
+ */
+public final class LagAwareReadQueryLoadBalanceAlgorithm implements ReadQueryLoadBalanceAlgorithm {
+
+    // 延迟下限，避免某个从库偶尔极快时把权重全部吸走。
+    private static final double MIN_LATENCY_MICROS = 50;
+
+    private Properties props = new Properties();
+    private long maxLagMillis;
+    private long readYourWritesMillis;
+
+    @Override
+    public void init(Properties props) {
+        this.props = props;
+        this.maxLagMillis = Long.parseLong(props.getProperty("max-lag-ms", "1000"));
+        this.readYourWritesMillis = Long.parseLong(props.getProperty("read-your-writes-ms", "2000"));
+    }
+
+    @Override
+    public String getDataSource(String name, String writeDataSourceName, List<String> readDataSourceNames,
+                                TransactionConnectionContext context) {
+        if (ReadYourWrites.writtenWithin(readYourWritesMillis)) {
+            return writeDataSourceName;
+        }
+        List<String> candidates = new ArrayList<>(readDataSourceNames.size());
+        for (String replica : readDataSourceNames) {
+            long lag = ReplicaHealth.lagMillis(replica);
+            if (lag == ReplicaHealth.LAG_UNKNOWN || lag <= maxLagMillis) {
+                candidates.add(replica);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return writeDataSourceName;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        double[] latencies = new double[candidates.size()];
+        double known = 0;
+        int sampled = 0;
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = ReplicaHealth.latencyMicros(candidates.get(i));
+            if (latencies[i] > 0) {
+                known += latencies[i];
+                sampled++;
+            }
+        }
+        double fallback = sampled == 0 ? MIN_LATENCY_MICROS : known / sampled;
+        double[] weights = new double[latencies.length];
+        double total = 0;
+        for (int i = 0; i < latencies.length; i++) {
+            weights[i] = 1 / Math.max(MIN_LATENCY_MICROS, latencies[i] > 0 ? latencies[i] : fallback);
+            total += weights[i];
+        }
+        double pick = ThreadLocalRandom.current().nextDouble(total);
+        for (int i = 0; i < weights.length; i++) {
+            pick -= weights[i];
+            if (pick < 0) {
+                return candidates.get(i);
+            }
+        }
+        return candidates.get(candidates.size() - 1);
+    }
+
+    @Override
+    public String getType() {
+        return "LAG_AWARE";
+    }
+
+    @Override
+    public Properties getProps() {
+        return props;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.shardingdemo.readwrite;
+
+import com.example.shardingdemo.trace.TraceIdHolder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按 traceId 记录最近一次写入的时间，负载均衡算法据此把同一 trace 刚写过之后的读路由到主库。
+ * 没有 traceId（不在请求链路里）时不记录；没有启用读写分离（{@link ReadYourWritesPurger} 未加载）时也不记录，
+ * 过期记录由它定时清理，写入路径上只做一次 put。
+ */
+public final class ReadYourWrites {
+
+    private static final long RETENTION_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final Map<String, Long> LAST_WRITE = new ConcurrentHashMap<>();
+    private static volatile boolean enabled;
+
+    private ReadYourWrites() {
+    }
+
+    static void enable() {
+        enabled = true;
+    }
+
+    public static void markWrite() {
+        if (!enabled) {
+            return;
+        }
+        String traceId = TraceIdHolder.get();
+        if (traceId == null) {
+            return;
+        }
+        LAST_WRITE.put(traceId, System.nanoTime());
+    }
+
+    /**
+     * 删掉超过保留期的记录，返回删除的条数。
+     */
+    static int purgeExpired() {
+        long now = System.nanoTime();
+        int before = LAST_WRITE.size();
+        LAST_WRITE.values().removeIf(writtenAt -> now - writtenAt > RETENTION_NANOS);
+        return before - LAST_WRITE.size();
+    }
+
+    public static boolean writtenWithin(long millis) {
+        String traceId = TraceIdHolder.get();
+        if (traceId == null) {
+            return false;
+        }
+        Long writtenAt = LAST_WRITE.get(traceId);
+        return writtenAt != null && System.nanoTime() - writtenAt < TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
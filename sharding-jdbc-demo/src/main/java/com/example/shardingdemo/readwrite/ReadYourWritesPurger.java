@@ -0,0 +1,22 @@
+package com.example.shardingdemo.readwrite;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 读写分离 profile 下启用读己之写记录，并定时清掉过期的 trace，表的大小只和保留期内的写入 trace 数有关。
+ */
+@Component
+@Profile("readwrite")
+public class ReadYourWritesPurger {
+
+    public ReadYourWritesPurger() {
+        ReadYourWrites.enable();
+    }
+
+    @Scheduled(fixedDelayString = "${replica.read-your-writes-purge-ms:10000}")
+    public void purge() {
+        ReadYourWrites.purgeExpired();
+    }
+}
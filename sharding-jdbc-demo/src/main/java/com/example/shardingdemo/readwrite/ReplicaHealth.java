@@ -0,0 +1,71 @@
+package com.example.shardingdemo.readwrite;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 各真实数据源的健康度：读 SQL 的延迟（指数滑动平均，由 {@link ReplicaLatencyHook} 采集）和复制延迟（由 {@link ReplicaHeartbeatProbe} 探测）。
+ * 负载均衡算法由 ShardingSphere 通过 SPI 实例化，拿不到 Spring Bean，所以这里是静态的。
+ */
+public final class ReplicaHealth {
+
+    /** 还没探测过复制延迟。 */
+    public static final long LAG_UNKNOWN = -1;
+    /** 从库上读不到心跳，视为无限延迟。 */
+    public static final long LAG_UNREACHABLE = Long.MAX_VALUE;
+
+    private static final double ALPHA = 0.2;
+    private static final Map<String, Stats> STATS = new ConcurrentHashMap<>();
+    private static volatile Set<String> tracked = Collections.emptySet();
+
+    private ReplicaHealth() {
+    }
+
+    /**
+     * 登记读写分离组里的主库和从库；执行钩子只对这些数据源采样，其他 profile 下为空，钩子什么都不做。
+     */
+    public static void track(Collection<String> dataSources) {
+        Set<String> merged = new HashSet<>(tracked);
+        merged.addAll(dataSources);
+        tracked = Collections.unmodifiableSet(merged);
+    }
+
+    public static boolean isTracked(String dataSource) {
+        return tracked.contains(dataSource);
+    }
+
+    public static void recordLatency(String dataSource, long nanos) {
+        Stats stats = STATS.computeIfAbsent(dataSource, k -> new Stats());
+        synchronized (stats) {
+            stats.latencyMicros = stats.samples == 0 ? nanos / 1000.0 : stats.latencyMicros + ALPHA * (nanos / 1000.0 - stats.latencyMicros);
+            stats.samples++;
+        }
+    }
+
+    public static void updateLag(String dataSource, long lagMillis) {
+        STATS.computeIfAbsent(dataSource, k -> new Stats()).lagMillis = lagMillis;
+    }
+
+    /**
+     * 没有样本时返回 0。
+     */
+    public static double latencyMicros(String dataSource) {
+        Stats stats = STATS.get(dataSource);
+        return stats == null ? 0 : stats.latencyMicros;
+    }
+
+    public static long lagMillis(String dataSource) {
+        Stats stats = STATS.get(dataSource);
+        return stats == null ? LAG_UNKNOWN : stats.lagMillis;
+    }
+
+    private static final class Stats {
+        private double latencyMicros;
+        private long samples;
+        private volatile long lagMillis = LAG_UNKNOWN;
+    }
+}
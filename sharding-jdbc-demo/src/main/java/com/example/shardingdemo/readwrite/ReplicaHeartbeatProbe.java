@@ -0,0 +1,69 @@
+package com.example.shardingdemo.readwrite;
+
+import com.example.shardingdemo.sharding.PhysicalDataSources;
+import org.apache.shardingsphere.readwritesplitting.rule.ReadwriteSplittingDataSourceRule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 复制延迟探测：定时往每组的写库写一条心跳（当前毫秒数），再从每个从库读回来，
+ * 延迟 = 刚写入的心跳 - 从库上的心跳。从库上没有心跳表或读失败时记为不可达。
+ * 心跳表不在分片规则里，直接经真实数据源读写。
+ */
+@Component
+@Profile("readwrite")
+public class ReplicaHeartbeatProbe {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaHeartbeatProbe.class);
+
+    private final PhysicalDataSources physicalDataSources;
+
+    public ReplicaHeartbeatProbe(PhysicalDataSources physicalDataSources) {
+        this.physicalDataSources = physicalDataSources;
+        for (ReadwriteSplittingDataSourceRule group : physicalDataSources.readwriteGroups()) {
+            List<String> members = new ArrayList<>(group.getReadwriteSplittingStrategy().getReadDataSources());
+            members.add(group.getWriteDataSource());
+            ReplicaHealth.track(members);
+            template(group.getWriteDataSource()).execute(
+                    "CREATE TABLE IF NOT EXISTS replica_heartbeat (id INT NOT NULL PRIMARY KEY, beat_at BIGINT NOT NULL)");
+        }
+        probe();
+    }
+
+    @Scheduled(fixedDelayString = "${replica.heartbeat-interval-ms:500}")
+    public void probe() {
+        for (ReadwriteSplittingDataSourceRule group : physicalDataSources.readwriteGroups()) {
+            long beat = System.currentTimeMillis();
+            template(group.getWriteDataSource()).update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, ?) ON DUPLICATE KEY UPDATE beat_at = VALUES(beat_at)", beat);
+            for (String replica : group.getReadwriteSplittingStrategy().getReadDataSources()) {
+                long lag = lagOf(replica, beat);
+                long previous = ReplicaHealth.lagMillis(replica);
+                ReplicaHealth.updateLag(replica, lag);
+                if ((previous == ReplicaHealth.LAG_UNREACHABLE) != (lag == ReplicaHealth.LAG_UNREACHABLE)) {
+                    log.info("replica {} is {}", replica, lag == ReplicaHealth.LAG_UNREACHABLE ? "unreachable" : "back, lag " + lag + " ms");
+                }
+            }
+        }
+    }
+
+    private long lagOf(String replica, long beat) {
+        try {
+            List<Long> beats = template(replica).queryForList("SELECT beat_at FROM replica_heartbeat WHERE id = 1", Long.class);
+            return beats.isEmpty() ? ReplicaHealth.LAG_UNREACHABLE : Math.max(0, beat - beats.get(0));
+        } catch (DataAccessException ex) {
+            return ReplicaHealth.LAG_UNREACHABLE;
+        }
+    }
+
+    private JdbcTemplate template(String dataSourceName) {
+        return new JdbcTemplate(physicalDataSources.get(dataSourceName));
+    }
+}
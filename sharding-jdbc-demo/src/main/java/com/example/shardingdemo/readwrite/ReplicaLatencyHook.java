@@ -0,0 +1,51 @@
+package com.example.shardingdemo.readwrite;
+
+import org.apache.shardingsphere.infra.database.metadata.DataSourceMetaData;
+import org.apache.shardingsphere.infra.executor.sql.hook.SQLExecutionHook;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ShardingSphere 每执行一条真实 SQL 都会新建一个 hook 实例：
+ * 查询记录所在数据源的耗时，写入标记当前 trace 刚写过（读己之写）。
+ * 钩子经 SPI 注册，所有 profile 都会加载，只对 {@link ReplicaHealth#track} 登记过的读写分离数据源生效。
+ */
+public final class ReplicaLatencyHook implements SQLExecutionHook {
+
+    private boolean tracked;
+    private String dataSourceName;
+    private boolean query;
+    private long startNanos;
+
+    @Override
+    public void start(String dataSourceName, String sql, List<Object> params, DataSourceMetaData dataSourceMetaData,
+                      boolean isTrunkThread, Map<String, Object> shardingExecuteDataMap) {
+        this.tracked = ReplicaHealth.isTracked(dataSourceName);
+        if (!tracked) {
+            return;
+        }
+        this.dataSourceName = dataSourceName;
+        this.query = sql.trim().regionMatches(true, 0, "SELECT", 0, 6);
+        this.startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void finishSuccess() {
+        if (!tracked) {
+            return;
+        }
+        if (query) {
+            ReplicaHealth.recordLatency(dataSourceName, System.nanoTime() - startNanos);
+        } else {
+            ReadYourWrites.markWrite();
+        }
+    }
+
+    @Override
+    public void finishFailure(Exception cause) {
+        if (tracked && !query) {
+            ReadYourWrites.markWrite();
+        }
+    }
+}
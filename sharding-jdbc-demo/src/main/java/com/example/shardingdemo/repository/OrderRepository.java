@@ -1,20 +1,45 @@
 package com.example.shardingdemo.repository;
 
 import com.example.shardingdemo.domain.Order;
+import com.example.shardingdemo.domain.OrderWriteResult;
+import com.example.shardingdemo.migration.MigrationSwitch;
+import com.example.shardingdemo.migration.MigrationTarget;
+import com.example.shardingdemo.readwrite.ReadYourWrites;
+import com.example.shardingdemo.sharding.DataNodeRouter;
+import com.example.shardingdemo.sharding.PhysicalDataSources;
+import com.example.shardingdemo.sharding.SlotMap;
+import org.apache.shardingsphere.infra.datanode.DataNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Repository
 public class OrderRepository {
 
+    private static final Logger log = LoggerFactory.getLogger(OrderRepository.class);
+
     private static final RowMapper<Order> ORDER_ROW_MAPPER = new RowMapper<Order>() {
         @Override
         public Order mapRow(ResultSet rs, int rowNum) throws SQLException {
@@ -28,35 +53,177 @@ public class OrderRepository {
         }
     };
 
+    private static final String INSERT_COLUMNS = " (order_id, user_id, amount, status, created_at) VALUES (?, ?, ?, ?, ?)";
+
     private final JdbcTemplate jdbcTemplate;
+    private final MigrationSwitch migrationSwitch;
+    private final PhysicalDataSources physicalDataSources;
+    private final Executor shardExecutor;
 
-    public OrderRepository(JdbcTemplate jdbcTemplate) {
+    public OrderRepository(JdbcTemplate jdbcTemplate,
+                           MigrationSwitch migrationSwitch,
+                           PhysicalDataSources physicalDataSources,
+                           @Qualifier("shardExecutor") Executor shardExecutor) {
         this.jdbcTemplate = jdbcTemplate;
+        this.migrationSwitch = migrationSwitch;
+        this.physicalDataSources = physicalDataSources;
+        this.shardExecutor = shardExecutor;
     }
 
     public void insert(Order order) {
-        String sql = "INSERT INTO t_order (order_id, user_id, amount, status, created_at) VALUES (?, ?, ?, ?, ?)";
-        jdbcTemplate.update(sql,
+        String sql = "INSERT INTO t_order" + INSERT_COLUMNS;
+        SlotMap.checkWritable(order.getUserId());
+        MigrationSwitch.Phase phase = migrationSwitch.phase();
+        JdbcTemplate primary = phase == MigrationSwitch.Phase.CUT_OVER ? migrationSwitch.target().jdbcTemplate() : jdbcTemplate;
+        primary.update(sql, row(order));
+        if (phase == MigrationSwitch.Phase.DUAL_WRITE) {
+            dualWrite(migrationSwitch.target(), Collections.singletonList(order));
+        }
+    }
+
+    /**
+     * 批量写入：先用当前分片规则在应用内预路由，按真实节点分组，每个数据源一个任务并行写，
+     * 同一张真实表的行合成一个 JDBC batch，跳过 ShardingSphere 对每条 INSERT 的解析和路由。
+     * 每行单独提交，返回结果与入参一一对应，某一行失败（如主键冲突）不影响其他行。
+     */
+    public List<OrderWriteResult> insertBatch(List<Order> orders) {
+        MigrationSwitch.Phase phase = migrationSwitch.phase();
+        boolean cutOver = phase == MigrationSwitch.Phase.CUT_OVER;
+        DataNodeRouter router = cutOver ? migrationSwitch.target().router() : physicalDataSources.router("t_order");
+        PhysicalDataSources dataSources = cutOver ? migrationSwitch.target().physicalDataSources() : physicalDataSources;
+
+        OrderWriteResult[] results = new OrderWriteResult[orders.size()];
+        Map<String, Map<DataNode, List<Integer>>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            try {
+                SlotMap.checkWritable(order.getUserId());
+                Map<String, Comparable<?>> keys = new HashMap<>();
+                keys.put("order_id", order.getOrderId());
+                keys.put("user_id", order.getUserId());
+                DataNode node = router.route(keys);
+                groups.computeIfAbsent(node.getDataSourceName(), k -> new LinkedHashMap<>())
+                        .computeIfAbsent(node, k -> new ArrayList<>()).add(i);
+            } catch (RuntimeException ex) {
+                results[i] = OrderWriteResult.failure(order.getOrderId(), null, ex.getMessage());
+            }
+        }
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        groups.forEach((dataSourceName, nodes) -> tasks.add(CompletableFuture.runAsync(() -> {
+            try {
+                JdbcTemplate template = new JdbcTemplate(dataSources.get(dataSourceName));
+                nodes.forEach((node, indexes) -> writeNode(template, node, orders, indexes, results));
+            } catch (RuntimeException ex) {
+                nodes.forEach((node, indexes) -> indexes.stream().filter(index -> results[index] == null).forEach(index ->
+                        results[index] = OrderWriteResult.failure(orders.get(index).getOrderId(), node.format(), ex.getMessage())));
+            }
+        }, shardExecutor)));
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+        // 绕过了 ShardingSphere，执行钩子看不到这次写入，手动标记读己之写。
+        ReadYourWrites.markWrite();
+
+        if (phase == MigrationSwitch.Phase.DUAL_WRITE) {
+            List<Order> written = new ArrayList<>();
+            for (int i = 0; i < results.length; i++) {
+                if (results[i].isSuccess()) {
+                    written.add(orders.get(i));
+                }
+            }
+            dualWrite(migrationSwitch.target(), written);
+        }
+        return Arrays.asList(results);
+    }
+
+    private static void writeNode(JdbcTemplate template, DataNode node, List<Order> orders,
+                                  List<Integer> indexes, OrderWriteResult[] results) {
+        String sql = "INSERT INTO " + node.getTableName() + INSERT_COLUMNS;
+        // 直接拿 BatchUpdateException 的逐行计数；经过 JdbcTemplate.batchUpdate 的异常转换后这部分信息就丢了。
+        template.execute((ConnectionCallback<Void>) connection -> {
+            int[] counts;
+            String error = null;
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int index : indexes) {
+                    Object[] row = row(orders.get(index));
+                    for (int i = 0; i < row.length; i++) {
+                        statement.setObject(i + 1, row[i]);
+                    }
+                    statement.addBatch();
+                }
+                counts = statement.executeBatch();
+            } catch (BatchUpdateException ex) {
+                counts = ex.getUpdateCounts();
+                error = ex.getMessage();
+            }
+            // 驱动在失败后可能继续执行剩余语句，也可能直接停下；没有拿到计数的行都按失败处理。
+            for (int i = 0; i < indexes.size(); i++) {
+                int index = indexes.get(i);
+                Long orderId = orders.get(index).getOrderId();
+                boolean ok = i < counts.length && (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO);
+                results[index] = ok
+                        ? OrderWriteResult.success(orderId, node.format())
+                        : OrderWriteResult.failure(orderId, node.format(), error == null ? "未写入" : error);
+            }
+            return null;
+        });
+    }
+
+    // 旧分片仍是准的一方，新分片写失败只记数，切换前由校验兜底。
+    private void dualWrite(MigrationTarget target, List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            rows.add(row(order));
+        }
+        try {
+            target.upsert(rows);
+        } catch (RuntimeException ex) {
+            migrationSwitch.recordDualWriteFailure();
+            log.warn("dual write of {} orders to migration target failed", orders.size(), ex);
+        }
+    }
+
+    private static Object[] row(Order order) {
+        return new Object[]{
                 order.getOrderId(),
                 order.getUserId(),
                 order.getAmount(),
                 order.getStatus(),
                 Timestamp.valueOf(order.getCreatedAt())
-        );
+        };
+    }
+
+    private JdbcTemplate current() {
+        return migrationSwitch.phase() == MigrationSwitch.Phase.CUT_OVER ? migrationSwitch.target().jdbcTemplate() : jdbcTemplate;
     }
 
     public Optional<Order> findById(long orderId) {
         String sql = "SELECT order_id, user_id, amount, status, created_at FROM t_order WHERE order_id = ?";
         try {
-            Order order = jdbcTemplate.queryForObject(sql, ORDER_ROW_MAPPER, orderId);
+            Order order = current().queryForObject(sql, ORDER_ROW_MAPPER, orderId);
             return Optional.ofNullable(order);
         } catch (EmptyResultDataAccessException ex) {
             return Optional.empty();
         }
     }
 
+    // ORDER BY 里带上等值的 user_id，和 (user_id, order_id DESC) 索引的列顺序一致，H2 才会按索引顺序读、读够 limit 行就停。
     public List<Order> findByUserId(long userId, int limit) {
-        String sql = "SELECT order_id, user_id, amount, status, created_at FROM t_order WHERE user_id = ? ORDER BY order_id DESC LIMIT ?";
-        return jdbcTemplate.query(sql, ORDER_ROW_MAPPER, userId, limit);
+        String sql = "SELECT order_id, user_id, amount, status, created_at FROM t_order WHERE user_id = ? ORDER BY user_id, order_id DESC LIMIT ?";
+        return current().query(sql, ORDER_ROW_MAPPER, userId, limit);
+    }
+
+    /**
+     * 游标翻页：order_id &lt; after 作为条件下推到每个分片，每个分片最多返回 limit 行，
+     * 再由 ShardingSphere 的流式归并（按 order_id 的优先队列）取前 limit 行，不再受翻页深度影响。
+     */
+    public List<Order> findByUserIdBefore(long userId, Long after, int limit) {
+        if (after == null) {
+            return findByUserId(userId, limit);
+        }
+        String sql = "SELECT order_id, user_id, amount, status, created_at FROM t_order WHERE user_id = ? AND order_id < ? ORDER BY user_id, order_id DESC LIMIT ?";
+        return current().query(sql, ORDER_ROW_MAPPER, userId, after, limit);
     }
 }
@@ -0,0 +1,38 @@
+package com.example.shardingdemo.service;
+
+import com.example.shardingdemo.id.SegmentIdAllocator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 基因法生成订单号：低 gene-bits 位直接取 user_id 的低位，
+ * 这样按 order_id 或 user_id 都能算出同一个分片，不用再扇出到所有库表。
+ * 序列号来自号段发号器，gene-bits 为 0 时就是号段序列本身。
+ */
+@Component
+public class OrderIdGenerator {
+
+    private final SegmentIdAllocator allocator;
+    private final int geneBits;
+    private final long geneMask;
+
+    public OrderIdGenerator(SegmentIdAllocator allocator, @Value("${order-id.gene-bits:0}") int geneBits) {
+        if (geneBits < 0 || geneBits > 16) {
+            throw new IllegalArgumentException("order-id.gene-bits 必须在 0~16 之间: " + geneBits);
+        }
+        this.allocator = allocator;
+        this.geneBits = geneBits;
+        this.geneMask = (1L << geneBits) - 1;
+    }
+
+    public long next(long userId) {
+        return (allocator.nextId() << geneBits) | (userId & geneMask);
+    }
+
+    /**
+     * 调用方自带 orderId 时校验基因位，避免订单和用户落在不同分片上。
+     */
+    public boolean matches(long orderId, long userId) {
+        return (orderId & geneMask) == (userId & geneMask);
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.shardingdemo.service;
 
+import com.example.shardingdemo.cache.RecentOrdersCache;
 import com.example.shardingdemo.domain.Order;
+import com.example.shardingdemo.domain.OrderPage;
+import com.example.shardingdemo.domain.OrderWriteResult;
 import com.example.shardingdemo.repository.OrderRepository;
 import com.example.shardingdemo.trace.TraceIdHolder;
 import org.slf4j.Logger;
@@ -10,35 +13,97 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class OrderService {
 
     private static final Logger log = LoggerFactory.getLogger(OrderService.class);
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_BATCH_SIZE = 5000;
 
     private final OrderRepository orderRepository;
-    private final AtomicLong idGenerator = new AtomicLong(1000);
+    private final OrderIdGenerator idGenerator;
+    private final RecentOrdersCache recentOrdersCache;
 
-    public OrderService(OrderRepository orderRepository) {
+    public OrderService(OrderRepository orderRepository, OrderIdGenerator idGenerator, RecentOrdersCache recentOrdersCache) {
         this.orderRepository = orderRepository;
+        this.idGenerator = idGenerator;
+        this.recentOrdersCache = recentOrdersCache;
     }
 
     public Order createOrder(Long orderId, Long userId, BigDecimal amount) {
-        long finalOrderId = orderId != null ? orderId : idGenerator.incrementAndGet();
-        Order order = new Order(finalOrderId, userId, amount, "CREATED", LocalDateTime.now());
+        Order order = newOrder(orderId, userId, amount);
         orderRepository.insert(order);
+        recentOrdersCache.onCreated(order);
         return order;
     }
 
+    /**
+     * 批量下单：参数不合法的行直接记为失败，其余行一次性交给仓储按分片分组批量写，结果顺序与入参一致。
+     */
+    public List<OrderWriteResult> createOrders(List<Order> requests) {
+        if (requests.isEmpty() || requests.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("批量条数需在 1 到 " + MAX_BATCH_SIZE + " 之间");
+        }
+        OrderWriteResult[] results = new OrderWriteResult[requests.size()];
+        List<Order> orders = new ArrayList<>(requests.size());
+        List<Integer> positions = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            Order request = requests.get(i);
+            try {
+                orders.add(newOrder(request.getOrderId(), request.getUserId(), request.getAmount()));
+                positions.add(i);
+            } catch (IllegalArgumentException ex) {
+                results[i] = OrderWriteResult.failure(request.getOrderId(), null, ex.getMessage());
+            }
+        }
+        if (!orders.isEmpty()) {
+            List<OrderWriteResult> written = orderRepository.insertBatch(orders);
+            for (int i = 0; i < written.size(); i++) {
+                results[positions.get(i)] = written.get(i);
+                if (written.get(i).isSuccess()) {
+                    recentOrdersCache.onCreated(orders.get(i));
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private Order newOrder(Long orderId, Long userId, BigDecimal amount) {
+        if (userId == null || amount == null) {
+            throw new IllegalArgumentException("userId 和 amount 不能为空");
+        }
+        if (orderId != null && !idGenerator.matches(orderId, userId)) {
+            throw new IllegalArgumentException("orderId 的基因位与 userId 不一致: " + orderId);
+        }
+        long finalOrderId = orderId != null ? orderId : idGenerator.next(userId);
+        return new Order(finalOrderId, userId, amount, "CREATED", LocalDateTime.now());
+    }
+
     public Optional<Order> findById(long orderId) {
         return orderRepository.findById(orderId);
     }
 
     public List<Order> findByUserId(long userId, int limit) {
-        return orderRepository.findByUserId(userId, limit);
+        return recentOrdersCache.find(userId, limit, id -> orderRepository.findByUserId(id, recentOrdersCache.size()))
+                .orElseGet(() -> orderRepository.findByUserId(userId, limit));
+    }
+
+    public OrderPage findPageByUserId(long userId, Long after, int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit 需在 1 到 " + MAX_PAGE_SIZE + " 之间");
+        }
+        // 多取一行判断是否还有下一页，避免最后一页之后再返回一次空页。
+        List<Order> orders = orderRepository.findByUserIdBefore(userId, after, limit + 1);
+        if (orders.size() <= limit) {
+            return new OrderPage(orders, null);
+        }
+        List<Order> page = orders.subList(0, limit);
+        return new OrderPage(page, page.get(limit - 1).getOrderId());
     }
 
     @Async("traceExecutor")
@@ -0,0 +1,89 @@
+package com.example.shardingdemo.sharding;
+
+import org.apache.shardingsphere.infra.datanode.DataNode;
+import org.apache.shardingsphere.infra.datanode.DataNodeInfo;
+import org.apache.shardingsphere.sharding.api.config.strategy.sharding.ComplexShardingStrategyConfiguration;
+import org.apache.shardingsphere.sharding.api.config.strategy.sharding.ShardingStrategyConfiguration;
+import org.apache.shardingsphere.sharding.api.config.strategy.sharding.StandardShardingStrategyConfiguration;
+import org.apache.shardingsphere.sharding.api.sharding.complex.ComplexKeysShardingAlgorithm;
+import org.apache.shardingsphere.sharding.api.sharding.complex.ComplexKeysShardingValue;
+import org.apache.shardingsphere.sharding.api.sharding.standard.PreciseShardingValue;
+import org.apache.shardingsphere.sharding.api.sharding.standard.StandardShardingAlgorithm;
+import org.apache.shardingsphere.sharding.rule.ShardingRule;
+import org.apache.shardingsphere.sharding.rule.TableRule;
+import org.apache.shardingsphere.sharding.spi.ShardingAlgorithm;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 在应用内按 ShardingSphere 当前生效的分片规则算出一行数据落在哪个真实节点，
+ * 不经过 SQL 解析和路由引擎。只支持 standard、complex 和无分片策略，其余策略抛 UnsupportedOperationException。
+ */
+public class DataNodeRouter {
+
+    private final ShardingRule shardingRule;
+    private final TableRule tableRule;
+
+    DataNodeRouter(ShardingRule shardingRule, String logicTable) {
+        this.shardingRule = shardingRule;
+        this.tableRule = shardingRule.getTableRule(logicTable);
+    }
+
+    public List<DataNode> dataNodes() {
+        return tableRule.getActualDataNodes();
+    }
+
+    public DataNode route(Map<String, Comparable<?>> row) {
+        String dataSource = routeOne(shardingRule.getDatabaseShardingStrategyConfiguration(tableRule),
+                tableRule.getActualDataSourceNames(), tableRule.getDataSourceDataNode(), row);
+        String table = routeOne(shardingRule.getTableShardingStrategyConfiguration(tableRule),
+                tableRule.getActualTableNames(dataSource), tableRule.getTableDataNode(), row);
+        return new DataNode(dataSource, table);
+    }
+
+    @SuppressWarnings("unchecked")
+    private String routeOne(ShardingStrategyConfiguration config, Collection<String> targets,
+                            DataNodeInfo dataNodeInfo, Map<String, Comparable<?>> row) {
+        if (config == null || config.getShardingAlgorithmName() == null) {
+            return single(targets);
+        }
+        ShardingAlgorithm algorithm = shardingRule.getShardingAlgorithms().get(config.getShardingAlgorithmName());
+        if (config instanceof StandardShardingStrategyConfiguration) {
+            String column = ((StandardShardingStrategyConfiguration) config).getShardingColumn();
+            if (column == null) {
+                column = shardingRule.getDefaultShardingColumn();
+            }
+            return ((StandardShardingAlgorithm<Comparable<?>>) algorithm).doSharding(targets,
+                    new PreciseShardingValue<>(tableRule.getLogicTable(), column, dataNodeInfo, value(row, column)));
+        }
+        if (config instanceof ComplexShardingStrategyConfiguration) {
+            Map<String, Collection<Comparable<?>>> values = new HashMap<>();
+            for (String column : ((ComplexShardingStrategyConfiguration) config).getShardingColumns().split(",")) {
+                values.put(column.trim(), Collections.singletonList(value(row, column.trim())));
+            }
+            Collection<String> routed = ((ComplexKeysShardingAlgorithm<Comparable<?>>) algorithm).doSharding(targets,
+                    new ComplexKeysShardingValue<>(tableRule.getLogicTable(), values, Collections.emptyMap()));
+            return single(routed);
+        }
+        throw new UnsupportedOperationException("不支持预路由的分片策略: " + config.getType());
+    }
+
+    private static Comparable<?> value(Map<String, Comparable<?>> row, String column) {
+        Comparable<?> value = row.get(column);
+        if (value == null) {
+            throw new IllegalArgumentException("缺少分片键: " + column);
+        }
+        return value;
+    }
+
+    private static String single(Collection<String> targets) {
+        if (targets.size() != 1) {
+            throw new IllegalStateException("预路由结果不唯一: " + targets);
+        }
+        return targets.iterator().next();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.shardingdemo.sharding;
+
+import com.google.common.collect.BoundType;
+import com.google.common.collect.Range;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Properties;
+
+/**
+ * 两个自定义分表算法共用的路由逻辑。
+ *
+ * <pre>
+ * suffix = floorMod(abs(value) / range-size, table-count)
+ * table  = table-prefix + suffix
+ * </pre>
+ *
+ * range-size 默认为 1，即普通取模；设成 N 时连续 N 个值落同一张表，范围查询能剪掉更多表。
+ * 表名在 init 时按后缀预先算好，精确路由只是一次数组下标访问，不再逐个 endsWith 比较；
+ * 算出的表不在 actual-data-nodes 里（table-count 与实际表数不一致）时直接报错，不会把 SQL 发给不存在的表。
+ * abs(Long.MIN_VALUE) 仍是负数，所以取模用 floorMod。
+ * 分片值按 Number 处理：SQL 里写字面量时 ShardingSphere 传进来的是 Integer，参数绑定时才是 Long。
+ */
+final class ModuloTableRouter {
+
+    private static final String TABLE_PREFIX_KEY = "table-prefix";
+    private static final String TABLE_COUNT_KEY = "table-count";
+    private static final String RANGE_SIZE_KEY = "range-size";
+
+    private final String[] tables;
+    private final long rangeSize;
+
+    ModuloTableRouter(Properties props, int defaultTableCount) {
+        String prefix = props.getProperty(TABLE_PREFIX_KEY, "t_order_");
+        int tableCount = intProperty(props, TABLE_COUNT_KEY, defaultTableCount);
+        this.rangeSize = intProperty(props, RANGE_SIZE_KEY, 1);
+        if (tableCount <= 0 || rangeSize <= 0) {
+            throw new IllegalArgumentException("table-count 和 range-size 必须大于 0");
+        }
+        this.tables = new String[tableCount];
+        for (int i = 0; i < tableCount; i++) {
+            tables[i] = prefix + i;
+        }
+    }
+
+    String route(Collection<String> availableTargetNames, Comparable<?> value) {
+        String table = tables[(int) Math.floorMod(Math.abs(toLong(value)) / rangeSize, (long) tables.length)];
+        if (!availableTargetNames.contains(table)) {
+            throw new IllegalArgumentException("No table found for value: " + value);
+        }
+        return table;
+    }
+
+    /**
+     * 只返回桶能和区间相交的表；区间跨过的桶数不少于表数、或没有上下界时才退回全部表。
+     * 负数取绝对值后不再单调，碰到负数下界同样退回全部表。
+     */
+    Collection<String> route(Collection<String> availableTargetNames, Range<Comparable<?>> range) {
+        if (!range.hasLowerBound() || !range.hasUpperBound()) {
+            return availableTargetNames;
+        }
+        long lower = toLong(range.lowerEndpoint()) + (range.lowerBoundType() == BoundType.OPEN ? 1 : 0);
+        long upper = toLong(range.upperEndpoint()) - (range.upperBoundType() == BoundType.OPEN ? 1 : 0);
+        if (lower > upper) {
+            return Collections.emptyList();
+        }
+        if (lower < 0) {
+            return availableTargetNames;
+        }
+        long lowerBucket = lower / rangeSize;
+        long upperBucket = upper / rangeSize;
+        if (upperBucket - lowerBucket + 1 >= tables.length) {
+            return availableTargetNames;
+        }
+        Collection<String> result = new LinkedHashSet<>();
+        for (long bucket = lowerBucket; bucket <= upperBucket; bucket++) {
+            String table = tables[(int) Math.floorMod(bucket, (long) tables.length)];
+            if (availableTargetNames.contains(table)) {
+                result.add(table);
+            }
+        }
+        return result;
+    }
+
+    private static long toLong(Comparable<?> value) {
+        return ((Number) value).longValue();
+    }
+
+    private static int intProperty(Properties props, String key, int defaultValue) {
+        String value = props.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+}
@@ -7,39 +7,27 @@ import org.apache.shardingsphere.sharding.api.sharding.standard.StandardSharding
 import java.util.Collection;
 import java.util.Properties;
 
-public class OrderTableSpiShardingAlgorithm implements StandardShardingAlgorithm<Long> {
+public class OrderTableSpiShardingAlgorithm implements StandardShardingAlgorithm<Comparable<?>> {
 
-    private static final String TABLE_COUNT_KEY = "table-count";
     private static final int DEFAULT_TABLE_COUNT = 2;
 
     private Properties props = new Properties();
-    private int tableCount = DEFAULT_TABLE_COUNT;
+    private ModuloTableRouter router = new ModuloTableRouter(props, DEFAULT_TABLE_COUNT);
 
     @Override
     public void init(Properties props) {
         this.props = props;
-        String count = props.getProperty(TABLE_COUNT_KEY);
-        if (count != null && !count.isBlank()) {
-            this.tableCount = Integer.parseInt(count);
-        }
+        this.router = new ModuloTableRouter(props, DEFAULT_TABLE_COUNT);
     }
 
     @Override
-    public String doSharding(Collection<String> availableTargetNames, PreciseShardingValue<Long> shardingValue) {
-        long value = shardingValue.getValue();
-        int suffix = (int) (Math.abs(value) % tableCount);
-        String expectedSuffix = "_" + suffix;
-        for (String tableName : availableTargetNames) {
-            if (tableName.endsWith(expectedSuffix)) {
-                return tableName;
-            }
-        }
-        throw new IllegalArgumentException("No table found for value: " + value);
+    public String doSharding(Collection<String> availableTargetNames, PreciseShardingValue<Comparable<?>> shardingValue) {
+        return router.route(availableTargetNames, shardingValue.getValue());
     }
 
     @Override
-    public Collection<String> doSharding(Collection<String> availableTargetNames, RangeShardingValue<Long> shardingValue) {
-        return availableTargetNames;
+    public Collection<String> doSharding(Collection<String> availableTargetNames, RangeShardingValue<Comparable<?>> shardingValue) {
+        return router.route(availableTargetNames, shardingValue.getValueRange());
     }
 
     @Override
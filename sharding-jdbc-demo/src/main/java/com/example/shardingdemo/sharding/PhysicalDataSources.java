@@ -0,0 +1,82 @@
+package com.example.shardingdemo.sharding;
+
+import org.apache.shardingsphere.driver.jdbc.core.datasource.ShardingSphereDataSource;
+import org.apache.shardingsphere.mode.manager.ContextManager;
+import org.apache.shardingsphere.readwritesplitting.rule.ReadwriteSplittingDataSourceRule;
+import org.apache.shardingsphere.readwritesplitting.rule.ReadwriteSplittingRule;
+import org.apache.shardingsphere.sharding.rule.ShardingRule;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 取 ShardingSphere 管理的真实数据源（ds0、ds1 ...）和分片规则，给迁移、批量写这类需要绕过路由、直接读写物理表的场景用。
+ * 5.2.1 没有公开 ContextManager 的取法，只能反射读字段。
+ */
+@Component
+public class PhysicalDataSources {
+
+    private final DataSource dataSource;
+    private final String databaseName;
+
+    public PhysicalDataSources(DataSource dataSource,
+                               @Value("${spring.shardingsphere.database.name:logic_db}") String databaseName) {
+        this.dataSource = dataSource;
+        this.databaseName = databaseName;
+    }
+
+    public Map<String, DataSource> all() {
+        return contextManager().getDataSourceMap(databaseName);
+    }
+
+    /**
+     * 读写分离的逻辑数据源（如 rw_ds）解析为它的写库，绕过路由直接写时不会误写到从库。
+     */
+    public DataSource get(String name) {
+        Map<String, DataSource> all = all();
+        DataSource physical = all.get(name);
+        if (physical == null) {
+            physical = readwriteGroups().stream()
+                    .filter(group -> group.getName().equals(name))
+                    .findFirst()
+                    .map(group -> all.get(group.getWriteDataSource()))
+                    .orElse(null);
+        }
+        if (physical == null) {
+            throw new IllegalArgumentException("未知的数据源: " + name);
+        }
+        return physical;
+    }
+
+    public List<ReadwriteSplittingDataSourceRule> readwriteGroups() {
+        Optional<ReadwriteSplittingRule> rule = contextManager().getMetaDataContexts().getMetaData().getDatabase(databaseName)
+                .getRuleMetaData().findSingleRule(ReadwriteSplittingRule.class);
+        List<ReadwriteSplittingDataSourceRule> groups = new ArrayList<>();
+        rule.ifPresent(readwrite -> readwrite.getDataSourceMapper().keySet()
+                .forEach(name -> readwrite.findDataSourceRule(name).ifPresent(groups::add)));
+        return groups;
+    }
+
+    public DataNodeRouter router(String logicTable) {
+        ShardingRule shardingRule = contextManager().getMetaDataContexts().getMetaData().getDatabase(databaseName)
+                .getRuleMetaData().findSingleRule(ShardingRule.class)
+                .orElseThrow(() -> new IllegalStateException("当前配置没有分片规则"));
+        return new DataNodeRouter(shardingRule, logicTable);
+    }
+
+    private ContextManager contextManager() {
+        try {
+            Field field = ShardingSphereDataSource.class.getDeclaredField("contextManager");
+            field.setAccessible(true);
+            return (ContextManager) field.get(dataSource);
+        } catch (ReflectiveOperationException | ClassCastException ex) {
+            throw new IllegalStateException("无法获取 ShardingSphere 的真实数据源", ex);
+        }
+    }
+}
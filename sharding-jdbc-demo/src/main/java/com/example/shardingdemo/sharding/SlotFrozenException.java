@@ -0,0 +1,18 @@
+package com.example.shardingdemo.sharding;
+
+/**
+ * 分片键所在槽位正在迁移、暂时拒绝写入。迁移切完映射后自动解冻，客户端稍后重试即可。
+ */
+public class SlotFrozenException extends RuntimeException {
+
+    private final int slot;
+
+    public SlotFrozenException(int slot) {
+        super("槽位 " + slot + " 正在迁移，暂停写入");
+        this.slot = slot;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+}
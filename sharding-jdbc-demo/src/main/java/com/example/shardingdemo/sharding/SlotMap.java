@@ -0,0 +1,104 @@
+package com.example.shardingdemo.sharding;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 虚拟槽位到真实数据节点的映射快照：slot = 分片键 &amp; 1023，每个槽位对应一个 dsX.t_order_Y。
+ * 分片算法由 ShardingSphere 通过 SPI 实例化，拿不到 Spring Bean，所以当前快照放在静态 volatile 字段里，
+ * 由 SlotMapRefresher 定时从配置表加载后整体替换。
+ * 迁移中的槽位被冻结（写屏障）：该槽位的写入直接拒绝，读照常走原节点。
+ */
+public final class SlotMap {
+
+    public static final int SLOT_COUNT = 1024;
+
+    private static volatile SlotMap current;
+
+    private final String[] dataSources;
+    private final String[] tables;
+    private final boolean[] frozen;
+
+    public SlotMap(String[] dataSources, String[] tables) {
+        this(dataSources, tables, new boolean[SLOT_COUNT]);
+    }
+
+    public SlotMap(String[] dataSources, String[] tables, boolean[] frozen) {
+        if (dataSources.length != SLOT_COUNT || tables.length != SLOT_COUNT || frozen.length != SLOT_COUNT) {
+            throw new IllegalArgumentException("槽位映射必须覆盖全部 " + SLOT_COUNT + " 个槽位");
+        }
+        this.dataSources = dataSources.clone();
+        this.tables = tables.clone();
+        this.frozen = frozen.clone();
+    }
+
+    public static SlotMap current() {
+        SlotMap map = current;
+        if (map == null) {
+            throw new IllegalStateException("槽位映射尚未加载");
+        }
+        return map;
+    }
+
+    public static void install(SlotMap map) {
+        current = map;
+    }
+
+    public static int slotOf(long value) {
+        return (int) (value & (SLOT_COUNT - 1));
+    }
+
+    /**
+     * 写入前检查分片键所在槽位是否被冻结；没有加载槽位映射（非 slot profile）时不做检查。
+     */
+    public static void checkWritable(long shardingKey) {
+        SlotMap map = current;
+        int slot = slotOf(shardingKey);
+        if (map != null && map.frozen[slot]) {
+            throw new SlotFrozenException(slot);
+        }
+    }
+
+    public String dataSource(int slot) {
+        return dataSources[slot];
+    }
+
+    public String table(int slot) {
+        return tables[slot];
+    }
+
+    public String node(int slot) {
+        return dataSources[slot] + "." + tables[slot];
+    }
+
+    public boolean frozen(int slot) {
+        return frozen[slot];
+    }
+
+    public Map<String, Integer> slotsPerNode() {
+        Map<String, Integer> result = new TreeMap<>();
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            result.merge(node(slot), 1, Integer::sum);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SlotMap)) {
+            return false;
+        }
+        SlotMap other = (SlotMap) o;
+        return Arrays.equals(dataSources, other.dataSources) && Arrays.equals(tables, other.tables)
+                && Arrays.equals(frozen, other.frozen);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(dataSources) + Arrays.hashCode(tables)) + Arrays.hashCode(frozen);
+    }
+}
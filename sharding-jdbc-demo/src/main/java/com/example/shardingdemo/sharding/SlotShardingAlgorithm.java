@@ -0,0 +1,61 @@
+package com.example.shardingdemo.sharding;
+
+import org.apache.shardingsphere.sharding.api.sharding.complex.ComplexKeysShardingAlgorithm;
+import org.apache.shardingsphere.sharding.api.sharding.complex.ComplexKeysShardingValue;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 虚拟槽位分片：slot = user_id 或 order_id 的低 10 位（订单号基因位设为 10，两者相同），
+ * 再查 SlotMap 得到库和表。扩容只改被挪走槽位的映射，其余数据不动。
+ */
+public class SlotShardingAlgorithm implements ComplexKeysShardingAlgorithm<Comparable<?>> {
+
+    private static final String USER_ID = "user_id";
+    private static final String ORDER_ID = "order_id";
+
+    private Properties props = new Properties();
+    private boolean databaseTarget;
+
+    @Override
+    public void init(Properties props) {
+        this.props = props;
+        String target = props.getProperty("target", "table");
+        if (!"database".equals(target) && !"table".equals(target)) {
+            throw new IllegalArgumentException("target 只能是 database 或 table: " + target);
+        }
+        this.databaseTarget = "database".equals(target);
+    }
+
+    @Override
+    public Collection<String> doSharding(Collection<String> availableTargetNames, ComplexKeysShardingValue<Comparable<?>> shardingValue) {
+        Map<String, Collection<Comparable<?>>> values = shardingValue.getColumnNameAndShardingValuesMap();
+        Collection<Comparable<?>> keys = values.containsKey(USER_ID) ? values.get(USER_ID) : values.get(ORDER_ID);
+        if (keys == null || keys.isEmpty()) {
+            return availableTargetNames;
+        }
+        SlotMap slotMap = SlotMap.current();
+        Collection<String> result = new LinkedHashSet<>();
+        for (Comparable<?> key : keys) {
+            int slot = SlotMap.slotOf(((Number) key).longValue());
+            String target = databaseTarget ? slotMap.dataSource(slot) : slotMap.table(slot);
+            if (availableTargetNames.contains(target)) {
+                result.add(target);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String getType() {
+        return "VIRTUAL_SLOT";
+    }
+
+    @Override
+    public Properties getProps() {
+        return props;
+    }
+}
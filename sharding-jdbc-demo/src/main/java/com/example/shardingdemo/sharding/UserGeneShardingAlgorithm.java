@@ -0,0 +1,92 @@
+package com.example.shardingdemo.sharding;
+
+import org.apache.shardingsphere.sharding.api.sharding.complex.ComplexKeysShardingAlgorithm;
+import org.apache.shardingsphere.sharding.api.sharding.complex.ComplexKeysShardingValue;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * 基因分片：user_id 和 order_id 的低 gene-bits 位相同（见 OrderIdGenerator），
+ * 两个键任带其一都能算出唯一的库和表。
+ *
+ * <pre>
+ * gene  = value &amp; (2^gene-bits - 1)
+ * db    = gene % database-count
+ * table = (gene / database-count) % table-count
+ * </pre>
+ */
+public class UserGeneShardingAlgorithm implements ComplexKeysShardingAlgorithm<Comparable<?>> {
+
+    private static final String USER_ID = "user_id";
+    private static final String ORDER_ID = "order_id";
+
+    private Properties props = new Properties();
+    private boolean databaseTarget;
+    private long geneMask;
+    private int databaseCount;
+    private int tableCount;
+
+    @Override
+    public void init(Properties props) {
+        this.props = props;
+        String target = props.getProperty("target", "table");
+        if (!"database".equals(target) && !"table".equals(target)) {
+            throw new IllegalArgumentException("target 只能是 database 或 table: " + target);
+        }
+        this.databaseTarget = "database".equals(target);
+        int geneBits = Integer.parseInt(props.getProperty("gene-bits"));
+        this.geneMask = (1L << geneBits) - 1;
+        this.databaseCount = Integer.parseInt(props.getProperty("database-count", "1"));
+        this.tableCount = Integer.parseInt(props.getProperty("table-count", "1"));
+        if ((geneMask + 1) % ((long) databaseCount * tableCount) != 0) {
+            throw new IllegalArgumentException("2^gene-bits 必须是 database-count * table-count 的整数倍");
+        }
+    }
+
+    @Override
+    public Collection<String> doSharding(Collection<String> availableTargetNames, ComplexKeysShardingValue<Comparable<?>> shardingValue) {
+        Map<String, Collection<Comparable<?>>> values = shardingValue.getColumnNameAndShardingValuesMap();
+        Collection<Comparable<?>> keys = values.containsKey(USER_ID) ? values.get(USER_ID) : values.get(ORDER_ID);
+        if (keys == null || keys.isEmpty()) {
+            return availableTargetNames;
+        }
+        Set<Integer> suffixes = new LinkedHashSet<>();
+        for (Comparable<?> key : keys) {
+            suffixes.add(suffix(((Number) key).longValue()));
+        }
+        Collection<String> result = new LinkedHashSet<>();
+        for (String targetName : availableTargetNames) {
+            if (suffixes.contains(trailingNumber(targetName))) {
+                result.add(targetName);
+            }
+        }
+        return result;
+    }
+
+    private int suffix(long value) {
+        long gene = value & geneMask;
+        return (int) (databaseTarget ? gene % databaseCount : gene / databaseCount % tableCount);
+    }
+
+    private static int trailingNumber(String name) {
+        int i = name.length();
+        while (i > 0 && Character.isDigit(name.charAt(i - 1))) {
+            i--;
+        }
+        return i == name.length() ? -1 : Integer.parseInt(name.substring(i));
+    }
+
+    @Override
+    public String getType() {
+        return "USER_GENE";
+    }
+
+    @Override
+    public Properties getProps() {
+        return props;
+    }
+}
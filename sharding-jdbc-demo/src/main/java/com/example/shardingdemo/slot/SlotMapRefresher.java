@@ -0,0 +1,41 @@
+package com.example.shardingdemo.slot;
+
+import com.example.shardingdemo.sharding.SlotMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 启动时装载槽位映射（配置表为空则按初始节点播种），之后定时重读配置表，有变化就整体替换，无需重启。
+ */
+@Component
+@Profile("slot")
+public class SlotMapRefresher {
+
+    private static final Logger log = LoggerFactory.getLogger(SlotMapRefresher.class);
+
+    private final SlotMapRepository slotMapRepository;
+
+    public SlotMapRefresher(SlotMapRepository slotMapRepository,
+                            @Value("${slot.initial-nodes}") List<String> initialNodes) {
+        this.slotMapRepository = slotMapRepository;
+        slotMapRepository.seedIfEmpty(initialNodes);
+        SlotMap.install(slotMapRepository.load());
+        log.info("slot map loaded: {}", SlotMap.current().slotsPerNode());
+    }
+
+    @Scheduled(fixedDelayString = "${slot.refresh-interval-ms:5000}")
+    public void refresh() {
+        SlotMap latest = slotMapRepository.load();
+        SlotMap previous = SlotMap.current();
+        if (!latest.equals(previous)) {
+            SlotMap.install(latest);
+            log.info("slot map reloaded: {}", latest.slotsPerNode());
+        }
+    }
+}
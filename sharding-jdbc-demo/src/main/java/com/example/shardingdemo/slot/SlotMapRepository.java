@@ -0,0 +1,101 @@
+package com.example.shardingdemo.slot;
+
+import com.example.shardingdemo.sharding.SlotMap;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 槽位配置表 shard_slot 的读写，表放在独立的元数据库里（见 SlotConfig），多个实例共用一份映射。
+ */
+public class SlotMapRepository implements AutoCloseable {
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    public SlotMapRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * 配置表为空时把槽位轮流分给初始节点，已经有映射则不动。
+     */
+    public void seedIfEmpty(List<String> nodes) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM shard_slot", Integer.class);
+        if (count != null && count > 0) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(SlotMap.SLOT_COUNT);
+        for (int slot = 0; slot < SlotMap.SLOT_COUNT; slot++) {
+            String[] node = splitNode(nodes.get(slot % nodes.size()));
+            rows.add(new Object[]{slot, node[0], node[1], now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO shard_slot (slot, data_source, table_name, updated_at) VALUES (?, ?, ?, ?)", rows);
+    }
+
+    public SlotMap load() {
+        String[] dataSources = new String[SlotMap.SLOT_COUNT];
+        String[] tables = new String[SlotMap.SLOT_COUNT];
+        boolean[] frozen = new boolean[SlotMap.SLOT_COUNT];
+        jdbcTemplate.query("SELECT slot, data_source, table_name, frozen FROM shard_slot", rs -> {
+            int slot = rs.getInt("slot");
+            dataSources[slot] = rs.getString("data_source");
+            tables[slot] = rs.getString("table_name");
+            frozen[slot] = rs.getBoolean("frozen");
+        });
+        for (int slot = 0; slot < SlotMap.SLOT_COUNT; slot++) {
+            if (dataSources[slot] == null) {
+                throw new IllegalStateException("槽位 " + slot + " 没有映射");
+            }
+        }
+        return new SlotMap(dataSources, tables, frozen);
+    }
+
+    /**
+     * 冻结或解冻槽位。其他实例在下一次刷新后才看到，调用方要等一个刷新间隔再认为写屏障已生效。
+     */
+    public void freeze(Collection<Integer> slots, boolean frozen) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(slots.size());
+        for (Integer slot : slots) {
+            rows.add(new Object[]{frozen, now, slot});
+        }
+        jdbcTemplate.batchUpdate("UPDATE shard_slot SET frozen = ?, updated_at = ? WHERE slot = ?", rows);
+    }
+
+    /**
+     * 改挂槽位并同时解冻：其他实例要么还看到“旧节点 + 冻结”，要么看到“新节点 + 可写”，不会把写入落到旧节点。
+     */
+    public void reassign(Map<Integer, String> slotToNode) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(slotToNode.size());
+        slotToNode.forEach((slot, node) -> {
+            String[] parts = splitNode(node);
+            rows.add(new Object[]{parts[0], parts[1], now, slot});
+        });
+        jdbcTemplate.batchUpdate("UPDATE shard_slot SET data_source = ?, table_name = ?, frozen = FALSE, updated_at = ? WHERE slot = ?", rows);
+    }
+
+    static String[] splitNode(String node) {
+        int dot = node.indexOf('.');
+        if (dot <= 0 || dot == node.length() - 1) {
+            throw new IllegalArgumentException("数据节点格式应为 ds.table: " + node);
+        }
+        return new String[]{node.substring(0, dot), node.substring(dot + 1)};
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (dataSource instanceof AutoCloseable) {
+            ((AutoCloseable) dataSource).close();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.shardingdemo.slot;
+
+import java.util.Map;
+
+public class SlotMigrationReport {
+
+    private final int movedSlots;
+    private final long movedRows;
+    private final long totalRows;
+    private final long elapsedMillis;
+    private final Map<String, Integer> slotsPerNode;
+
+    public SlotMigrationReport(int movedSlots, long movedRows, long totalRows, long elapsedMillis, Map<String, Integer> slotsPerNode) {
+        this.movedSlots = movedSlots;
+        this.movedRows = movedRows;
+        this.totalRows = totalRows;
+        this.elapsedMillis = elapsedMillis;
+        this.slotsPerNode = slotsPerNode;
+    }
+
+    public int getMovedSlots() {
+        return movedSlots;
+    }
+
+    public long getMovedRows() {
+        return movedRows;
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public Map<String, Integer> getSlotsPerNode() {
+        return slotsPerNode;
+    }
+}
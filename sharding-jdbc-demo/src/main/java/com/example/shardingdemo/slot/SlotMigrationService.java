@@ -0,0 +1,214 @@
+package com.example.shardingdemo.slot;
+
+import com.example.shardingdemo.migration.ShardChecksum;
+import com.example.shardingdemo.sharding.PhysicalDataSources;
+import com.example.shardingdemo.sharding.SlotMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按槽位扩缩容：先算出让各节点槽位数均衡所需的最少挪动，再按批挪动槽位。没被挪动的槽位连同它们的数据完全不动。
+ * <p>
+ * 每批槽位的步骤：
+ * <ol>
+ *     <li>预复制：不停写，把源节点上这些槽位的行 upsert 到新节点；</li>
+ *     <li>冻结：shard_slot 里标记 frozen，等一个刷新间隔加宽限期，所有实例都拒绝这些槽位的写入；</li>
+ *     <li>补复制 + 校验：再 upsert 一遍（补上预复制期间的写入），两边按槽位比对行数和校验和；</li>
+ *     <li>切映射：改挂新节点并解冻（同一条 UPDATE），再等一个刷新间隔，让其他实例都改从新节点读；</li>
+ *     <li>删除源节点上这些槽位的行。</li>
+ * </ol>
+ * 校验不一致或中途出错时解冻、删掉新节点上的副本，映射保持不变。复制用 upsert，重跑不会主键冲突。
+ * 冻结期间这批槽位的写入会失败，时长约为补复制耗时加一个刷新间隔，批越小停写越短、总耗时越长。
+ */
+@Service
+@Profile("slot")
+public class SlotMigrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(SlotMigrationService.class);
+    private static final String COLUMNS = "order_id, user_id, amount, status, created_at";
+    // 和 SlotMap.slotOf 一样按低 10 位取槽位（MOD 对负数的结果和位与不同）；H2 推断不出 BITAND 参数的类型，掩码直接拼成常量
+    private static final String SLOT_FILTER = " WHERE BITAND(user_id, " + (SlotMap.SLOT_COUNT - 1) + ") = ?";
+    private static final String UPSERT = " (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?)"
+            + " ON DUPLICATE KEY UPDATE amount = VALUES(amount), status = VALUES(status), created_at = VALUES(created_at)";
+
+    private final PhysicalDataSources physicalDataSources;
+    private final SlotMapRepository slotMapRepository;
+    private final int batchSlots;
+    private final long propagationMillis;
+
+    public SlotMigrationService(PhysicalDataSources physicalDataSources,
+                                SlotMapRepository slotMapRepository,
+                                @Value("${slot.migration.batch-slots:64}") int batchSlots,
+                                @Value("${slot.refresh-interval-ms:5000}") long refreshIntervalMillis,
+                                @Value("${slot.migration.fence-grace-ms:1000}") long fenceGraceMillis) {
+        this.physicalDataSources = physicalDataSources;
+        this.slotMapRepository = slotMapRepository;
+        this.batchSlots = batchSlots;
+        this.propagationMillis = refreshIntervalMillis + fenceGraceMillis;
+    }
+
+    /**
+     * 目标节点平分 1024 个槽位；已在目标节点上且未超额的槽位保留，其余的（超额或节点被移除）重新分配。
+     */
+    public Map<Integer, String> plan(List<String> targetNodes) {
+        if (targetNodes.isEmpty()) {
+            throw new IllegalArgumentException("目标节点不能为空");
+        }
+        SlotMap slotMap = SlotMap.current();
+        Map<String, Integer> quota = new LinkedHashMap<>();
+        for (int i = 0; i < targetNodes.size(); i++) {
+            quota.put(targetNodes.get(i), SlotMap.SLOT_COUNT / targetNodes.size() + (i < SlotMap.SLOT_COUNT % targetNodes.size() ? 1 : 0));
+        }
+        Map<String, Integer> kept = new HashMap<>();
+        Deque<Integer> pool = new ArrayDeque<>();
+        for (int slot = 0; slot < SlotMap.SLOT_COUNT; slot++) {
+            String node = slotMap.node(slot);
+            Integer limit = quota.get(node);
+            if (limit != null && kept.getOrDefault(node, 0) < limit) {
+                kept.merge(node, 1, Integer::sum);
+            } else {
+                pool.add(slot);
+            }
+        }
+        Map<Integer, String> plan = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : quota.entrySet()) {
+            for (int i = kept.getOrDefault(entry.getKey(), 0); i < entry.getValue(); i++) {
+                plan.put(pool.remove(), entry.getKey());
+            }
+        }
+        return plan;
+    }
+
+    public synchronized SlotMigrationReport rebalance(List<String> targetNodes) {
+        Map<String, DataSource> physical = physicalDataSources.all();
+        for (String node : targetNodes) {
+            String ds = SlotMapRepository.splitNode(node)[0];
+            if (!physical.containsKey(ds)) {
+                throw new IllegalArgumentException("未知的数据源: " + ds);
+            }
+        }
+        long start = System.currentTimeMillis();
+        long totalRows = countRows(physical);
+        long movedRows = 0;
+        Map<Integer, String> plan = plan(targetNodes);
+        Map<Integer, String> batch = new LinkedHashMap<>();
+        for (Map.Entry<Integer, String> entry : plan.entrySet()) {
+            batch.put(entry.getKey(), entry.getValue());
+            if (batch.size() == batchSlots) {
+                movedRows += moveSlots(physical, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            movedRows += moveSlots(physical, batch);
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        log.info("slot rebalance moved {} slots, {} of {} rows in {} ms", plan.size(), movedRows, totalRows, elapsed);
+        return new SlotMigrationReport(plan.size(), movedRows, totalRows, elapsed, SlotMap.current().slotsPerNode());
+    }
+
+    private long moveSlots(Map<String, DataSource> physical, Map<Integer, String> batch) {
+        SlotMap slotMap = SlotMap.current();
+        long moved = 0;
+        try {
+            for (Map.Entry<Integer, String> entry : batch.entrySet()) {
+                copySlot(physical, slotMap, entry.getKey(), entry.getValue());
+            }
+
+            slotMapRepository.freeze(batch.keySet(), true);
+            SlotMap.install(slotMapRepository.load());
+            awaitPropagation();
+            for (Map.Entry<Integer, String> entry : batch.entrySet()) {
+                moved += copySlot(physical, slotMap, entry.getKey(), entry.getValue());
+                verifySlot(physical, slotMap, entry.getKey(), entry.getValue());
+            }
+        } catch (RuntimeException ex) {
+            slotMapRepository.freeze(batch.keySet(), false);
+            SlotMap.install(slotMapRepository.load());
+            batch.forEach((slot, node) -> deleteSlot(physical, node, slot));
+            throw ex;
+        }
+        slotMapRepository.reassign(batch);
+        SlotMap.install(slotMapRepository.load());
+
+        // 其他实例刷新前仍可能从旧节点读，等它们都切到新节点再删。
+        awaitPropagation();
+        for (Integer slot : batch.keySet()) {
+            deleteSlot(physical, slotMap.node(slot), slot);
+        }
+        return moved;
+    }
+
+    private int copySlot(Map<String, DataSource> physical, SlotMap slotMap, int slot, String targetNode) {
+        String[] target = SlotMapRepository.splitNode(targetNode);
+        List<Object[]> rows = new JdbcTemplate(physical.get(slotMap.dataSource(slot))).query(
+                "SELECT " + COLUMNS + " FROM " + slotMap.table(slot) + SLOT_FILTER,
+                (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getLong(2), rs.getBigDecimal(3), rs.getString(4), rs.getTimestamp(5)},
+                slot);
+        if (!rows.isEmpty()) {
+            new JdbcTemplate(physical.get(target[0])).batchUpdate("INSERT INTO " + target[1] + UPSERT, rows);
+        }
+        return rows.size();
+    }
+
+    /**
+     * 槽位已冻结，两边的行应当完全一致：行数和逐行校验和之和都要相等。
+     */
+    private void verifySlot(Map<String, DataSource> physical, SlotMap slotMap, int slot, String targetNode) {
+        long[] expected = checksum(physical, slotMap.node(slot), slot);
+        long[] actual = checksum(physical, targetNode, slot);
+        if (expected[0] != actual[0] || expected[1] != actual[1]) {
+            throw new IllegalStateException("槽位 " + slot + " 校验不一致: " + slotMap.node(slot) + " 有 " + expected[0]
+                    + " 行，" + targetNode + " 有 " + actual[0] + " 行");
+        }
+    }
+
+    private long[] checksum(Map<String, DataSource> physical, String node, int slot) {
+        String[] parts = SlotMapRepository.splitNode(node);
+        long[] result = new long[2];
+        new JdbcTemplate(physical.get(parts[0])).query(
+                "SELECT " + COLUMNS + " FROM " + parts[1] + SLOT_FILTER,
+                rs -> {
+                    result[0]++;
+                    result[1] += ShardChecksum.rowChecksum(rs.getLong(1), rs.getLong(2), rs.getBigDecimal(3), rs.getString(4), rs.getTimestamp(5));
+                }, slot);
+        return result;
+    }
+
+    private void deleteSlot(Map<String, DataSource> physical, String node, int slot) {
+        String[] parts = SlotMapRepository.splitNode(node);
+        new JdbcTemplate(physical.get(parts[0])).update("DELETE FROM " + parts[1] + SLOT_FILTER, slot);
+    }
+
+    private void awaitPropagation() {
+        try {
+            Thread.sleep(propagationMillis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("槽位迁移被中断", ex);
+        }
+    }
+
+    private long countRows(Map<String, DataSource> physical) {
+        long total = 0;
+        SlotMap slotMap = SlotMap.current();
+        for (String node : slotMap.slotsPerNode().keySet()) {
+            String[] parts = SlotMapRepository.splitNode(node);
+            Long count = new JdbcTemplate(physical.get(parts[0])).queryForObject("SELECT COUNT(*) FROM " + parts[1], Long.class);
+            total += count == null ? 0 : count;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.shardingdemo.stats;
+
+/**
+ * 聚合维度及其在真实表上的分组表达式。
+ */
+public enum AggregateDimension {
+
+    STATUS("status"),
+    USER("user_id"),
+    DAY("CAST(created_at AS DATE)");
+
+    private final String expression;
+
+    AggregateDimension(String expression) {
+        this.expression = expression;
+    }
+
+    String expression() {
+        return expression;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.shardingdemo.stats;
+
+import java.math.BigDecimal;
+
+public class AggregateRow {
+
+    private final String key;
+    private long count;
+    private BigDecimal amount;
+
+    public AggregateRow(String key, long count, BigDecimal amount) {
+        this.key = key;
+        this.count = count;
+        this.amount = amount;
+    }
+
+    void merge(long count, BigDecimal amount) {
+        this.count += count;
+        this.amount = this.amount.add(amount);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.shardingdemo.stats;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class OrderAggregate {
+
+    private final AggregateDimension dimension;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final List<AggregateRow> rows;
+    private final List<ShardTiming> shards;
+    private final long totalMillis;
+    private final long computedAt;
+    private final boolean cached;
+
+    public OrderAggregate(AggregateDimension dimension, LocalDateTime from, LocalDateTime to, List<AggregateRow> rows,
+                          List<ShardTiming> shards, long totalMillis, long computedAt, boolean cached) {
+        this.dimension = dimension;
+        this.from = from;
+        this.to = to;
+        this.rows = rows;
+        this.shards = shards;
+        this.totalMillis = totalMillis;
+        this.computedAt = computedAt;
+        this.cached = cached;
+    }
+
+    OrderAggregate fromCache() {
+        return new OrderAggregate(dimension, from, to, rows, shards, totalMillis, computedAt, true);
+    }
+
+    public AggregateDimension getDimension() {
+        return dimension;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public List<AggregateRow> getRows() {
+        return rows;
+    }
+
+    public List<ShardTiming> getShards() {
+        return shards;
+    }
+
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    public long getComputedAt() {
+        return computedAt;
+    }
+
+    public boolean isCached() {
+        return cached;
+    }
+
+    public boolean isComplete() {
+        return shards.stream().allMatch(shard -> shard.getError() == null);
+    }
+}
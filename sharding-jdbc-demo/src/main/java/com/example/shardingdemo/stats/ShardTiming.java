@@ -0,0 +1,35 @@
+package com.example.shardingdemo.stats;
+
+/**
+ * 单个真实节点上部分聚合的耗时；error 不为空表示这个分片失败，汇总结果不完整。
+ */
+public class ShardTiming {
+
+    private final String node;
+    private final int groups;
+    private final long millis;
+    private final String error;
+
+    public ShardTiming(String node, int groups, long millis, String error) {
+        this.node = node;
+        this.groups = groups;
+        this.millis = millis;
+        this.error = error;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public int getGroups() {
+        return groups;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,6 @@
+CREATE TABLE IF NOT EXISTS id_segment (
+    biz_tag VARCHAR(64) NOT NULL PRIMARY KEY,
+    max_id BIGINT NOT NULL,
+    step INT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
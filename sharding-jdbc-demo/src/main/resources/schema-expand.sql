@@ -29,3 +29,9 @@ CREATE TABLE IF NOT EXISTS t_order_3 (
     status VARCHAR(20) NOT NULL,
     created_at TIMESTAMP NOT NULL
 );
+
+-- 按用户倒序翻页：user_id 等值 + order_id 游标都能走这个索引，每个分片只读一页。
+CREATE INDEX IF NOT EXISTS idx_t_order_0_user_order ON t_order_0 (user_id, order_id DESC);
+CREATE INDEX IF NOT EXISTS idx_t_order_1_user_order ON t_order_1 (user_id, order_id DESC);
+CREATE INDEX IF NOT EXISTS idx_t_order_2_user_order ON t_order_2 (user_id, order_id DESC);
+CREATE INDEX IF NOT EXISTS idx_t_order_3_user_order ON t_order_3 (user_id, order_id DESC);
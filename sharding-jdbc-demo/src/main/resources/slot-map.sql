@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS shard_slot (
+    slot INT NOT NULL PRIMARY KEY,
+    data_source VARCHAR(64) NOT NULL,
+    table_name VARCHAR(64) NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- 迁移中的槽位置为 TRUE，各实例拒绝写入该槽位（写屏障）；已有的配置表在这里补列。
+ALTER TABLE shard_slot ADD COLUMN IF NOT EXISTS frozen BOOLEAN DEFAULT FALSE NOT NULL;
@@ -0,0 +1,136 @@
+package com.example.shardingdemo.bench;
+
+import com.example.shardingdemo.ShardingJdbcDemoApplication;
+import com.example.shardingdemo.domain.Order;
+import com.example.shardingdemo.service.OrderService;
+import com.example.shardingdemo.stats.AggregateDimension;
+import com.example.shardingdemo.stats.AggregateRow;
+import com.example.shardingdemo.stats.OrderAggregate;
+import com.example.shardingdemo.stats.OrderAggregationService;
+import com.example.shardingdemo.stats.ShardTiming;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+/**
+ * 跨分片聚合基准：同一时间窗口上分别用逻辑 SQL（ShardingSphere 归并 GROUP BY）和 OrderAggregationService（分片并行部分聚合）
+ * 求各维度的 count / sum(amount)，比较耗时并核对结果一致；最后给出缓存命中的耗时和一次计算的分片耗时明细。
+ *
+ * <pre>
+ * cd sharding-jdbc-demo
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.shardingdemo.bench.AggregationBenchmark expand 400000
+ * </pre>
+ */
+public class AggregationBenchmark {
+
+    private static final int USERS = 2000;
+    private static final int ROUNDS = 20;
+    private static final String[] STATUSES = {"CREATED", "PAID", "SHIPPED", "CANCELLED"};
+
+    public static void main(String[] args) {
+        String profile = args.length > 0 ? args[0] : "expand";
+        int orders = args.length > 1 ? Integer.parseInt(args[1]) : 400000;
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ShardingJdbcDemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(profile)
+                .run(BenchArgs.springArgs(args, BenchArgs.SQL_SHOW_OFF))) {
+            OrderService orderService = context.getBean(OrderService.class);
+            OrderAggregationService aggregationService = context.getBean(OrderAggregationService.class);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+            LocalDateTime from = LocalDateTime.now().minusMinutes(1);
+            Random random = new Random(42);
+            for (int written = 0; written < orders; written += 1000) {
+                List<Order> batch = new ArrayList<>(1000);
+                for (int i = 0; i < 1000; i++) {
+                    batch.add(new Order(null, 1L + random.nextInt(USERS), BigDecimal.valueOf(1 + random.nextInt(1000)), null, null));
+                }
+                orderService.createOrders(batch);
+            }
+            for (String status : STATUSES) {
+                jdbcTemplate.update("UPDATE t_order SET status = ? WHERE user_id % 4 = ?", status, indexOf(status));
+            }
+            LocalDateTime to = LocalDateTime.now().plusMinutes(1);
+
+            System.out.printf("%nprofile=%s orders=%d%n", profile, orders);
+            System.out.printf("%-8s %8s %16s %16s %8s%n", "by", "groups", "logical ms", "parallel ms", "match");
+            for (AggregateDimension dimension : AggregateDimension.values()) {
+                String sql = "SELECT " + logicalExpression(dimension) + " AS k, COUNT(*), SUM(amount) FROM t_order"
+                        + " WHERE created_at >= ? AND created_at < ? GROUP BY " + logicalExpression(dimension);
+                List<Object[]> logical = new ArrayList<>();
+                double logicalMillis = time(round -> {
+                    logical.clear();
+                    jdbcTemplate.query(sql, rs -> {
+                        logical.add(new Object[]{rs.getString(1), rs.getLong(2), rs.getBigDecimal(3)});
+                    }, Timestamp.valueOf(from), Timestamp.valueOf(to.plusNanos(round * 1000L)));
+                });
+                OrderAggregate[] last = new OrderAggregate[1];
+                // 每轮把窗口右边界挪 1 微秒，保证都是真算而不是命中缓存。
+                double parallelMillis = time(round -> last[0] = aggregationService.aggregate(dimension, from, to.plusNanos(round * 1000L)));
+                System.out.printf("%-8s %8d %16.1f %16.1f %8s%n", dimension, last[0].getRows().size(), logicalMillis, parallelMillis,
+                        sameTotals(logical, last[0].getRows()));
+            }
+
+            OrderAggregate computed = aggregationService.aggregate(AggregateDimension.USER, from, to.plusSeconds(1));
+            double cachedMillis = time(round -> aggregationService.aggregate(AggregateDimension.USER, from, to.plusSeconds(1)));
+            System.out.printf("cached USER aggregate: %.3f ms (computed in %d ms)%n", cachedMillis, computed.getTotalMillis());
+            System.out.println("per-shard timing of that computation:");
+            for (ShardTiming shard : computed.getShards()) {
+                System.out.printf("  %-14s groups=%5d %4d ms%n", shard.getNode(), shard.getGroups(), shard.getMillis());
+            }
+        }
+    }
+
+    private static String logicalExpression(AggregateDimension dimension) {
+        switch (dimension) {
+            case STATUS:
+                return "status";
+            case USER:
+                return "user_id";
+            default:
+                return "CAST(created_at AS DATE)";
+        }
+    }
+
+    private static int indexOf(String status) {
+        for (int i = 0; i < STATUSES.length; i++) {
+            if (STATUSES[i].equals(status)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(status);
+    }
+
+    private static boolean sameTotals(List<Object[]> logical, List<AggregateRow> parallel) {
+        if (logical.size() != parallel.size()) {
+            return false;
+        }
+        long logicalCount = logical.stream().mapToLong(row -> (Long) row[1]).sum();
+        BigDecimal logicalAmount = logical.stream().map(row -> (BigDecimal) row[2]).reduce(BigDecimal.ZERO, BigDecimal::add);
+        long parallelCount = parallel.stream().mapToLong(AggregateRow::getCount).sum();
+        BigDecimal parallelAmount = parallel.stream().map(AggregateRow::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+        return logicalCount == parallelCount && logicalAmount.compareTo(parallelAmount) == 0;
+    }
+
+    private static double time(IntConsumer query) {
+        for (int i = 0; i < 3; i++) {
+            query.accept(-1 - i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            query.accept(i);
+        }
+        return (System.nanoTime() - start) / 1e6 / ROUNDS;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.shardingdemo.bench;
+
+import com.example.shardingdemo.ShardingJdbcDemoApplication;
+import com.example.shardingdemo.domain.Order;
+import com.example.shardingdemo.domain.OrderWriteResult;
+import com.example.shardingdemo.service.OrderService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 批量写基准：同样条数的订单，分别逐条 createOrder 和按批 createOrders（应用内预路由 + 按分片 JDBC batch），比较吞吐；
+ * 最后把一批里混入已存在的订单号，确认只有这些行失败。
+ *
+ * <pre>
+ * cd sharding-jdbc-demo
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.shardingdemo.bench.BatchInsertBenchmark expand 100000 1000
+ * </pre>
+ */
+public class BatchInsertBenchmark {
+
+    private static final int USERS = 1000;
+
+    public static void main(String[] args) {
+        String profile = args.length > 0 ? args[0] : "expand";
+        int orders = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ShardingJdbcDemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(profile)
+                .run(BenchArgs.springArgs(args, BenchArgs.SQL_SHOW_OFF))) {
+            OrderService orderService = context.getBean(OrderService.class);
+            Random random = new Random(42);
+            // 预热两条路径，避免首轮类加载和 JIT 计入结果。
+            for (int i = 0; i < 5000; i++) {
+                orderService.createOrder(null, 1L + random.nextInt(USERS), BigDecimal.ONE);
+            }
+            orderService.createOrders(requests(random, batchSize));
+
+            long start = System.nanoTime();
+            for (int i = 0; i < orders; i++) {
+                orderService.createOrder(null, 1L + random.nextInt(USERS), BigDecimal.TEN);
+            }
+            double singleSeconds = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            int failed = 0;
+            for (int written = 0; written < orders; written += batchSize) {
+                for (OrderWriteResult result : orderService.createOrders(requests(random, Math.min(batchSize, orders - written)))) {
+                    failed += result.isSuccess() ? 0 : 1;
+                }
+            }
+            double batchSeconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("%nprofile=%s orders=%d batch=%d%n", profile, orders, batchSize);
+            System.out.printf("%-14s %12s %12s%n", "mode", "seconds", "rows/s");
+            System.out.printf("%-14s %12.2f %12.0f%n", "single insert", singleSeconds, orders / singleSeconds);
+            System.out.printf("%-14s %12.2f %12.0f   (failed rows: %d)%n", "shard batch", batchSeconds, orders / batchSeconds, failed);
+
+            List<Order> mixed = requests(random, 10);
+            Order existing = orderService.createOrder(null, 5L, BigDecimal.ONE);
+            mixed.set(3, new Order(existing.getOrderId(), existing.getUserId(), BigDecimal.ONE, null, null));
+            mixed.set(7, new Order(existing.getOrderId() + 2, 6L, BigDecimal.ONE, null, null));
+            System.out.println("mixed batch (row 3 duplicate id, row 7 wrong gene):");
+            List<OrderWriteResult> results = orderService.createOrders(mixed);
+            for (int i = 0; i < results.size(); i++) {
+                OrderWriteResult result = results.get(i);
+                System.out.printf("  %d %-8s %-14s %s%n", i, result.isSuccess() ? "ok" : "FAILED", result.getDataNode(),
+                        result.getError() == null ? "" : result.getError().split("\n")[0]);
+            }
+        }
+    }
+
+    private static List<Order> requests(Random random, int count) {
+        List<Order> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            requests.add(new Order(null, 1L + random.nextInt(USERS), BigDecimal.TEN, null, null));
+        }
+        return requests;
+    }
+}
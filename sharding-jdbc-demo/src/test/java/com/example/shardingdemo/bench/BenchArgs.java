@@ -0,0 +1,23 @@
+package com.example.shardingdemo.bench;
+
+import java.util.Arrays;
+
+/**
+ * 基准 main 启动 Spring 时用的命令行参数。
+ * <p>
+ * {@code SpringApplicationBuilder.properties(...)} 只是默认值，会被 profile 的 yml 覆盖（比如 {@code sql-show: true}），
+ * 所以需要强制生效的配置以 {@code --key=value} 追加在原始参数后面，原始参数照常转给 Spring。
+ */
+final class BenchArgs {
+
+    static final String SQL_SHOW_OFF = "--spring.shardingsphere.props.sql-show=false";
+
+    private BenchArgs() {
+    }
+
+    static String[] springArgs(String[] args, String... overrides) {
+        String[] merged = Arrays.copyOf(args, args.length + overrides.length);
+        System.arraycopy(overrides, 0, merged, args.length, overrides.length);
+        return merged;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.shardingdemo.bench;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import com.example.shardingdemo.ShardingJdbcDemoApplication;
+import com.example.shardingdemo.domain.Order;
+import com.example.shardingdemo.service.OrderService;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 路由扇出基准：按指定 profile 启动（不起 Web），写入一批订单后分别压 findById / findByUserId，
+ * 统计每次查询实际下发的物理 SQL 条数（取自 ShardingSphere 的 sql-show 日志）和平均耗时。
+ *
+ * <pre>
+ * cd sharding-jdbc-demo
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.shardingdemo.bench.FanOutBenchmark combo 20000
+ * </pre>
+ */
+public class FanOutBenchmark {
+
+    private static final int USERS = 200;
+    private static final int ORDERS_PER_USER = 5;
+
+    public static void main(String[] args) {
+        String profile = args.length > 0 ? args[0] : "combo";
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ShardingJdbcDemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(profile)
+                .properties("spring.shardingsphere.props.sql-show=true")
+                .run(args)) {
+            // Spring Boot 启动时会重置 logback，计数 appender 必须在上下文起来之后再挂。
+            ActualSqlCounter counter = ActualSqlCounter.attach();
+            OrderService orderService = context.getBean(OrderService.class);
+            List<Order> orders = new ArrayList<>(USERS * ORDERS_PER_USER);
+            for (long userId = 1; userId <= USERS; userId++) {
+                for (int i = 0; i < ORDERS_PER_USER; i++) {
+                    orders.add(orderService.createOrder(null, userId, BigDecimal.valueOf(10 + i)));
+                }
+            }
+
+            Random random = new Random(42);
+            System.out.printf("%nprofile=%s orders=%d iterations=%d%n", profile, orders.size(), iterations);
+            System.out.printf("%-14s %18s %14s%n", "query", "physical sql/call", "avg micros");
+            run("findById", iterations, counter, i -> orderService.findById(orders.get(random.nextInt(orders.size())).getOrderId()));
+            run("findByUserId", iterations, counter, i -> orderService.findByUserId(1 + random.nextInt(USERS), 10));
+            counter.detach();
+        }
+    }
+
+    private static void run(String name, int iterations, ActualSqlCounter counter, Consumer<Integer> query) {
+        for (int i = 0; i < iterations / 10; i++) {
+            query.accept(i);
+        }
+        counter.reset();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            query.accept(i);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-14s %18.2f %14.1f%n", name, (double) counter.count() / iterations, elapsed / 1000.0 / iterations);
+    }
+
+    private static final class ActualSqlCounter extends AppenderBase<ILoggingEvent> {
+        private final AtomicLong count = new AtomicLong();
+        private Logger logger;
+
+        static ActualSqlCounter attach() {
+            ActualSqlCounter counter = new ActualSqlCounter();
+            counter.logger = (Logger) LoggerFactory.getLogger("ShardingSphere-SQL");
+            counter.setContext(counter.logger.getLoggerContext());
+            counter.start();
+            counter.logger.addAppender(counter);
+            counter.logger.setAdditive(false);
+            return counter;
+        }
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            if (event.getFormattedMessage().startsWith("Actual SQL")) {
+                count.incrementAndGet();
+            }
+        }
+
+        void reset() {
+            count.set(0);
+        }
+
+        long count() {
+            return count.get();
+        }
+
+        void detach() {
+            logger.detachAppender(this);
+            logger.setAdditive(true);
+            stop();
+        }
+    }
+}
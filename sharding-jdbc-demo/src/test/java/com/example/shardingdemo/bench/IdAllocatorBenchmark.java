@@ -0,0 +1,58 @@
+package com.example.shardingdemo.bench;
+
+import com.example.shardingdemo.id.SegmentIdAllocator;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 号段发号器吞吐：多线程持续取号 N 秒，输出每秒发号数和期间访问数据库的次数（号段数）。
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.shardingdemo.bench.IdAllocatorBenchmark 4 5 10000
+ * </pre>
+ */
+public class IdAllocatorBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int step = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:id-bench;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=FALSE;INIT=RUNSCRIPT FROM 'classpath:id-segment.sql'");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(2);
+        try (SegmentIdAllocator allocator = new SegmentIdAllocator(dataSource, "bench", 1000, step)) {
+            for (int i = 0; i < 1_000_000; i++) {
+                allocator.nextId();
+            }
+            long fetchedBefore = allocator.segmentsFetched();
+            LongAdder issued = new LongAdder();
+            AtomicBoolean running = new AtomicBoolean(true);
+            CountDownLatch done = new CountDownLatch(threads);
+            for (int t = 0; t < threads; t++) {
+                Thread worker = new Thread(() -> {
+                    long local = 0;
+                    while (running.get()) {
+                        allocator.nextId();
+                        local++;
+                    }
+                    issued.add(local);
+                    done.countDown();
+                });
+                worker.start();
+            }
+            long start = System.nanoTime();
+            TimeUnit.SECONDS.sleep(seconds);
+            running.set(false);
+            done.await();
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            System.out.printf("threads=%d step=%d ids=%d ids/s=%,.0f segments fetched=%d%n",
+                    threads, step, issued.sum(), issued.sum() / elapsed, allocator.segmentsFetched() - fetchedBefore);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.shardingdemo.bench;
+
+import com.example.shardingdemo.ShardingJdbcDemoApplication;
+import com.example.shardingdemo.domain.Order;
+import com.example.shardingdemo.migration.MigrationStatus;
+import com.example.shardingdemo.migration.OrderMigrationService;
+import com.example.shardingdemo.service.OrderService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 在线迁移基准：migrate profile 下先灌一批订单，测基线 findById 延迟；
+ * 然后启动迁移，复制期间继续边写边读，对比延迟并给出复制速率；最后校验、切换，确认所有订单在新分片上都查得到。
+ *
+ * <pre>
+ * cd sharding-jdbc-demo
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.shardingdemo.bench.MigrationBenchmark 200000 500
+ * </pre>
+ */
+public class MigrationBenchmark {
+
+    private static final int USERS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        int initialOrders = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ShardingJdbcDemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("migrate")
+                .properties("migration.copy.batch-size=" + batchSize)
+                .run(args)) {
+            OrderService orderService = context.getBean(OrderService.class);
+            OrderMigrationService migrationService = context.getBean(OrderMigrationService.class);
+            Random random = new Random(42);
+            List<Long> ids = Collections.synchronizedList(new ArrayList<>(initialOrders * 2));
+            for (int i = 0; i < initialOrders; i++) {
+                ids.add(orderService.createOrder(null, 1L + random.nextInt(USERS), BigDecimal.valueOf(1 + random.nextInt(500))).getOrderId());
+            }
+            System.out.printf("%norders=%d copy batch-size=%d%n", initialOrders, batchSize);
+            System.out.printf("%-22s %10s %10s %10s%n", "findById (micros)", "samples", "p50", "p99");
+
+            report("baseline", sampleLatency(orderService, ids, random, 20000, () -> true));
+
+            migrationService.start();
+            AtomicBoolean copying = new AtomicBoolean(true);
+            Thread writer = new Thread(() -> {
+                Random writes = new Random(7);
+                while (copying.get()) {
+                    ids.add(orderService.createOrder(null, 1L + writes.nextInt(USERS), BigDecimal.ONE).getOrderId());
+                }
+            }, "migration-bench-writer");
+            writer.start();
+            long[] duringCopy = sampleLatency(orderService, ids, random, Integer.MAX_VALUE,
+                    () -> "COPYING".equals(migrationService.status().getState()));
+            copying.set(false);
+            writer.join();
+            report("during copy", duringCopy);
+
+            MigrationStatus copied = migrationService.status();
+            System.out.printf("%ncopy state=%s rows=%d in %d ms (%.0f rows/s), dual-write failures=%d, writes during copy=%d%n",
+                    copied.getState(), copied.getCopiedRows(), copied.getCopyMillis(), copied.getRowsPerSecond(),
+                    copied.getDualWriteFailures(), ids.size() - initialOrders);
+
+            long verifyStart = System.nanoTime();
+            MigrationStatus verified = migrationService.verify();
+            long mismatched = verified.getVerification().stream().filter(c -> !c.isMatched()).count();
+            System.out.printf("verify state=%s in %d ms, %d/%d target shards mismatched%n", verified.getState(),
+                    (System.nanoTime() - verifyStart) / 1_000_000, mismatched, verified.getVerification().size());
+
+            migrationService.cutover();
+            long missing = 0;
+            synchronized (ids) {
+                for (long id : ids) {
+                    if (orderService.findById(id).isEmpty()) {
+                        missing++;
+                    }
+                }
+            }
+            System.out.printf("after cutover: %d orders, %d missing on target%n", ids.size(), missing);
+            report("after cutover", sampleLatency(orderService, ids, random, 20000, () -> true));
+        }
+    }
+
+    private static long[] sampleLatency(OrderService orderService, List<Long> ids, Random random, int maxSamples,
+                                        BooleanSupplier keepGoing) {
+        long[] samples = new long[Math.min(maxSamples, 1 << 20)];
+        int n = 0;
+        while (n < samples.length && keepGoing.getAsBoolean()) {
+            long id = ids.get(random.nextInt(ids.size()));
+            long start = System.nanoTime();
+            Order order = orderService.findById(id).orElse(null);
+            samples[n++] = System.nanoTime() - start;
+            if (order == null) {
+                throw new IllegalStateException("order " + id + " not found");
+            }
+        }
+        return Arrays.copyOf(samples, n);
+    }
+
+    private static void report(String name, long[] nanos) {
+        Arrays.sort(nanos);
+        if (nanos.length == 0) {
+            System.out.printf("%-22s %10d%n", name, 0);
+            return;
+        }
+        System.out.printf("%-22s %10d %10.1f %10.1f%n", name, nanos.length,
+                nanos[nanos.length / 2] / 1000.0, nanos[(int) (nanos.length * 0.99)] / 1000.0);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.shardingdemo.bench;
+
+import com.example.shardingdemo.ShardingJdbcDemoApplication;
+import com.example.shardingdemo.domain.OrderPage;
+import com.example.shardingdemo.service.OrderService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * 跨分片翻页基准：给一个用户写入大量订单，在不同深度上分别用 LIMIT offset 和 after 游标取一页，比较单页耗时。
+ * offset 方式下每个分片都要返回 offset + limit 行再归并，游标方式每个分片最多返回 limit + 1 行。
+ *
+ * <pre>
+ * cd sharding-jdbc-demo
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.shardingdemo.bench.PaginationBenchmark default 50000
+ * </pre>
+ */
+public class PaginationBenchmark {
+
+    private static final long USER_ID = 7;
+    private static final int PAGE_SIZE = 20;
+    private static final int ROUNDS = 200;
+
+    public static void main(String[] args) {
+        String profile = args.length > 0 ? args[0] : "default";
+        int orders = args.length > 1 ? Integer.parseInt(args[1]) : 50000;
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ShardingJdbcDemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(profile)
+                .run(BenchArgs.springArgs(args, BenchArgs.SQL_SHOW_OFF))) {
+            OrderService orderService = context.getBean(OrderService.class);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            for (int i = 0; i < orders; i++) {
+                orderService.createOrder(null, USER_ID, BigDecimal.TEN);
+            }
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT order_id FROM t_order WHERE user_id = ? ORDER BY order_id DESC", Long.class, USER_ID);
+
+            String offsetSql = "SELECT order_id, user_id, amount, status, created_at FROM t_order WHERE user_id = ? ORDER BY user_id, order_id DESC LIMIT ?, ?";
+            System.out.printf("%nprofile=%s orders=%d page=%d%n", profile, orders, PAGE_SIZE);
+            System.out.printf("%-10s %16s %16s%n", "depth", "offset micros", "cursor micros");
+            for (int depth : new int[]{0, 1000, 10000, orders / 2, orders - PAGE_SIZE}) {
+                long offsetMicros = time(depth, round -> jdbcTemplate.queryForList(offsetSql, USER_ID, round, PAGE_SIZE));
+                long cursorMicros = time(depth, round -> {
+                    Long cursor = round == 0 ? null : ids.get(round - 1);
+                    OrderPage page = orderService.findPageByUserId(USER_ID, cursor, PAGE_SIZE);
+                    if (!page.getOrders().get(0).getOrderId().equals(ids.get(round))) {
+                        throw new IllegalStateException("cursor page mismatch at depth " + round);
+                    }
+                });
+                System.out.printf("%-10d %16d %16d%n", depth, offsetMicros, cursorMicros);
+            }
+
+            long start = System.nanoTime();
+            int pages = 0;
+            int seen = 0;
+            Long cursor = null;
+            do {
+                OrderPage page = orderService.findPageByUserId(USER_ID, cursor, PAGE_SIZE);
+                seen += page.getOrders().size();
+                cursor = page.getNextCursor();
+                pages++;
+            } while (cursor != null);
+            System.out.printf("full cursor walk: %d pages, %d orders, %d ms%n", pages, seen, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    // 每轮深度错开一行，避免 H2 对完全相同的查询直接复用上一次的结果。
+    private static long time(int depth, IntConsumer query) {
+        int first = Math.max(0, depth - ROUNDS);
+        for (int i = 0; i < ROUNDS / 10; i++) {
+            query.accept(first + i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            query.accept(first + i);
+        }
+        return (System.nanoTime() - start) / 1000 / ROUNDS;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.shardingdemo.bench;
+
+import com.example.shardingdemo.ShardingJdbcDemoApplication;
+import com.example.shardingdemo.domain.Order;
+import com.example.shardingdemo.readwrite.ReplicaHealth;
+import com.example.shardingdemo.service.OrderService;
+import com.example.shardingdemo.trace.TraceIdHolder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * 读写分离基准：readwrite profile 下把 read_ds_1 换成一个不再同步的库（模拟复制卡住的从库），
+ * 分别用 ROUND_ROBIN 和 LAG_AWARE 负载均衡，统计“写完马上按 id 读”读不到的比例：
+ * 一种是读请求换了新 trace（别的请求来读），一种是同一 trace 内写后读。
+ *
+ * <pre>
+ * cd sharding-jdbc-demo
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.shardingdemo.bench.ReadwriteBenchmark 2000
+ * </pre>
+ */
+public class ReadwriteBenchmark {
+
+    private static final String STALE_REPLICA_URL = "jdbc:h2:mem:rw_stale;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=FALSE;"
+            + "INIT=RUNSCRIPT FROM 'classpath:schema.sql'";
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        System.out.printf("%-12s %22s %22s %16s%n", "balancer", "miss (other trace)", "miss (same trace)", "avg read micros");
+        for (String balancer : new String[]{"ROUND_ROBIN", "LAG_AWARE"}) {
+            run(balancer, iterations);
+        }
+    }
+
+    private static void run(String balancer, int iterations) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ShardingJdbcDemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("readwrite")
+                // 用命令行参数覆盖：builder.properties 只是默认值，压不过 application-readwrite.yml。
+                .run("--spring.shardingsphere.props.sql-show=false",
+                        "--spring.shardingsphere.datasource.read_ds_1.jdbc-url=" + STALE_REPLICA_URL,
+                        "--spring.shardingsphere.rules.readwrite-splitting.load-balancers.lag_aware.type=" + balancer)) {
+            OrderService orderService = context.getBean(OrderService.class);
+            // 等第一轮心跳探测结果生效。
+            Thread.sleep(1000);
+            // 两种场景分开跑，避免轮询的奇偶顺序恰好和场景交替对上。
+            int otherTraceMisses = 0;
+            long readNanos = 0;
+            for (int i = 0; i < iterations; i++) {
+                TraceIdHolder.set(UUID.randomUUID().toString());
+                Order created = orderService.createOrder(null, 1L + i % 100, BigDecimal.ONE);
+                TraceIdHolder.set(UUID.randomUUID().toString());
+                long start = System.nanoTime();
+                otherTraceMisses += orderService.findById(created.getOrderId()).isPresent() ? 0 : 1;
+                readNanos += System.nanoTime() - start;
+            }
+            int sameTraceMisses = 0;
+            for (int i = 0; i < iterations; i++) {
+                TraceIdHolder.set(UUID.randomUUID().toString());
+                Order created = orderService.createOrder(null, 1L + i % 100, BigDecimal.ONE);
+                sameTraceMisses += orderService.findById(created.getOrderId()).isPresent() ? 0 : 1;
+            }
+            TraceIdHolder.clear();
+            System.out.printf("%-12s %21.1f%% %21.1f%% %16.1f%n", balancer,
+                    otherTraceMisses * 100.0 / iterations, sameTraceMisses * 100.0 / iterations, readNanos / 1000.0 / iterations);
+            System.out.printf("             probed lag: read_ds_0=%d ms, read_ds_1=%s%n", ReplicaHealth.lagMillis("read_ds_0"),
+                    ReplicaHealth.lagMillis("read_ds_1") == ReplicaHealth.LAG_UNREACHABLE ? "unreachable" : ReplicaHealth.lagMillis("read_ds_1") + " ms");
+        }
+    }
+}
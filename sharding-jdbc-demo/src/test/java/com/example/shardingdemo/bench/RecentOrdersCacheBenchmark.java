@@ -0,0 +1,97 @@
+package com.example.shardingdemo.bench;
+
+import com.example.shardingdemo.ShardingJdbcDemoApplication;
+import com.example.shardingdemo.cache.RecentOrdersCache;
+import com.example.shardingdemo.domain.Order;
+import com.example.shardingdemo.repository.OrderRepository;
+import com.example.shardingdemo.service.OrderService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+/**
+ * 最近订单缓存基准：同一个 JVM 里起两个实例（共用同一组内存库，相当于两台应用连同一套分片），
+ * 先比较 findByUserId 直接查库和走缓存的耗时，再在实例 A 下单，测实例 B 多久能读到这笔新订单（跨实例失效）。
+ *
+ * <pre>
+ * cd sharding-jdbc-demo
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.shardingdemo.bench.RecentOrdersCacheBenchmark combo 2000
+ * </pre>
+ */
+public class RecentOrdersCacheBenchmark {
+
+    private static final int ORDERS_PER_USER = 30;
+    private static final int LIMIT = 10;
+    private static final int ROUNDS = 50000;
+
+    public static void main(String[] args) throws Exception {
+        String profile = args.length > 0 ? args[0] : "combo";
+        int users = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        try (ConfigurableApplicationContext a = start(profile, args);
+             ConfigurableApplicationContext b = start(profile, args)) {
+            OrderService serviceA = a.getBean(OrderService.class);
+            OrderService serviceB = b.getBean(OrderService.class);
+            OrderRepository repository = a.getBean(OrderRepository.class);
+            RecentOrdersCache cacheA = a.getBean(RecentOrdersCache.class);
+
+            Random random = new Random(42);
+            for (int round = 0; round < ORDERS_PER_USER; round++) {
+                List<Order> batch = new ArrayList<>(users);
+                for (long userId = 1; userId <= users; userId++) {
+                    batch.add(new Order(null, userId, BigDecimal.valueOf(1 + random.nextInt(100)), null, null));
+                }
+                serviceA.createOrders(batch);
+            }
+
+            System.out.printf("%nprofile=%s users=%d orders/user=%d limit=%d%n", profile, users, ORDERS_PER_USER, LIMIT);
+            double database = time(i -> repository.findByUserId(1 + random.nextInt(users), LIMIT));
+            double cached = time(i -> serviceA.findByUserId(1 + random.nextInt(users), LIMIT));
+            System.out.printf("%-22s %10.1f micros%n", "database", database);
+            System.out.printf("%-22s %10.1f micros   %s%n", "recent-orders cache", cached, cacheA.stats());
+
+            long userId = 7;
+            serviceB.findByUserId(userId, LIMIT);
+            long propagation = 0;
+            int samples = 20;
+            for (int i = 0; i < samples; i++) {
+                Order created = serviceA.createOrder(null, userId, BigDecimal.ONE);
+                long start = System.nanoTime();
+                while (!serviceB.findByUserId(userId, LIMIT).get(0).getOrderId().equals(created.getOrderId())) {
+                    if (System.nanoTime() - start > 5_000_000_000L) {
+                        throw new IllegalStateException("instance B never saw order " + created.getOrderId());
+                    }
+                    Thread.sleep(0, 100_000);
+                }
+                propagation += System.nanoTime() - start;
+            }
+            System.out.printf("cross-instance visibility after write: %.2f ms avg over %d writes, instance B %s%n",
+                    propagation / 1e6 / samples, samples, b.getBean(RecentOrdersCache.class).stats());
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String profile, String[] args) {
+        return new SpringApplicationBuilder(ShardingJdbcDemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(profile)
+                .run(BenchArgs.springArgs(args, BenchArgs.SQL_SHOW_OFF));
+    }
+
+    private static double time(IntConsumer query) {
+        for (int i = 0; i < ROUNDS / 10; i++) {
+            query.accept(i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            query.accept(i);
+        }
+        return (System.nanoTime() - start) / 1000.0 / ROUNDS;
+    }
+}
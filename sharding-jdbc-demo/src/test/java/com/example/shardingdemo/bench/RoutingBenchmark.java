@@ -0,0 +1,103 @@
+package com.example.shardingdemo.bench;
+
+import com.example.shardingdemo.sharding.OrderTableSpiShardingAlgorithm;
+import com.google.common.collect.Range;
+import org.apache.shardingsphere.infra.datanode.DataNodeInfo;
+import org.apache.shardingsphere.sharding.api.sharding.standard.PreciseShardingValue;
+import org.apache.shardingsphere.sharding.api.sharding.standard.RangeShardingValue;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * 分表算法路由微基准：精确路由对比旧的 endsWith 逐个扫描与 init 时预建的后缀表，
+ * 范围路由输出不同区间宽度实际命中的表数。不启动 Spring，直接调算法。
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.shardingdemo.bench.RoutingBenchmark 16 20000000
+ * </pre>
+ */
+public class RoutingBenchmark {
+
+    private static final DataNodeInfo NODE_INFO = new DataNodeInfo("t_order_", 1, '0');
+
+    private static volatile long blackhole;
+
+    public static void main(String[] args) {
+        int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20_000_000;
+
+        Set<String> tables = new LinkedHashSet<>();
+        for (int i = 0; i < tableCount; i++) {
+            tables.add("t_order_" + i);
+        }
+        Properties props = new Properties();
+        props.setProperty("table-count", String.valueOf(tableCount));
+        OrderTableSpiShardingAlgorithm algorithm = new OrderTableSpiShardingAlgorithm();
+        algorithm.init(props);
+
+        System.out.printf("tables=%d iterations=%d%n", tableCount, iterations);
+        for (int round = 0; round < 3; round++) {
+            long scan = time(iterations, i -> endsWithScan(tables, i, tableCount));
+            long lookup = time(iterations, i -> algorithm.doSharding(tables, precise(i)));
+            System.out.printf("precise  endsWith scan %6.1f ns/op   lookup %6.1f ns/op%n",
+                    (double) scan / iterations, (double) lookup / iterations);
+        }
+
+        System.out.printf("%nrange (order_id BETWEEN x AND x + width - 1), range-size=1%n");
+        for (long width : new long[]{1, 2, 4, tableCount - 1L, tableCount}) {
+            Collection<String> routed = algorithm.doSharding(tables, range(Range.closed(1000L, 1000L + width - 1)));
+            System.out.printf("width=%-4d tables before=%-3d after=%d%n", width, tables.size(), routed.size());
+        }
+
+        Properties bucketProps = new Properties();
+        bucketProps.setProperty("table-count", String.valueOf(tableCount));
+        bucketProps.setProperty("range-size", "1000");
+        OrderTableSpiShardingAlgorithm bucketed = new OrderTableSpiShardingAlgorithm();
+        bucketed.init(bucketProps);
+        System.out.printf("%nrange with range-size=1000%n");
+        for (long width : new long[]{100, 1000, 5000}) {
+            Collection<String> routed = bucketed.doSharding(tables, range(Range.closed(3000L, 3000L + width - 1)));
+            System.out.printf("width=%-5d tables before=%-3d after=%d%n", width, tables.size(), routed.size());
+        }
+    }
+
+    private static long time(int iterations, RouteTask task) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += task.run(i).length();
+        }
+        long elapsed = System.nanoTime() - start;
+        blackhole = sink;
+        return elapsed;
+    }
+
+    /**
+     * 旧实现：每次拼后缀再逐个 endsWith。
+     */
+    private static String endsWithScan(Collection<String> tables, long value, int tableCount) {
+        String expectedSuffix = "_" + Math.abs(value) % tableCount;
+        for (String tableName : tables) {
+            if (tableName.endsWith(expectedSuffix)) {
+                return tableName;
+            }
+        }
+        throw new IllegalArgumentException("No table found for value: " + value);
+    }
+
+    private static PreciseShardingValue<Comparable<?>> precise(long value) {
+        return new PreciseShardingValue<>("t_order", "order_id", NODE_INFO, value);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static RangeShardingValue<Comparable<?>> range(Range<Long> range) {
+        return new RangeShardingValue<>("t_order", "order_id", NODE_INFO, (Range) range);
+    }
+
+    private interface RouteTask {
+        String run(long value);
+    }
+}